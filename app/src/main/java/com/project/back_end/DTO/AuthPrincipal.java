@@ -0,0 +1,41 @@
+package com.project.back_end.DTO;
+
+// Caller identity resolved once per request from the JWT by the auth interceptor.
+// Controllers and services receive this instead of the raw token, so nobody has to re-parse it.
+public class AuthPrincipal {
+
+    private final String role;      // "admin", "doctor" or "patient"
+    private final Long id;          // id of the Admin/Doctor/Patient record
+    private final String email;     // token subject: email for Doctor/Patient, username for Admin
+
+    public AuthPrincipal(String role, Long id, String email) {
+        this.role = role;
+        this.id = id;
+        this.email = email;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public boolean hasRole(String role) {
+        return this.role.equalsIgnoreCase(role);
+    }
+
+    @Override
+    public String toString() {
+        return "AuthPrincipal{" +
+                "role='" + role + '\'' +
+                ", id=" + id +
+                ", email='" + email + '\'' +
+                '}';
+    }
+}
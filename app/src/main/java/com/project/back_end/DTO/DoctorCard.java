@@ -0,0 +1,73 @@
+package com.project.back_end.DTO;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.project.back_end.models.Doctor;
+
+// Read-only view of a doctor for listings and search results: the fields a doctor card shows, nothing else.
+// Built by JPQL constructor expressions in `DoctorRepository` (`SELECT new ...DoctorCard(...)`), so list queries select
+// only these columns, never touch the password and create no managed entities in the persistence context.
+// Serializes to the same JSON as `Doctor` (availableTimes as slot labels), so clients see no difference.
+public class DoctorCard {
+
+    private final Long id;
+    private final String name;
+    private final String specialty;
+    private final String email;
+    private final String phone;
+    private final int availableHours;       // same encoding as `Doctor.availableHours`
+
+    public DoctorCard(Long id, String name, String specialty, String email, String phone, int availableHours) {
+        this.id = id;
+        this.name = name;
+        this.specialty = specialty;
+        this.email = email;
+        this.phone = phone;
+        this.availableHours = availableHours;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSpecialty() {
+        return specialty;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getPhone() {
+        return phone;
+    }
+
+    // Labels are produced only when the card is serialized
+    public List<String> getAvailableTimes() {
+        return Doctor.toTimes(availableHours);
+    }
+
+    @JsonIgnore
+    public int getAvailableHours() {
+        return availableHours;
+    }
+
+    @JsonIgnore
+    public int getAvailablePeriods() {
+        return Doctor.periodsOf(availableHours);
+    }
+
+    @Override
+    public String toString() {
+        return "DoctorCard{" +
+                "id=" + id +
+                ", name='" + name + '\'' +
+                ", specialty='" + specialty + '\'' +
+                '}';
+    }
+}
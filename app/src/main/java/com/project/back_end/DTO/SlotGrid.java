@@ -0,0 +1,80 @@
+package com.project.back_end.DTO;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+// The bookable slots of one day, as minute-of-day start times (slot i starts at `startMinute(i)`).
+// Sets of slots are `long` bitmasks over the slot indexes, so availability is computed with bit operations
+// and a time is mapped to its slot with one array lookup; nothing is allocated per check.
+// Display labels ("09:00 AM") are formatted once, here, and only used when a `SlotSet` is serialized.
+public final class SlotGrid {
+
+    public static final int MAX_SLOTS = Long.SIZE;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    // Daily slots offered before per-doctor schedules existed
+    public static final SlotGrid DEFAULT = new SlotGrid(new int[] {9 * 60, 10 * 60, 11 * 60, 13 * 60, 14 * 60, 15 * 60}, 60);
+
+    private final int[] startMinutes;
+    private final int slotMinutes;
+    private final String[] labels;
+    // minute of day -> slot index, -1 when no slot starts at that minute
+    private final byte[] slotByMinute;
+
+    public SlotGrid(int[] startMinutes, int slotMinutes) {
+        if (startMinutes.length > MAX_SLOTS) {
+            throw new IllegalArgumentException("At most " + MAX_SLOTS + " slots per day");
+        }
+        this.startMinutes = startMinutes.clone();
+        Arrays.sort(this.startMinutes);
+        this.slotMinutes = slotMinutes;
+        this.labels = new String[this.startMinutes.length];
+        this.slotByMinute = new byte[MINUTES_PER_DAY];
+        Arrays.fill(slotByMinute, (byte) -1);
+
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("hh:mm a");
+        for (int i = 0; i < this.startMinutes.length; i++) {
+            int minute = this.startMinutes[i];
+            if (minute < 0 || minute >= MINUTES_PER_DAY) {
+                throw new IllegalArgumentException("Slot start outside the day: " + minute);
+            }
+            labels[i] = LocalTime.of(minute / 60, minute % 60).format(formatter);
+            slotByMinute[minute] = (byte) i;
+        }
+    }
+
+    public int size() {
+        return startMinutes.length;
+    }
+
+    public int startMinute(int slot) {
+        return startMinutes[slot];
+    }
+
+    public int slotMinutes() {
+        return slotMinutes;
+    }
+
+    public String label(int slot) {
+        return labels[slot];
+    }
+
+    // Mask with one bit per slot of the grid
+    public long allSlots() {
+        return startMinutes.length == MAX_SLOTS ? -1L : (1L << startMinutes.length) - 1;
+    }
+
+    // Slot index of a start time, or -1 when the time is not exactly the start of a slot
+    public int slotIndex(LocalTime time) {
+        if (time.getSecond() != 0 || time.getNano() != 0) {
+            return -1;
+        }
+        return slotByMinute[time.getHour() * 60 + time.getMinute()];
+    }
+
+    public int slotIndex(LocalDateTime dateTime) {
+        return slotIndex(dateTime.toLocalTime());
+    }
+}
@@ -0,0 +1,45 @@
+package com.project.back_end.DTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+// A set of slots of one `SlotGrid`, kept as a bitmask until it is written to JSON.
+// Serializes as the list of slot labels, e.g. ["09:00 AM", "01:00 PM"], the shape the frontend already uses.
+public final class SlotSet {
+
+    private final SlotGrid grid;
+    private final long mask;
+
+    public SlotSet(SlotGrid grid, long mask) {
+        this.grid = grid;
+        this.mask = mask & grid.allSlots();
+    }
+
+    public long getMask() {
+        return mask;
+    }
+
+    public boolean contains(int slot) {
+        return slot >= 0 && (mask & (1L << slot)) != 0;
+    }
+
+    public boolean isEmpty() {
+        return mask == 0L;
+    }
+
+    @JsonValue
+    public List<String> toLabels() {
+        List<String> labels = new ArrayList<>(Long.bitCount(mask));
+        for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            labels.add(grid.label(Long.numberOfTrailingZeros(remaining)));
+        }
+        return labels;
+    }
+
+    @Override
+    public String toString() {
+        return toLabels().toString();
+    }
+}
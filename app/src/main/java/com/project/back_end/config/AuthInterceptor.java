@@ -0,0 +1,89 @@
+package com.project.back_end.config;
+
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.back_end.DTO.AuthPrincipal;
+import com.project.back_end.services.TokenService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Validates the caller's token once per request for handlers annotated with `@RequiresRole`.
+// - The token is read from an `Authorization: Bearer <token>` header, or else from the `{token}` path variable of the
+//   older routes. Header requests use URLs without the token, which HTTP caches can share and access logs do not leak.
+// - On success the resolved `AuthPrincipal` is stored as a request attribute and injected into the handler
+//   by `AuthPrincipalArgumentResolver`; the raw token is stored too, for logout.
+// - On failure the request is answered with 401 and the handler never runs.
+@Component
+public class AuthInterceptor implements HandlerInterceptor {
+
+    public static final String PRINCIPAL_ATTRIBUTE = AuthInterceptor.class.getName() + ".principal";
+    // A literal, so handlers can use it in `@RequestAttribute`
+    public static final String TOKEN_ATTRIBUTE = "com.project.back_end.config.AuthInterceptor.token";
+
+    private static final String BEARER = "Bearer ";
+
+    private final TokenService tokenService;
+    private final ObjectMapper objectMapper;
+
+    public AuthInterceptor(TokenService tokenService, ObjectMapper objectMapper) {
+        this.tokenService = tokenService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                             @NonNull Object handler) throws Exception {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        RequiresRole requiresRole = handlerMethod.getMethodAnnotation(RequiresRole.class);
+        if (requiresRole == null) {
+            return true;
+        }
+
+        @SuppressWarnings("unchecked")
+        Map<String, String> pathVariables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+
+        String token = bearerToken(request);
+        if (token == null && pathVariables != null) {
+            token = pathVariables.get("token");
+        }
+        String role = requiresRole.roleVariable().isEmpty()
+                ? requiresRole.value()
+                : (pathVariables != null ? pathVariables.get(requiresRole.roleVariable()) : null);
+
+        AuthPrincipal principal = tokenService.resolvePrincipal(token, role);
+        if (principal == null) {
+            response.setStatus(HttpStatus.UNAUTHORIZED.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), Map.of("message", "Invalid or expired token"));
+            return false;
+        }
+
+        request.setAttribute(PRINCIPAL_ATTRIBUTE, principal);
+        request.setAttribute(TOKEN_ATTRIBUTE, token);
+        return true;
+    }
+
+    // Token of an `Authorization: Bearer` header, or null
+    private static String bearerToken(HttpServletRequest request) {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            return null;
+        }
+        String token = header.substring(BEARER.length()).trim();
+        return token.isEmpty() ? null : token;
+    }
+}
@@ -0,0 +1,32 @@
+package com.project.back_end.config;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.lang.NonNull;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import com.project.back_end.DTO.AuthPrincipal;
+
+// Injects the `AuthPrincipal` resolved by `AuthInterceptor` into handler method parameters.
+public class AuthPrincipalArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(@NonNull MethodParameter parameter) {
+        return AuthPrincipal.class.equals(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(@NonNull MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  @NonNull NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        AuthPrincipal principal = (AuthPrincipal) webRequest.getAttribute(
+                AuthInterceptor.PRINCIPAL_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (principal == null) {
+            // Handler declared an AuthPrincipal parameter without @RequiresRole
+            throw new IllegalStateException("No authenticated principal for " + parameter.getExecutable());
+        }
+        return principal;
+    }
+}
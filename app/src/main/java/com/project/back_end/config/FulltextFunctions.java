@@ -0,0 +1,56 @@
+package com.project.back_end.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.StandardBasicTypes;
+
+// Makes MySQL's FULLTEXT search available to JPQL, so name filters are served by the ngram indexes on the generated
+// `name_lc` columns (created by `SchemaMigrations`) instead of `LIKE '%x%'`, which no index can serve.
+// - `fulltext_match(column, query)` renders `MATCH(column) AGAINST (query IN BOOLEAN MODE)`, the relevance of the row;
+//   queries compare it with `> 0`, a form MySQL answers from the FULLTEXT index. Build `query` with `booleanQuery`.
+// - Registered with Hibernate through META-INF/services/org.hibernate.boot.model.FunctionContributor.
+// - The indexes are built without stopwords, so tokens such as "to" or "ar" are indexed like any other.
+// With the default ngram_token_size of 2 the index only knows two-character tokens inside words: a one-character word,
+// or a substring spanning a space, never matches through MATCH. `booleanQuery` therefore searches the words of two
+// characters or more, callers confirm the whole substring with `LIKE` on the candidates, and names without such a word
+// are filtered another way (see `DoctorService.findDoctorsAfter`, `AppointmentService.getAppointment`, `PatientService`).
+public class FulltextFunctions implements FunctionContributor {
+
+    public static final int NGRAM_TOKEN_SIZE = 2;
+
+    @Override
+    public void contributeFunctions(FunctionContributions contributions) {
+        contributions.getFunctionRegistry()
+                .patternDescriptorBuilder("fulltext_match", "match(?1) against(?2 in boolean mode)")
+                .setExactArgumentCount(2)
+                .setInvariantType(contributions.getTypeConfiguration().getBasicTypeRegistry().resolve(StandardBasicTypes.DOUBLE))
+                .register();
+    }
+
+// 1. **booleanQuery Method**
+// Boolean-mode query requiring every word of `name` that the ngram index can match, each as a quoted phrase
+// (`+"word"`), e.g. "Tor 12" -> `+"tor" +"12"`. Returns null when no word is at least NGRAM_TOKEN_SIZE characters long.
+    public static String booleanQuery(String name) {
+        if (name == null) {
+            return null;
+        }
+        List<String> terms = new ArrayList<>();
+        for (String word : name.toLowerCase(Locale.ROOT).split("\\s+")) {
+            String phrase = word.replace("\"", "");
+            if (phrase.length() >= NGRAM_TOKEN_SIZE) {
+                terms.add("+\"" + phrase + "\"");
+            }
+        }
+        return terms.isEmpty() ? null : String.join(" ", terms);
+    }
+
+// 2. **containsIgnoreCase Method**
+// The same substring test as the confirming `LIKE`, for rows filtered in memory.
+    public static boolean containsIgnoreCase(String value, String part) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(part.toLowerCase(Locale.ROOT));
+    }
+}
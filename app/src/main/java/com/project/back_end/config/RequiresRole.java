@@ -0,0 +1,19 @@
+package com.project.back_end.config;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Marks a handler method whose token (`Authorization: Bearer` header or `{token}` path variable) must be validated by
+// `AuthInterceptor` before the method runs. Each such route is mapped with and without the trailing `{token}`.
+// - `value` is the required role ("admin", "doctor" or "patient").
+// - `roleVariable` names a path variable carrying the role instead (e.g. `{user}` in `/doctor/availability/{user}/...`).
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RequiresRole {
+
+    String value() default "";
+
+    String roleVariable() default "";
+}
@@ -0,0 +1,156 @@
+package com.project.back_end.config;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.project.back_end.models.Doctor;
+
+// Schema and data migrations that `spring.jpa.hibernate.ddl-auto=update` cannot do by itself. Hibernate adds new columns
+// and plain indexes; the runner then moves existing data into them and adds MySQL-specific indexes, once, at startup.
+@Component
+public class SchemaMigrations implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SchemaMigrations.class);
+    private static final String APPOINTMENT_SLOT_CONSTRAINT = "uk_appointment_doctor_time";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SchemaMigrations(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    @Transactional
+    public void run(ApplicationArguments args) {
+        migrateDoctorAvailableTimes();
+        ensureAppointmentSlotConstraint();
+        // The first indexes were built with the default stopword list and are replaced
+        createFulltextIndex("doctor", "ft_doctor_name_lc_nostop", "name_lc", "ft_doctor_name_lc");
+        createFulltextIndex("patient", "ft_patient_name_lc_nostop", "name_lc", "ft_patient_name_lc");
+    }
+
+// 1. **migrateDoctorAvailableTimes Method**
+// Folds the rows of the old `doctor_available_times` collection table into `doctor.available_hours` and
+// `doctor.available_periods`, then renames the table to `doctor_available_times_migrated` so it is done once and the
+// original rows stay around. Doctors that already have hours set are left alone. "AM" and "PM" become the morning and
+// afternoon slots (`Doctor.toHourMask`); if any other value cannot be read, nothing is changed and the table is kept, so
+// the rows can be fixed and the migration runs again on the next start.
+    void migrateDoctorAvailableTimes() {
+        if (!tableExists("doctor_available_times")) {
+            return;
+        }
+
+        Map<Long, Integer> hoursByDoctor = new HashMap<>();
+        List<String> unreadable = new ArrayList<>();
+        jdbcTemplate.query("SELECT doctor_id, available_time FROM doctor_available_times", row -> {
+            String time = row.getString("available_time");
+            if (time == null) {
+                return;
+            }
+            int hours;
+            try {
+                hours = Doctor.toHourMask(List.of(time));
+            } catch (IllegalArgumentException e) {
+                unreadable.add("doctor " + row.getLong("doctor_id") + ": " + time);
+                return;
+            }
+            hoursByDoctor.merge(row.getLong("doctor_id"), hours, (a, b) -> a | b);
+        });
+        if (!unreadable.isEmpty()) {
+            log.error("Not migrating doctor_available_times: {} value(s) are neither one-hour slots nor AM/PM, e.g. {}",
+                    unreadable.size(), unreadable.subList(0, Math.min(10, unreadable.size())));
+            return;
+        }
+
+        List<Object[]> updates = new ArrayList<>(hoursByDoctor.size());
+        hoursByDoctor.forEach((doctorId, hours) -> updates.add(new Object[] {hours, Doctor.periodsOf(hours), doctorId}));
+        jdbcTemplate.batchUpdate("UPDATE doctor SET available_hours = ?, available_periods = ? WHERE id = ? AND available_hours = 0",
+                updates);
+        jdbcTemplate.execute("RENAME TABLE doctor_available_times TO doctor_available_times_migrated");
+    }
+
+// 2. **createFulltextIndex Method**
+// Creates a FULLTEXT index with the ngram parser, which JPA `@Index` cannot declare, if it does not exist yet, and drops
+// the index it replaces. The ngram parser splits names into two-character tokens, so `MATCH ... AGAINST` with a quoted
+// phrase finds any substring of at least two characters through the index.
+// InnoDB ties a stopword list to the index when it is created, and the ngram parser leaves out every token containing a
+// stopword: with the default list ("a", "i", "to", "or", ...) names such as "Sarah" or "Ortiz" lose bigrams and no longer
+// match. The index is therefore created with stopwords disabled for this session; the pooled connection gets the server
+// default back afterwards.
+    void createFulltextIndex(String table, String index, String column, String replacedIndex) {
+        if (indexExists(table, index)) {
+            return;
+        }
+        if (indexExists(table, replacedIndex)) {
+            jdbcTemplate.execute("DROP INDEX " + replacedIndex + " ON " + table);
+        }
+        jdbcTemplate.execute("SET SESSION innodb_ft_enable_stopword = OFF");
+        try {
+            jdbcTemplate.execute("CREATE FULLTEXT INDEX " + index + " ON " + table + " (" + column + ") WITH PARSER ngram");
+        } finally {
+            jdbcTemplate.execute("SET SESSION innodb_ft_enable_stopword = DEFAULT");
+        }
+        log.info("Created FULLTEXT index {} on {} ({}) without stopwords", index, table, column);
+    }
+
+// 3. **ensureAppointmentSlotConstraint Method**
+// Makes sure the (doctor_id, appointment_time) unique constraint of `Appointment` exists: booking relies on it, and on its
+// index for the NOT EXISTS probe of `insertIfSlotFree`. Hibernate's `ddl-auto=update` only logs a failed
+// `ADD CONSTRAINT`, which happens when the table already holds double bookings (nothing prevented them before). Double
+// bookings are not resolved here, since that means dropping patients' appointments: startup fails and lists them instead.
+    void ensureAppointmentSlotConstraint() {
+        if (!tableExists("appointment") || uniqueConstraintExists("appointment", APPOINTMENT_SLOT_CONSTRAINT)) {
+            return;
+        }
+
+        List<String> duplicates = jdbcTemplate.query(
+                "SELECT doctor_id, appointment_time, COUNT(*) AS bookings FROM appointment"
+                        + " GROUP BY doctor_id, appointment_time HAVING COUNT(*) > 1 ORDER BY doctor_id, appointment_time LIMIT 10",
+                (row, i) -> "doctor " + row.getLong("doctor_id") + " at " + row.getTimestamp("appointment_time").toLocalDateTime()
+                        + " (" + row.getInt("bookings") + " appointments)");
+        if (!duplicates.isEmpty()) {
+            throw new IllegalStateException("Cannot add unique constraint " + APPOINTMENT_SLOT_CONSTRAINT
+                    + ": the appointment table holds double bookings, e.g. " + duplicates
+                    + ". Cancel or move the extra appointments, then restart.");
+        }
+
+        jdbcTemplate.execute("ALTER TABLE appointment ADD CONSTRAINT " + APPOINTMENT_SLOT_CONSTRAINT
+                + " UNIQUE (doctor_id, appointment_time)");
+        if (!uniqueConstraintExists("appointment", APPOINTMENT_SLOT_CONSTRAINT)) {
+            throw new IllegalStateException("Unique constraint " + APPOINTMENT_SLOT_CONSTRAINT + " is still missing after adding it");
+        }
+        log.info("Added unique constraint {} on appointment (doctor_id, appointment_time)", APPOINTMENT_SLOT_CONSTRAINT);
+    }
+
+    private boolean uniqueConstraintExists(String table, String constraint) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.table_constraints WHERE table_schema = DATABASE() AND table_name = ?"
+                        + " AND constraint_name = ? AND constraint_type = 'UNIQUE'",
+                Integer.class, table, constraint);
+        return count != null && count > 0;
+    }
+
+    private boolean indexExists(String table, String index) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.statistics WHERE table_schema = DATABASE() AND table_name = ? AND index_name = ?",
+                Integer.class, table, index);
+        return count != null && count > 0;
+    }
+
+    private boolean tableExists(String table) {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name = ?",
+                Integer.class, table);
+        return count != null && count > 0;
+    }
+}
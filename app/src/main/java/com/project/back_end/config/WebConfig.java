@@ -1,15 +1,37 @@
 package com.project.back_end.config;
 
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.lang.NonNull; 
 
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.HandlerInterceptor;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.WebContentInterceptor;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
+    // How long browsers and proxies may reuse shared responses before revalidating them with their ETag
+    private static final long DIRECTORY_MAX_AGE_SECONDS = 60;
+    private static final long AVAILABILITY_MAX_AGE_SECONDS = 5;
+
+    private final AuthInterceptor authInterceptor;
+
+    public WebConfig(AuthInterceptor authInterceptor) {
+        this.authInterceptor = authInterceptor;
+    }
+
     @Override
     public void addCorsMappings(@NonNull CorsRegistry registry) {
         // Allow CORS for all endpoints
@@ -18,4 +40,52 @@ public class WebConfig implements WebMvcConfigurer {
                 .allowedMethods("GET", "POST", "PUT", "DELETE")  // Specify allowed methods
                 .allowedHeaders("*");  // You can restrict headers if needed
     }
+
+    @Override
+    public void addInterceptors(@NonNull InterceptorRegistry registry) {
+        // Token validation for handlers annotated with @RequiresRole, done once per request
+        registry.addInterceptor(authInterceptor);
+        registry.addInterceptor(cacheHeaders());
+        // The directory lists are JSON or NDJSON depending on `Accept`, so shared caches must key them on it too.
+        // Added before the handler runs, so 304 responses carry it as well.
+        registry.addInterceptor(varyByAccept()).addPathPatterns("/doctor/doctors", "/doctor/filter/**");
+    }
+
+    // Cache-Control per route. WebContentInterceptor checks its patterns in unspecified (hash) order and uses the first
+    // match, so the patterns are kept disjoint.
+    // - The doctor directory is the same for every caller, so proxies may share it.
+    // - The token-less (Authorization header) forms of the availability, batch and earliest-slot routes require a role,
+    //   so only the caller's browser may keep them, for a few seconds. The older `.../{token}` forms are left without a
+    //   header.
+    // - Personal data (appointments, patient records, prescriptions, admin) may only be kept by the caller's browser,
+    //   and is revalidated on every use (answered with 304 while unchanged).
+    private WebContentInterceptor cacheHeaders() {
+        CacheControl directory = CacheControl.maxAge(DIRECTORY_MAX_AGE_SECONDS, TimeUnit.SECONDS).cachePublic();
+        CacheControl availability = CacheControl.maxAge(AVAILABILITY_MAX_AGE_SECONDS, TimeUnit.SECONDS).cachePrivate();
+        CacheControl personal = CacheControl.noCache().cachePrivate();
+
+        WebContentInterceptor interceptor = new WebContentInterceptor();
+        interceptor.addCacheMapping(directory, "/doctor/doctors", "/doctor/filter/**", "/doctor/facets", "/doctor/typeahead");
+        interceptor.addCacheMapping(availability, "/doctor/availability/{user}/{doctorId:\\d+}/{date}",
+                "/doctor/availability/batch/{user}/{from}/{to}", "/doctor/earliest/{specialty}");
+        interceptor.addCacheMapping(personal, "/doctor/typeahead/patients/**", "/appointments/**", "/patient/**",
+                "/prescription/**", "/admin/**", "/auth/**");
+        return interceptor;
+    }
+
+    private static HandlerInterceptor varyByAccept() {
+        return new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                     @NonNull Object handler) {
+                response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+                return true;
+            }
+        };
+    }
+
+    @Override
+    public void addArgumentResolvers(@NonNull List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(new AuthPrincipalArgumentResolver());
+    }
 }
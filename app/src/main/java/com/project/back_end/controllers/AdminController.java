@@ -3,14 +3,21 @@ package com.project.back_end.controllers;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import com.project.back_end.config.RequiresRole;
 import com.project.back_end.models.Admin;
+import com.project.back_end.services.LoginExecutor;
+import com.project.back_end.services.LoginRateLimiter;
 import com.project.back_end.services.Service;
 
+import jakarta.servlet.http.HttpServletRequest;
+
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("admin")
@@ -27,10 +34,14 @@ public class AdminController {
 //    - The service handles core logic related to admin validation and token checking.
 //    - This promotes cleaner code and separation of concerns between the controller and business logic layer.
     private final Service service;
+    private final LoginExecutor loginExecutor;
+    private final LoginRateLimiter loginRateLimiter;
 
     // @Autowired - commented out as not necessary
-    public AdminController(Service service) {
+    public AdminController(Service service, LoginExecutor loginExecutor, LoginRateLimiter loginRateLimiter) {
         this.service = service;
+        this.loginExecutor = loginExecutor;
+        this.loginRateLimiter = loginRateLimiter;
     }
 
 // 3. Define the `adminLogin` Method:
@@ -38,10 +49,27 @@ public class AdminController {
 //    - Accepts an `Admin` object in the request body, which contains login credentials.
 //    - Delegates authentication logic to the `validateAdmin` method in the service layer.
 //    - Returns a `ResponseEntity` with a `Map` containing login status or messages.
+//    - The validation runs on `LoginExecutor` so password hashing does not hold a request thread.
+//    - Attempts over the per-username or per-IP limit are answered with 429 before any repository call.
     @PostMapping("/login")
-    public ResponseEntity<Map<String, String>> adminLogin(@RequestBody Admin admin) {
+    public CompletableFuture<ResponseEntity<Map<String, String>>> adminLogin(@RequestBody Admin admin,
+                                                                             HttpServletRequest request) {
+        ResponseEntity<Map<String, String>> throttled =
+                loginRateLimiter.check("admin", admin.getUsername(), request.getRemoteAddr());
+        if (throttled != null) {
+            return CompletableFuture.completedFuture(throttled);
+        }
         // Call validateAdmin method from Service to perform admin login validation
-        return service.validateAdmin(admin);
+        return loginExecutor.submit(() -> service.validateAdmin(admin));
+    }
+
+// 4. Define the `getMetrics` Method:
+//    - Handles HTTP GET requests for the in-process counters (e.g. verified-token cache hits and misses).
+//    - Requires an admin token as a path variable.
+    @GetMapping({"/metrics/{token}", "/metrics"})
+    @RequiresRole("admin")
+    public ResponseEntity<Map<String, Object>> getMetrics() {
+        return ResponseEntity.ok(service.getMetrics());
     }
 
 
@@ -1,16 +1,21 @@
 package com.project.back_end.controllers;
 
+import com.project.back_end.DTO.AuthPrincipal;
+import com.project.back_end.config.RequiresRole;
 import com.project.back_end.models.Appointment;
 import com.project.back_end.services.AppointmentService;
+import com.project.back_end.services.ChangeVersions;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import com.project.back_end.models.Admin;
 import com.project.back_end.services.Service;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.Map;
@@ -32,11 +37,13 @@ public class AppointmentController {
 //    - Inject the general `Service` class, which provides shared functionality like token validation and appointment checks.
  private final AppointmentService appointmentService;
     private final Service service;  // Service for validation logic
+    private final ChangeVersions versions;  // ETags of the doctor's appointment listings
 
     // @Autowired - commented out as not necessary
-    public AppointmentController(AppointmentService appointmentService, Service service) {
+    public AppointmentController(AppointmentService appointmentService, Service service, ChangeVersions versions) {
         this.appointmentService = appointmentService;
         this.service = service;
+        this.versions = versions;
     }
 
 
@@ -46,31 +53,30 @@ public class AppointmentController {
 //    - First validates the token for role `"doctor"` using the `Service`.
 //    - If the token is valid, returns appointments for the given patient on the specified date.
 //    - If the token is invalid or expired, responds with the appropriate message and status code.
+//    - Carries the ETag of the doctor's appointments: an unchanged listing is answered 304 without a query.
 
-    @GetMapping("/{date}/{patientName}/{token}")
+    @GetMapping({"/{date}/{patientName}/{token}", "/{date}/{patientName}"})
+    @RequiresRole("doctor")
     public ResponseEntity<Map<String, Object>> getAppointments(
         @PathVariable String date,
         @PathVariable String patientName,
-        @PathVariable String token) {
+        AuthPrincipal doctor,
+        WebRequest request) {
+
+    if (request.checkNotModified(versions.doctorAppointmentsETag(doctor.getId()))) {
+        return null;
+    }
 
     Map<String, Object> response = new HashMap<>();
 
-    // Validate token for role "doctor"
-    ResponseEntity<Map<String, String>> validationResponse = service.validateToken(token, "doctor");
-
-    if (validationResponse.getStatusCode() != HttpStatus.OK || 
-        (validationResponse.getBody() != null && !validationResponse.getBody().isEmpty())) {
-        // Token invalid or expired
-        response.put("message", "Invalid or expired token.");
-        return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED);
-    }
+    // Token for role "doctor" was already validated by AuthInterceptor
 
     try {
         // Parse date string to LocalDate
         LocalDate appointmentDate = LocalDate.parse(date);
 
         // Fetch appointments for patient on the given date
-        Map<String, Object> appointmentMap = appointmentService.getAppointment(patientName, appointmentDate, token);
+        Map<String, Object> appointmentMap = appointmentService.getAppointment(patientName, appointmentDate, doctor);
 
         @SuppressWarnings("unchecked")
         List<Appointment> appointments = (List<Appointment>) appointmentMap.get("appointments");
@@ -114,13 +120,15 @@ public class AppointmentController {
 //    - Validates the token for the `"patient"` role.
 //    - Uses service logic to validate the appointment data (e.g., check for doctor availability and time conflicts).
 //    - Returns success if booked, or appropriate error messages if the doctor ID is invalid or the slot is already taken.
-    @PostMapping("/{token}")
-    public ResponseEntity<Map<String, String>> bookAppointment(@PathVariable String token,
-                                                               @RequestBody Appointment appointment) {
-        // Validate token for patient role
-        ResponseEntity<Map<String, String>> tokenValidation = service.validateToken(token, "patient");
-        if (tokenValidation != null) {
-            return tokenValidation;  // Return error if token invalid
+//    - A slot lost to a concurrent booking is answered with 409 Conflict.
+//    - Patients can only book for themselves: a patient id in the body other than the caller's is answered with 403.
+    @PostMapping({"/{token}", ""})
+    @RequiresRole("patient")
+    public ResponseEntity<Map<String, String>> bookAppointment(@RequestBody Appointment appointment,
+                                                               AuthPrincipal patient) {
+        // Token for patient role was already validated by AuthInterceptor
+        if (!isOwnAppointment(appointment, patient)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", "Appointment belongs to another patient"));
         }
 
         // Validate appointment details
@@ -134,6 +142,11 @@ public class AppointmentController {
         int bookingResult = appointmentService.bookAppointment(appointment);
         if (bookingResult == 1) {
             return ResponseEntity.status(HttpStatus.CREATED).body(Map.of("message", "Appointment booked successfully"));
+        } else if (bookingResult == -1) {
+            // Another patient booked or held the slot between validation and save
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", "Appointment time already booked"));
+        } else if (bookingResult == -2) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(Map.of("message", "Doctor or patient does not exist"));
         } else {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(Map.of("message", "Error booking appointment"));
         }
@@ -146,24 +159,22 @@ public class AppointmentController {
 //    - Validates the token for `"patient"` role.
 //    - Delegates the update logic to the `AppointmentService`.
 //    - Returns an appropriate success or failure response based on the update result.
-    @PutMapping("/{token}")
+//    - Both the body's patient and the stored appointment's patient must be the caller, otherwise 403.
+    @PutMapping({"/{token}", ""})
+    @RequiresRole("patient")
     public ResponseEntity<Map<String, String>> updateAppointment(
-        @RequestBody Appointment appointment,
-        @PathVariable String token) {
+        @RequestBody Appointment appointment, AuthPrincipal patient) {
 
         Map<String, String> response = new HashMap<>();
 
-        // Validate token for "patient" role
-        ResponseEntity<Map<String, String>> validationResponse = service.validateToken(token, "patient");
-
-        if (validationResponse.getStatusCode() != HttpStatus.OK ||
-            (validationResponse.getBody() != null && !validationResponse.getBody().isEmpty())) {
-            response.put("message", "Invalid or expired token.");
-            return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED);
+        // Token for "patient" role was already validated by AuthInterceptor
+        if (!isOwnAppointment(appointment, patient)) {
+            response.put("message", "Appointment belongs to another patient");
+            return new ResponseEntity<>(response, HttpStatus.FORBIDDEN);
         }
 
-        // Delegate update to AppointmentService
-        boolean isUpdated = appointmentService.updateAppointment(appointment);
+        // Delegate update to AppointmentService, which checks the stored appointment's patient
+        boolean isUpdated = appointmentService.updateAppointment(appointment, patient);
 
         if (isUpdated) {
             response.put("message", "Appointment updated successfully.");
@@ -193,23 +204,57 @@ public class AppointmentController {
     // end of LM test
     */
 
+// Define the `holdSlot` and `releaseHold` Methods:
+//    - Handle POST and DELETE requests to hold or release a slot while the patient confirms the booking form.
+//    - `dateTime` is the slot start in ISO format (e.g. `2025-06-01T09:00`); the token must be valid for the `"patient"` role.
+//    - Held slots disappear from other patients' availability until booked, released or expired.
+    @PostMapping({"/hold/{doctorId}/{dateTime}/{token}", "/hold/{doctorId}/{dateTime}"})
+    @RequiresRole("patient")
+    public ResponseEntity<Map<String, Object>> holdSlot(@PathVariable Long doctorId,
+                                                        @PathVariable String dateTime,
+                                                        AuthPrincipal patient) {
+        try {
+            return appointmentService.holdSlot(doctorId, LocalDateTime.parse(dateTime), patient);
+        } catch (DateTimeParseException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Invalid date and time format. Please use YYYY-MM-DDTHH:MM.");
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        }
+    }
+
+    @DeleteMapping({"/hold/{doctorId}/{dateTime}/{token}", "/hold/{doctorId}/{dateTime}"})
+    @RequiresRole("patient")
+    public ResponseEntity<Map<String, Object>> releaseHold(@PathVariable Long doctorId,
+                                                           @PathVariable String dateTime,
+                                                           AuthPrincipal patient) {
+        try {
+            return appointmentService.releaseHold(doctorId, LocalDateTime.parse(dateTime), patient);
+        } catch (DateTimeParseException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("message", "Invalid date and time format. Please use YYYY-MM-DDTHH:MM.");
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        }
+    }
+
 // 6. Define the `cancelAppointment` Method:
 //    - Handles HTTP DELETE requests to cancel a specific appointment.
 //    - Accepts the appointment ID and a token as path variables.
 //    - Validates the token for `"patient"` role to ensure the user is authorized to cancel the appointment.
 //    - Calls `AppointmentService` to handle the cancellation process and returns the result.
-    @DeleteMapping("/{id}/{token}")
+    @DeleteMapping({"/{id}/{token}", "/{id}"})
+    @RequiresRole("patient")
     public ResponseEntity<Map<String, String>> cancelAppointment(@PathVariable Long id,
-                                                                 @PathVariable String token) {
-        // Validate token for patient role
-        ResponseEntity<Map<String, String>> tokenValidation = service.validateToken(token, "patient");
-        if (tokenValidation != null) {
-            return tokenValidation;  // Return error if token invalid
-        }
+                                                                 AuthPrincipal patient) {
+        // Token for patient role was already validated by AuthInterceptor
 
         // Cancel the appointment and return result
-        ResponseEntity<Map<String, String>> cancelResponse = appointmentService.cancelAppointment(id, token);
+        ResponseEntity<Map<String, String>> cancelResponse = appointmentService.cancelAppointment(id, patient);
         return cancelResponse;
     }
 
+    // Helper method: the appointment in the request body names the calling patient
+    private static boolean isOwnAppointment(Appointment appointment, AuthPrincipal patient) {
+        return appointment.getPatient() != null && patient.getId().equals(appointment.getPatient().getId());
+    }
+
 }
@@ -0,0 +1,76 @@
+package com.project.back_end.controllers;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.project.back_end.DTO.AuthPrincipal;
+import com.project.back_end.config.AuthInterceptor;
+import com.project.back_end.config.RequiresRole;
+import com.project.back_end.services.TokenService;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/auth")
+public class AuthController {
+
+// 1. Set Up the Controller Class:
+//    - Annotate the class with `@RestController` and map it to `/auth`.
+//    - Groups the token revocation endpoints shared by admins, doctors and patients.
+
+
+// 2. Autowire Dependencies:
+//    - Inject `TokenService`, which records revocations in `TokenRevocationService`.
+    private final TokenService tokenService;
+
+    public AuthController(TokenService tokenService) {
+        this.tokenService = tokenService;
+    }
+
+// 3. Define the `logout` Method:
+//    - Handles HTTP POST requests to revoke the token used for the call.
+//    - Accepted for any role; the token stops working immediately instead of at its 7-day expiry.
+//    - The token is the one `AuthInterceptor` validated, from the `Authorization` header or the path.
+    @PostMapping({"/logout/{token}", "/logout"})
+    @RequiresRole(TokenService.ANY_ROLE)
+    public ResponseEntity<Map<String, String>> logout(@RequestAttribute(AuthInterceptor.TOKEN_ATTRIBUTE) String token) {
+        Map<String, String> response = new HashMap<>();
+        tokenService.revokeToken(token);
+        response.put("message", "Logged out");
+        return ResponseEntity.ok(response);
+    }
+
+// 4. Define the `logoutAll` Method:
+//    - Handles HTTP POST requests to revoke every token issued so far to the caller (logout on all devices).
+    @PostMapping({"/logout-all/{token}", "/logout-all"})
+    @RequiresRole(TokenService.ANY_ROLE)
+    public ResponseEntity<Map<String, String>> logoutAll(AuthPrincipal principal) {
+        Map<String, String> response = new HashMap<>();
+        tokenService.revokePrincipal(principal.getRole(), principal.getId(), principal.getEmail());
+        response.put("message", "Logged out from all sessions");
+        return ResponseEntity.ok(response);
+    }
+
+// 5. Define the `revokePrincipal` Method:
+//    - Handles HTTP POST requests from admins to revoke every token of a given doctor, patient or admin.
+//    - Returns 400 for an unknown role.
+    @PostMapping({"/revoke/{role}/{id}/{token}", "/revoke/{role}/{id}"})
+    @RequiresRole("admin")
+    public ResponseEntity<Map<String, String>> revokePrincipal(@PathVariable String role, @PathVariable Long id) {
+        Map<String, String> response = new HashMap<>();
+        String normalizedRole = role.toLowerCase();
+        if (!normalizedRole.equals("admin") && !normalizedRole.equals("doctor") && !normalizedRole.equals("patient")) {
+            response.put("message", "Unknown role: " + role);
+            return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
+        }
+        tokenService.revokePrincipal(normalizedRole, id, null);
+        response.put("message", "Tokens revoked");
+        return ResponseEntity.ok(response);
+    }
+}
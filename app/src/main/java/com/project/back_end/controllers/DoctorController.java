@@ -4,27 +4,48 @@ import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.config.RequiresRole;
+import com.project.back_end.DTO.DoctorCard;
 import com.project.back_end.DTO.Login;
 import com.project.back_end.models.Doctor;
+import com.project.back_end.models.DoctorSchedule;
+import com.project.back_end.DTO.AuthPrincipal;
+import com.project.back_end.services.TokenService;
+import com.project.back_end.services.AvailabilityStream;
+import com.project.back_end.services.ChangeVersions;
 import com.project.back_end.services.DoctorService;
+import com.project.back_end.services.LoginExecutor;
+import com.project.back_end.services.LoginRateLimiter;
 import com.project.back_end.services.Service;
+import com.project.back_end.services.Typeahead;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -46,12 +67,35 @@ public class DoctorController {
 //    - Inject the shared `Service` class for general-purpose features like token validation and filtering.
     private final DoctorService doctorService;
     private final Service service;  // For token validation and filtering
-
+    private final LoginExecutor loginExecutor;  // Runs logins off the request threads
+    private final LoginRateLimiter loginRateLimiter;
+    private final AvailabilityStream availabilityStream;  // Pushes availability changes to the booking UI
+    private final ObjectMapper objectMapper;
+    private final Typeahead typeahead;  // Name completions for the search boxes
+    private final ChangeVersions versions;  // ETags of the doctor listings
+
+    private static final int MAX_BATCH_DOCTORS = 50;
+    private static final int MAX_BATCH_DAYS = 31;
+    private static final int MAX_EARLIEST_SLOTS = 50;
+    private static final int MAX_STREAM_DOCTORS = 50;
+    private static final int MAX_STREAM_DATES = 31;
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int STREAM_BATCH = 500;   // doctors read per query while streaming
+    private static final int MAX_COMPLETIONS = 50;
 
     // @Autowired - commented out as not necessary
-    public DoctorController(DoctorService doctorService, Service service) {
+    public DoctorController(DoctorService doctorService, Service service, LoginExecutor loginExecutor,
+                            LoginRateLimiter loginRateLimiter, AvailabilityStream availabilityStream,
+                            ObjectMapper objectMapper, Typeahead typeahead, ChangeVersions versions) {
         this.doctorService = doctorService;
         this.service = service;
+        this.loginExecutor = loginExecutor;
+        this.loginRateLimiter = loginRateLimiter;
+        this.availabilityStream = availabilityStream;
+        this.objectMapper = objectMapper;
+        this.typeahead = typeahead;
+        this.versions = versions;
     }
 
 
@@ -61,19 +105,13 @@ public class DoctorController {
 //    - First validates the token against the user type.
 //    - If the token is invalid, returns an error response; otherwise, returns the availability status for the doctor.
     // Get Doctor Availability
-    @GetMapping("/availability/{user}/{doctorId}/{date}/{token}")
+    @GetMapping({"/availability/{user}/{doctorId}/{date}/{token}", "/availability/{user}/{doctorId}/{date}"})
+    @RequiresRole(roleVariable = "user")
     public ResponseEntity<Map<String, Object>> getDoctorAvailability(
-            @PathVariable String user,
             @PathVariable Long doctorId,
-            @PathVariable String date,
-            @PathVariable String token) {
+            @PathVariable String date) {
 
-        // Validate token for the user role
-        ResponseEntity<Map<String, String>> validationResponse = service.validateToken(token, user);
-        if (validationResponse != null) {
-            // Token invalid or unauthorized
-            return new ResponseEntity<>(Map.of("error", "Invalid or unauthorized token"), HttpStatus.UNAUTHORIZED);
-        }
+        // Token for the user role was already validated by AuthInterceptor
 
         // Parse date string to LocalDate
         LocalDate localDate;
@@ -89,13 +127,93 @@ public class DoctorController {
     }
 
 
+// Define the `streamAvailability` Method:
+//    - Opens a Server-Sent Events stream of availability changes, replacing polling of the availability endpoints.
+//    - Filter with comma-separated `doctors` ids and/or ISO `dates` query parameters (at least one of them).
+//    - Events: "subscribed" once, then "slot-taken" / "slot-freed" with doctorId, date, slot index and label,
+//      and "refresh" when a doctor's schedule changed and its availability should be fetched again.
+//    - Declared as Object so the emitter and the JSON error responses can share one handler method.
+    @GetMapping({"/availability/stream/{user}/{token}", "/availability/stream/{user}"})
+    @RequiresRole(roleVariable = "user")
+    public Object streamAvailability(@RequestParam(required = false) List<Long> doctors,
+                                     @RequestParam(required = false) List<String> dates) {
+        Set<Long> doctorIds = doctors != null ? Set.copyOf(doctors) : Set.of();
+        Set<LocalDate> days;
+        try {
+            days = dates != null ? dates.stream().map(LocalDate::parse).collect(Collectors.toSet()) : Set.of();
+        } catch (Exception e) {
+            return new ResponseEntity<>(Map.of("error", "Invalid date format"), HttpStatus.BAD_REQUEST);
+        }
+        if ((doctorIds.isEmpty() && days.isEmpty()) || doctorIds.size() > MAX_STREAM_DOCTORS || days.size() > MAX_STREAM_DATES) {
+            return new ResponseEntity<>(Map.of("error", "Subscribe to 1 to " + MAX_STREAM_DOCTORS + " doctors and/or at most "
+                    + MAX_STREAM_DATES + " dates"), HttpStatus.BAD_REQUEST);
+        }
+
+        SseEmitter emitter = availabilityStream.subscribe(doctorIds, days);
+        if (emitter == null) {
+            return new ResponseEntity<>(Map.of("error", "Too many open availability streams, please retry later"),
+                    HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return emitter;
+    }
+
+
+// Define the `getBatchAvailability` Method:
+//    - Handles HTTP GET requests for the availability of many doctors over a date range in one call.
+//    - Doctor ids are passed as a comma-separated `ids` query parameter; `from` and `to` are inclusive ISO dates.
+//    - Grids are limited to MAX_BATCH_DOCTORS doctors and MAX_BATCH_DAYS days.
+    @GetMapping({"/availability/batch/{user}/{from}/{to}/{token}", "/availability/batch/{user}/{from}/{to}"})
+    @RequiresRole(roleVariable = "user")
+    public ResponseEntity<Map<String, Object>> getBatchAvailability(
+            @PathVariable String from,
+            @PathVariable String to,
+            @RequestParam List<Long> ids) {
+
+        LocalDate fromDate;
+        LocalDate toDate;
+        try {
+            fromDate = LocalDate.parse(from);
+            toDate = LocalDate.parse(to);
+        } catch (Exception e) {
+            return new ResponseEntity<>(Map.of("error", "Invalid date format"), HttpStatus.BAD_REQUEST);
+        }
+
+        List<Long> doctorIds = ids.stream().distinct().toList();
+        long days = toDate.toEpochDay() - fromDate.toEpochDay() + 1;
+        if (days < 1 || days > MAX_BATCH_DAYS || doctorIds.isEmpty() || doctorIds.size() > MAX_BATCH_DOCTORS) {
+            return new ResponseEntity<>(Map.of("error", "Request at most " + MAX_BATCH_DOCTORS + " doctors and "
+                    + MAX_BATCH_DAYS + " days"), HttpStatus.BAD_REQUEST);
+        }
+
+        return new ResponseEntity<>(doctorService.getBatchAvailability(doctorIds, fromDate, toDate), HttpStatus.OK);
+    }
+
+
 // 4. Define the `getDoctor` Method:
 //    - Handles HTTP GET requests to retrieve a list of all doctors.
 //    - Returns the list within a response map under the key `"doctors"` with HTTP 200 OK status.
+//    - With `after` and/or `limit` the list is keyset-paged by id: pass the returned "nextCursor" as `after` for the next page.
+//    - With `Accept: application/x-ndjson` the doctors are streamed instead, one JSON object per line, as they are read.
+//      The stream always holds every doctor: it takes no `after` / `limit` and is not answered with 304.
+//    - Carries the ETag of the doctor table's version: a request with a matching `If-None-Match` gets 304 without a query.
     // Get List of Doctors
     @GetMapping("/doctors")
-    public ResponseEntity<Map<String, Object>> getDoctor() {
-        List<Doctor> doctors = doctorService.getDoctors();
+    public ResponseEntity<Map<String, Object>> getDoctor(@RequestParam(required = false) Long after,
+                                                         @RequestParam(required = false) Integer limit,
+                                                         WebRequest request) {
+        if (request.checkNotModified(versions.doctorsETag())) {
+            return null;
+        }
+        if (after != null || limit != null) {
+            ResponseEntity<Map<String, Object>> invalid = invalidPage(after, limit);
+            if (invalid != null) {
+                return invalid;
+            }
+            return ResponseEntity.ok(doctorService.getDoctorsPage(after == null ? 0L : after,
+                    limit == null ? DEFAULT_PAGE_SIZE : limit));
+        }
+
+        List<DoctorCard> doctors = doctorService.getDoctors();
 
         Map<String, Object> response = new HashMap<>();
         response.put("doctors", doctors);
@@ -103,6 +221,17 @@ public class DoctorController {
     return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
+// Define the `getFacets` Method:
+//    - Handles HTTP GET requests for doctor counts: "total", "am", "pm", and per specialty {specialty, doctors, am, pm}.
+//    - Public like `/doctors`; the counts are precomputed, so the request does not depend on the number of doctors.
+    @GetMapping("/facets")
+    public ResponseEntity<Map<String, Object>> getFacets(WebRequest request) {
+        if (request.checkNotModified(versions.doctorsETag())) {
+            return null;
+        }
+        return ResponseEntity.ok(doctorService.getFacets());
+    }
+
 // 5. Define the `saveDoctor` Method:
 //    - Handles HTTP POST requests to register a new doctor.
 //    - Accepts a validated `Doctor` object in the request body and a token for authorization.
@@ -110,14 +239,10 @@ public class DoctorController {
 //    - If the doctor already exists, returns a conflict response; otherwise, adds the doctor and returns a success message.
 
     // Add New Doctor
-    @PostMapping("/{token}")
-    public ResponseEntity<Map<String, String>> addNewDoctor(@RequestBody Doctor doctor,
-                                                            @PathVariable String token) {
-        // Validate token for admin role
-        ResponseEntity<Map<String, String>> validationResponse = service.validateToken(token, "admin");
-        if (validationResponse != null) {
-            return validationResponse;  // Return error if token invalid or unauthorized
-        }
+    @PostMapping({"/{token}", ""})
+    @RequiresRole("admin")
+    public ResponseEntity<Map<String, String>> addNewDoctor(@RequestBody Doctor doctor) {
+        // Token for admin role was already validated by AuthInterceptor
 
         int result = doctorService.saveDoctor(doctor);
 
@@ -136,13 +261,18 @@ public class DoctorController {
 //    - Handles HTTP POST requests for doctor login.
 //    - Accepts a validated `Login` DTO containing credentials.
 //    - Delegates authentication to the `DoctorService` and returns login status and token information.
+//    - The check runs once, on `LoginExecutor`; a saturated pool answers 503 with `Retry-After`.
+//    - Attempts over the per-email or per-IP limit are answered with 429 before any repository call.
     // Doctor Login
     @PostMapping("/login")
-    public ResponseEntity<Map<String, String>> doctorLogin(@RequestBody Login login) {
-        System.out.println("testLM XXXXXXX - inside doctorLogin in DoctorController.java");
-        System.out.println("testLM XXXXXXX login: " + login);
-        System.out.println("testLM XXXXXXX" + doctorService.validateDoctor(login));
-        return doctorService.validateDoctor(login);
+    public CompletableFuture<ResponseEntity<Map<String, String>>> doctorLogin(@RequestBody Login login,
+                                                                              HttpServletRequest request) {
+        ResponseEntity<Map<String, String>> throttled =
+                loginRateLimiter.check("doctor", login.getEmail(), request.getRemoteAddr());
+        if (throttled != null) {
+            return CompletableFuture.completedFuture(throttled);
+        }
+        return loginExecutor.submit(() -> doctorService.validateDoctor(login));
     }
 
 // 7. Define the `updateDoctor` Method:
@@ -151,14 +281,10 @@ public class DoctorController {
 //    - Token must belong to an `"admin"`.
 //    - If the doctor exists, updates the record and returns success; otherwise, returns not found or error messages.
     // Update Doctor Details
-    @PutMapping("/{token}")
-    public ResponseEntity<Map<String, String>> updateDoctor(@RequestBody Doctor doctor,
-                                                            @PathVariable String token) {
-        // Validate token
-        ResponseEntity<Map<String, String>> validationResponse = service.validateToken(token, "admin");
-        if (validationResponse != null) {
-            return validationResponse;  // Return error if token invalid or unauthorized
-        }
+    @PutMapping({"/{token}", ""})
+    @RequiresRole("admin")
+    public ResponseEntity<Map<String, String>> updateDoctor(@RequestBody Doctor doctor) {
+        // Token for admin role was already validated by AuthInterceptor
 
         int result = doctorService.updateDoctor(doctor);
 
@@ -178,14 +304,10 @@ public class DoctorController {
 //    - Requires both doctor ID and an admin token as path variables.
 //    - If the doctor exists, deletes the record and returns a success message; otherwise, responds with a not found or error message.
     // Delete Doctor
-    @DeleteMapping("/{id}/{token}")
-    public ResponseEntity<Map<String, String>> deleteDoctor(@PathVariable Long id,
-                                                            @PathVariable String token) {
-        // Validate token for admin role
-        ResponseEntity<Map<String, String>> validationResponse = service.validateToken(token, "admin");
-        if (validationResponse != null) {
-            return validationResponse;  // Return error if token invalid or unauthorized
-        }
+    @DeleteMapping({"/{id}/{token}", "/{id}"})
+    @RequiresRole("admin")
+    public ResponseEntity<Map<String, String>> deleteDoctor(@PathVariable Long id) {
+        // Token for admin role was already validated by AuthInterceptor
 
         int result = doctorService.deleteDoctor(id);
 
@@ -200,15 +322,161 @@ public class DoctorController {
         }
     }
 
+// Define the `getEarliestSlots` Method:
+//    - Handles HTTP GET requests for the soonest free slots in a specialty, across all its doctors.
+//    - Optional query parameters: `period` (AM or PM), `from` (ISO date, default today), `days` (window length) and `limit`.
+    @GetMapping({"/earliest/{specialty}/{token}", "/earliest/{specialty}"})
+    @RequiresRole(TokenService.ANY_ROLE)
+    public ResponseEntity<Map<String, Object>> getEarliestSlots(
+            @PathVariable String specialty,
+            @RequestParam(required = false) String period,
+            @RequestParam(required = false) String from,
+            @RequestParam(defaultValue = "14") int days,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        LocalDate fromDate;
+        try {
+            fromDate = from == null ? LocalDate.now() : LocalDate.parse(from);
+        } catch (Exception e) {
+            return new ResponseEntity<>(Map.of("error", "Invalid date format"), HttpStatus.BAD_REQUEST);
+        }
+        if (days < 1 || days > MAX_BATCH_DAYS || limit < 1 || limit > MAX_EARLIEST_SLOTS) {
+            return new ResponseEntity<>(Map.of("error", "Request at most " + MAX_BATCH_DAYS + " days and "
+                    + MAX_EARLIEST_SLOTS + " slots"), HttpStatus.BAD_REQUEST);
+        }
+
+        return new ResponseEntity<>(doctorService.findEarliestSlots(specialty, period, fromDate,
+                fromDate.plusDays(days - 1), limit), HttpStatus.OK);
+    }
+
+
+// Define the `getSchedule` and `saveSchedule` Methods:
+//    - Handle HTTP GET and PUT requests for a doctor's weekly template (working hours, slot length, breaks, days off).
+//    - Any signed-in user may read a schedule; only admins or the doctor themself may replace it.
+//    - Without a template, the doctor offers the default slots every day.
+    @GetMapping({"/schedule/{doctorId}/{token}", "/schedule/{doctorId}"})
+    @RequiresRole(TokenService.ANY_ROLE)
+    public ResponseEntity<?> getSchedule(@PathVariable Long doctorId) {
+        return doctorService.getSchedule(doctorId)
+                .<ResponseEntity<?>>map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("message", "No schedule configured, default slots apply")));
+    }
+
+    @PutMapping({"/schedule/{doctorId}/{token}", "/schedule/{doctorId}"})
+    @RequiresRole(TokenService.ANY_ROLE)
+    public ResponseEntity<Map<String, String>> saveSchedule(@PathVariable Long doctorId,
+                                                            @RequestBody DoctorSchedule schedule,
+                                                            AuthPrincipal principal) {
+        boolean allowed = principal.hasRole("admin") || (principal.hasRole("doctor") && doctorId.equals(principal.getId()));
+        if (!allowed) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of("message", "Not allowed to change this schedule"));
+        }
+
+        try {
+            int result = doctorService.saveSchedule(doctorId, schedule);
+            if (result == -1) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "Doctor not found"));
+            }
+            return ResponseEntity.ok(Map.of("message", "Schedule saved"));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @GetMapping(value = "/doctors", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamDoctors() {
+        return streamDoctors(null, null, null);
+    }
+
     // 8. Filter Doctors
+    // Accepts the same `after` / `limit` paging and ETag as `/doctors`. With `Accept: application/x-ndjson` every match is
+    // streamed instead, like `/doctors`.
     @GetMapping("/filter/{name}/{time}/{speciality}")
     public ResponseEntity<Map<String, Object>> filterDoctors(@PathVariable String name,
                                                              @PathVariable String time,
-                                                             @PathVariable String speciality) {
+                                                             @PathVariable String speciality,
+                                                             @RequestParam(required = false) Long after,
+                                                             @RequestParam(required = false) Integer limit,
+                                                             WebRequest request) {
+        if (request.checkNotModified(versions.doctorsETag())) {
+            return null;
+        }
+        if (after != null || limit != null) {
+            ResponseEntity<Map<String, Object>> invalid = invalidPage(after, limit);
+            if (invalid != null) {
+                return invalid;
+            }
+            return ResponseEntity.ok(service.filterDoctor(name, speciality, time, after == null ? 0L : after,
+                    limit == null ? DEFAULT_PAGE_SIZE : limit));
+        }
+
         Map<String, Object> filteredDoctors = service.filterDoctor(name, speciality, time);
         return ResponseEntity.ok(filteredDoctors);
     }
 
+    @GetMapping(value = "/filter/{name}/{time}/{speciality}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamFilteredDoctors(@PathVariable String name,
+                                                                       @PathVariable String time,
+                                                                       @PathVariable String speciality) {
+        return streamDoctors(name, speciality, time);
+    }
+
+// Define the `typeahead` Methods:
+//    - Handle HTTP GET requests for search-box completions, answered from memory by `Typeahead`.
+//    - `q` matches the start of any word of a name (or specialty); `limit` (default 10) caps each list.
+//    - Doctor names and specialties are public like `/filter`; patient names are only completed for a doctor,
+//      and only among the doctor's own patients.
+    @GetMapping("/typeahead")
+    public ResponseEntity<Map<String, Object>> typeaheadDoctors(@RequestParam String q,
+                                                                @RequestParam(defaultValue = "10") int limit) {
+        if (limit < 1 || limit > MAX_COMPLETIONS) {
+            return new ResponseEntity<>(Map.of("error", "Use a limit between 1 and " + MAX_COMPLETIONS), HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok(typeahead.completeDoctors(q, limit));
+    }
+
+    @GetMapping({"/typeahead/patients/{token}", "/typeahead/patients"})
+    @RequiresRole("doctor")
+    public ResponseEntity<Map<String, Object>> typeaheadPatients(@RequestParam String q,
+                                                                 @RequestParam(defaultValue = "10") int limit,
+                                                                 AuthPrincipal principal) {
+        if (limit < 1 || limit > MAX_COMPLETIONS) {
+            return new ResponseEntity<>(Map.of("error", "Use a limit between 1 and " + MAX_COMPLETIONS), HttpStatus.BAD_REQUEST);
+        }
+        return ResponseEntity.ok(typeahead.completePatients(principal.getId(), q, limit));
+    }
+
+    // Returns null when the paging parameters are valid
+    private ResponseEntity<Map<String, Object>> invalidPage(Long after, Integer limit) {
+        if ((after != null && after < 0) || (limit != null && (limit < 1 || limit > MAX_PAGE_SIZE))) {
+            return new ResponseEntity<>(Map.of("error", "Use after >= 0 and a limit between 1 and " + MAX_PAGE_SIZE),
+                    HttpStatus.BAD_REQUEST);
+        }
+        return null;
+    }
+
+    // Writes the matching doctors as newline-delimited JSON, reading them in keyset batches of STREAM_BATCH,
+    // so memory use does not grow with the size of the table
+    private ResponseEntity<StreamingResponseBody> streamDoctors(String name, String specialty, String amOrPm) {
+        StreamingResponseBody body = out -> {
+            long after = 0L;
+            List<DoctorCard> batch;
+            do {
+                batch = doctorService.findDoctorsAfter(after, name, specialty, amOrPm, STREAM_BATCH);
+                for (DoctorCard doctor : batch) {
+                    out.write(objectMapper.writeValueAsBytes(doctor));
+                    out.write('\n');
+                }
+                out.flush();
+                if (!batch.isEmpty()) {
+                    after = batch.get(batch.size() - 1).getId();
+                }
+            } while (batch.size() == STREAM_BATCH);
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
 }
 
 /*
@@ -12,11 +12,17 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.DTO.AuthPrincipal;
+import com.project.back_end.config.RequiresRole;
 import com.project.back_end.DTO.Login;
 import com.project.back_end.models.Patient;
 import com.project.back_end.models.Doctor;
+import com.project.back_end.services.ChangeVersions;
+import com.project.back_end.services.LoginExecutor;
+import com.project.back_end.services.LoginRateLimiter;
 import com.project.back_end.services.PatientService;
 import com.project.back_end.services.TokenService;
 import com.project.back_end.services.Service;
@@ -25,6 +31,9 @@ import java.util.Map;
 import java.util.HashMap;
 import java.util.List;
 import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+
+import jakarta.servlet.http.HttpServletRequest;
 
 @RestController
 @RequestMapping("/patient")
@@ -41,12 +50,19 @@ public class PatientController {
     private final PatientService patientService;
     private final Service service;  // For token validation and common functionality
     private final TokenService tokenService;
+    private final LoginExecutor loginExecutor;  // Runs logins off the request threads
+    private final LoginRateLimiter loginRateLimiter;
+    private final ChangeVersions versions;  // ETags of the appointment listings
 
     // @Autowired - commented out as not necessary
-    public PatientController(PatientService patientService, Service service, TokenService tokenService) {
+    public PatientController(PatientService patientService, Service service, TokenService tokenService,
+                             LoginExecutor loginExecutor, LoginRateLimiter loginRateLimiter, ChangeVersions versions) {
         this.patientService = patientService;
         this.service = service;
         this.tokenService = tokenService;
+        this.loginExecutor = loginExecutor;
+        this.loginRateLimiter = loginRateLimiter;
+        this.versions = versions;
     }
 
      
@@ -55,16 +71,13 @@ public class PatientController {
 //    - Handles HTTP GET requests to retrieve patient details using a token.
 //    - Validates the token for the `"patient"` role using the shared service.
 //    - If the token is valid, returns patient information; otherwise, returns an appropriate error message.
-    @GetMapping("/{token}")
-    public ResponseEntity<?> getPatientDetails(@PathVariable String token) {
-        // Validate token for patient role
-        ResponseEntity<Map<String, String>> validationResponse = service.validateToken(token, "patient");
-        if (validationResponse != null) {
-            return validationResponse;  // Return error if token invalid or unauthorized
-        }
+    @GetMapping({"/{token}", ""})
+    @RequiresRole("patient")
+    public ResponseEntity<?> getPatientDetails(AuthPrincipal patient) {
+        // Token for patient role was already validated by AuthInterceptor
 
         // Token valid, fetch patient details
-        ResponseEntity<Map<String, Object>> patientDetailsResponse = patientService.getPatientDetails(token);
+        ResponseEntity<Map<String, Object>> patientDetailsResponse = patientService.getPatientDetails(patient);
 
         return patientDetailsResponse;
     }
@@ -106,10 +119,18 @@ public class PatientController {
 //    - Accepts a `Login` DTO containing email/username and password.
 //    - Delegates authentication to the `validatePatientLogin` method in the shared service.
 //    - Returns a response with a token or an error message depending on login success.
+//    - The validation runs on `LoginExecutor`; a saturated pool answers 503 with `Retry-After`.
+//    - Attempts over the per-email or per-IP limit are answered with 429 before any repository call.
     @PostMapping("/login")
-    public ResponseEntity<Map<String, String>> patientLogin(@RequestBody Login login) {
+    public CompletableFuture<ResponseEntity<Map<String, String>>> patientLogin(@RequestBody Login login,
+                                                                               HttpServletRequest request) {
+        ResponseEntity<Map<String, String>> throttled =
+                loginRateLimiter.check("patient", login.getEmail(), request.getRemoteAddr());
+        if (throttled != null) {
+            return CompletableFuture.completedFuture(throttled);
+        }
         // Call service method to validate patient login credentials
-        return service.validatePatientLogin(login);
+        return loginExecutor.submit(() -> service.validatePatientLogin(login));
     }
 
 // 6. Define the `getPatientAppointment` Method:
@@ -117,23 +138,25 @@ public class PatientController {
 //    - Requires the patient ID, token, and user role as path variables.
 //    - Validates the token using the shared service.
 //    - If valid, retrieves the patient's appointment data from `PatientService`; otherwise, returns a validation error.
-    @GetMapping("/{id}/{token}/{role}")
+//    - Carries the ETag of the patient's appointments: an unchanged listing is answered 304 without a query. Patients
+//      asking for another patient's id skip the shortcut and get the service's 403.
+    @GetMapping({"/{id}/{token}/{role}", "/{id}/{role}"})
+    @RequiresRole(roleVariable = "role")
     public ResponseEntity<Map<String, Object>> getPatientAppointment(
                                                     @PathVariable Long id,
-                                                    @PathVariable String token,
-                                                    @PathVariable String role) {
+                                                    AuthPrincipal principal,
+                                                    WebRequest request) {
+        boolean ownOrStaff = !principal.hasRole("patient") || principal.getId().equals(id);
+        if (ownOrStaff && request.checkNotModified(versions.patientAppointmentsETag(id))) {
+            return null;
+        }
 
         Map<String, Object> response = new HashMap<>();
 
-        // Validate the token and role using shared service
-        boolean isValid = tokenService.validateToken(token, role);
-        if (!isValid) {
-            response.put("message", "Invalid token or unauthorized access");
-            return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED);
-        }
+        // Token and role were already validated by AuthInterceptor
 
-        // If valid, get patient's appointments from PatientService
-        List<AppointmentDTO> appointments = patientService.getPatientAppointment(id, token);
+        // Get patient's appointments from PatientService
+        List<AppointmentDTO> appointments = patientService.getPatientAppointment(id, principal);
 
         response.put("appointments", appointments);
         return new ResponseEntity<>(response, HttpStatus.OK);
@@ -163,18 +186,20 @@ public class PatientController {
 //    - Accepts filtering parameters: `condition`, `name`, and a token.
 //    - Token must be valid for a `"patient"` role.
 //    - If valid, delegates filtering logic to the shared service and returns the filtered result.
-    @GetMapping("/filter/{condition}/{name}/{token}")
+//    - Shares the ETag of the patient's appointment listing.
+    @GetMapping({"/filter/{condition}/{name}/{token}", "/filter/{condition}/{name}"})
+    @RequiresRole("patient")
     public ResponseEntity<?> filterPatientAppointments(@PathVariable String condition,
                                                        @PathVariable String name,
-                                                       @PathVariable String token) {
-        // Validate token for patient role
-        ResponseEntity<Map<String, String>> validationResponse = service.validateToken(token, "patient");
-        if (validationResponse != null) {
-            return validationResponse;  // Return error if token invalid or unauthorized
+                                                       AuthPrincipal patient,
+                                                       WebRequest request) {
+        if (request.checkNotModified(versions.patientAppointmentsETag(patient.getId()))) {
+            return null;
         }
+        // Token for patient role was already validated by AuthInterceptor
 
         // Token valid, filter patient appointments
-        ResponseEntity<Map<String, Object>> filteredAppointmentsResponse = service.filterPatient(condition, name, token);
+        ResponseEntity<Map<String, Object>> filteredAppointmentsResponse = service.filterPatient(condition, name, patient);
 
         return filteredAppointmentsResponse;
     }
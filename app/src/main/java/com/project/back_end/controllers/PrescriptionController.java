@@ -5,6 +5,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.*;
 
+import com.project.back_end.config.RequiresRole;
 import com.project.back_end.models.Prescription;
 import com.project.back_end.services.PrescriptionService;
 
@@ -46,14 +47,10 @@ public class PrescriptionController {
 //    - Validates the token for the `"doctor"` role.
 //    - If the token is valid, updates the status of the corresponding appointment to reflect that a prescription has been added.
 //    - Delegates the saving logic to `PrescriptionService` and returns a response indicating success or failure.
-    @PostMapping("/{token}")
-    public ResponseEntity<Map<String, String>> savePrescription(@PathVariable String token,
-                                                                @RequestBody Prescription prescription) {
-        // Validate token for doctor role
-        ResponseEntity<Map<String, String>> validationResponse = service.validateToken(token, "doctor");
-        if (validationResponse != null) {
-            return validationResponse;  // Return error if token invalid or unauthorized
-        }
+    @PostMapping({"/{token}", ""})
+    @RequiresRole("doctor")
+    public ResponseEntity<Map<String, String>> savePrescription(@RequestBody Prescription prescription) {
+        // Token for doctor role was already validated by AuthInterceptor
 
         // Save the prescription
         ResponseEntity<Map<String, String>> saveResponse = prescriptionService.savePrescription(prescription);
@@ -66,14 +63,10 @@ public class PrescriptionController {
 //    - Validates the token for the `"doctor"` role using the shared service.
 //    - If the token is valid, fetches the prescription using the `PrescriptionService`.
 //    - Returns the prescription details or an appropriate error message if validation fails.
-    @GetMapping("/{appointmentId}/{token}")
-    public ResponseEntity<Map<String, Object>> getPrescriptionByAppointmentId(@PathVariable Long appointmentId,
-                                                                             @PathVariable String token) {
-        // Validate token for doctor role
-        ResponseEntity<Map<String, String>> validationResponse = service.validateToken(token, "doctor");
-        if (validationResponse != null) {
-            return new ResponseEntity<>(Map.of("message", "Invalid or unauthorized token"), HttpStatus.UNAUTHORIZED);
-        }
+    @GetMapping({"/{appointmentId}/{token}", "/{appointmentId}"})
+    @RequiresRole("doctor")
+    public ResponseEntity<Map<String, Object>> getPrescriptionByAppointmentId(@PathVariable Long appointmentId) {
+        // Token for doctor role was already validated by AuthInterceptor
 
         // Retrieve the prescription
         ResponseEntity<Map<String, Object>> prescriptionResponse = prescriptionService.getPrescription(appointmentId);
@@ -1,5 +1,6 @@
 package com.project.back_end.controllers;
 
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -25,4 +26,12 @@ public class ValidationFailed {
 
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errors);
     }
+
+    // Unique constraint hits (e.g. two patients booking the same doctor and time) are conflicts, not server errors
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<Map<String, String>> handleConflict(DataIntegrityViolationException ex) {
+        Map<String, String> errors = new HashMap<>();
+        errors.put("message", "Conflicts with existing data, e.g. the appointment time is already booked");
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(errors);
+    }
 }
\ No newline at end of file
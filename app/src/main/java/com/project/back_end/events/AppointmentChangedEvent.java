@@ -0,0 +1,92 @@
+package com.project.back_end.events;
+
+import java.time.LocalDateTime;
+
+// Published by `AppointmentService` for every appointment write and delivered to listeners after the transaction commits
+// (`@TransactionalEventListener(phase = AFTER_COMMIT, fallbackExecution = true)`).
+// Carries the slot before and after the change, so caches can update or evict only the affected (doctor, date) entries.
+public class AppointmentChangedEvent {
+
+    public enum Type {
+        BOOKED,          // new appointment at (doctorId, appointmentTime)
+        UPDATED,         // moved from (previousDoctorId, previousTime) to (doctorId, appointmentTime)
+        CANCELED,        // (doctorId, appointmentTime) is free again
+        STATUS_CHANGED   // same slot, new status
+    }
+
+    private final Type type;
+    private final Long appointmentId;        // null for bookings inserted with `insertIfSlotFree`
+    private final Long doctorId;
+    private final Long patientId;
+    private final LocalDateTime appointmentTime;
+    private final Long previousDoctorId;     // set for UPDATED only
+    private final LocalDateTime previousTime;
+
+    private AppointmentChangedEvent(Type type, Long appointmentId, Long doctorId, Long patientId, LocalDateTime appointmentTime,
+                                    Long previousDoctorId, LocalDateTime previousTime) {
+        this.type = type;
+        this.appointmentId = appointmentId;
+        this.doctorId = doctorId;
+        this.patientId = patientId;
+        this.appointmentTime = appointmentTime;
+        this.previousDoctorId = previousDoctorId;
+        this.previousTime = previousTime;
+    }
+
+    public static AppointmentChangedEvent booked(Long doctorId, Long patientId, LocalDateTime appointmentTime) {
+        return new AppointmentChangedEvent(Type.BOOKED, null, doctorId, patientId, appointmentTime, null, null);
+    }
+
+    public static AppointmentChangedEvent updated(Long appointmentId, Long doctorId, Long patientId, LocalDateTime appointmentTime,
+                                                  Long previousDoctorId, LocalDateTime previousTime) {
+        return new AppointmentChangedEvent(Type.UPDATED, appointmentId, doctorId, patientId, appointmentTime,
+                previousDoctorId, previousTime);
+    }
+
+    public static AppointmentChangedEvent canceled(Long appointmentId, Long doctorId, Long patientId, LocalDateTime appointmentTime) {
+        return new AppointmentChangedEvent(Type.CANCELED, appointmentId, doctorId, patientId, appointmentTime, null, null);
+    }
+
+    public static AppointmentChangedEvent statusChanged(Long appointmentId, Long doctorId, Long patientId,
+                                                        LocalDateTime appointmentTime) {
+        return new AppointmentChangedEvent(Type.STATUS_CHANGED, appointmentId, doctorId, patientId, appointmentTime, null, null);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getAppointmentId() {
+        return appointmentId;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    public LocalDateTime getAppointmentTime() {
+        return appointmentTime;
+    }
+
+    public Long getPreviousDoctorId() {
+        return previousDoctorId;
+    }
+
+    public LocalDateTime getPreviousTime() {
+        return previousTime;
+    }
+
+    @Override
+    public String toString() {
+        return "AppointmentChangedEvent{" +
+                "type=" + type +
+                ", appointmentId=" + appointmentId +
+                ", doctorId=" + doctorId +
+                ", appointmentTime=" + appointmentTime +
+                '}';
+    }
+}
@@ -0,0 +1,47 @@
+package com.project.back_end.events;
+
+// Published by `DoctorService` when a doctor is created, updated or deleted, or the weekly schedule changes.
+// Delivered to listeners after the transaction commits, so caches evict per doctor instead of relying on TTLs.
+public class DoctorChangedEvent {
+
+    public enum Type {
+        CREATED,
+        UPDATED,
+        DELETED,
+        SCHEDULE_CHANGED   // slot grid changed: indexed availability of the doctor no longer matches
+    }
+
+    private final Type type;
+    private final Long doctorId;
+    private final String revokedEmail;   // tokens of the doctor to revoke after commit (deleted, or email changed)
+
+    public DoctorChangedEvent(Type type, Long doctorId) {
+        this(type, doctorId, null);
+    }
+
+    public DoctorChangedEvent(Type type, Long doctorId, String revokedEmail) {
+        this.type = type;
+        this.doctorId = doctorId;
+        this.revokedEmail = revokedEmail;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public String getRevokedEmail() {
+        return revokedEmail;
+    }
+
+    @Override
+    public String toString() {
+        return "DoctorChangedEvent{" +
+                "type=" + type +
+                ", doctorId=" + doctorId +
+                '}';
+    }
+}
@@ -0,0 +1,34 @@
+package com.project.back_end.events;
+
+// Published by `PatientService` when a patient is created, and delivered to listeners after the transaction commits,
+// so in-memory indexes of patients (`Typeahead`) add the patient without reloading.
+public class PatientChangedEvent {
+
+    public enum Type {
+        CREATED
+    }
+
+    private final Type type;
+    private final Long patientId;
+
+    public PatientChangedEvent(Type type, Long patientId) {
+        this.type = type;
+        this.patientId = patientId;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getPatientId() {
+        return patientId;
+    }
+
+    @Override
+    public String toString() {
+        return "PatientChangedEvent{" +
+                "type=" + type +
+                ", patientId=" + patientId +
+                '}';
+    }
+}
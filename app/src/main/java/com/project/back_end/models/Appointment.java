@@ -19,6 +19,8 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
@@ -32,8 +34,14 @@ import java.time.ZonedDateTime;
 // @Entity annotation:
 //    - Marks the class as a JPA entity, meaning it represents a table in the database.
 //    - Required for persistence frameworks (e.g., Hibernate) to map the class to a database table.
+// @Table unique constraint:
+//    - A doctor can hold only one appointment per start time; concurrent bookings of the same slot fail in the database
+//      instead of both succeeding.
+//    - `ddl-auto=update` only logs a failed `ADD CONSTRAINT`, e.g. on older data with double bookings, so
+//      `SchemaMigrations` checks at startup that the constraint exists and refuses to start without it.
 
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_appointment_doctor_time", columnNames = {"doctor_id", "appointment_time"}))
 public class Appointment {
 
  
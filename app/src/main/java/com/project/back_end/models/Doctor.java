@@ -1,7 +1,10 @@
 package com.project.back_end.models;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.regex.Matcher;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
@@ -11,6 +14,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToMany;
 import jakarta.validation.Valid;
@@ -19,9 +23,8 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 import jakarta.validation.constraints.Pattern;
-import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
-import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Table;
 
 
 // @Entity annotation:
@@ -30,6 +33,11 @@ import jakarta.persistence.ElementCollection;
 
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_doctor_available_periods", columnList = "available_periods"),
+        @Index(name = "idx_doctor_specialty_lc", columnList = "specialty_lc"),
+        @Index(name = "idx_doctor_name_lc", columnList = "name_lc")
+})
 public class Doctor {
 
 
@@ -107,20 +115,52 @@ public class Doctor {
     @Pattern(regexp = "\\d{10}", message = "Phone number must be 10 digits")
     private String phone;
 
-// 7. 'availableTimes' field:
-//    - Type: private List<String>
+// 7. 'availableHours' and 'availablePeriods' fields:
+//    - Type: private int
 //    - Description:
-//      - Represents the available times for the doctor in a list of time slots.
-//      - Each time slot is represented as a string (e.g., "09:00-10:00", "10:00-11:00").
-//      - The @ElementCollection annotation ensures that the list of time slots is stored as a separate collection in the database.
+//      - The available times of the doctor, one-hour slots such as "09:00-10:00", stored in the doctor row instead of
+//        a separate `doctor_available_times` collection table: bit h of `availableHours` is set when the slot starting
+//        at h:00 is offered. The older "AM" and "PM" entries are still accepted and stand for the morning and afternoon
+//        slots of the default day.
+//      - `availablePeriods` is derived from it (bit 0: a morning slot, bit 1: an afternoon slot) and indexed, so AM/PM
+//        filters are a plain `IN` in the WHERE clause. Rows of the old collection table are moved by `SchemaMigrations`.
+//      - Both stay out of the JSON; clients keep reading and writing the `availableTimes` list.
+
+    @JsonIgnore
+    @Column(name = "available_hours", nullable = false)
+    private int availableHours;
+
+    @JsonIgnore
+    @Column(name = "available_periods", nullable = false)
+    private int availablePeriods;
+
+    public static final int PERIOD_AM = 1;
+    public static final int PERIOD_PM = 2;
+    private static final int MORNING_HOURS = (1 << 12) - 1;
+    private static final int AM_HOURS = 1 << 9 | 1 << 10 | 1 << 11;    // 09:00, 10:00 and 11:00 slots
+    private static final int PM_HOURS = 1 << 13 | 1 << 14 | 1 << 15;   // 13:00, 14:00 and 15:00 slots
+    private static final java.util.regex.Pattern HOUR_SLOT = java.util.regex.Pattern.compile("(\\d{2}):00-(\\d{2}):00");
+
+
+// 8. 'nameLc' and 'specialtyLc' fields:
+//    - Type: private String
+//    - Description:
+//      - Lower-cased copies of `name` and `specialty`, generated and kept up to date by MySQL (read-only here).
+//      - Case-insensitive queries compare against these indexed columns instead of `LOWER(column)`, which cannot use an index.
+//      - `name_lc` also carries a FULLTEXT ngram index for substring search, created by `SchemaMigrations`.
+
+    @JsonIgnore
+    @Column(name = "name_lc", insertable = false, updatable = false,
+            columnDefinition = "varchar(255) generated always as (lower(name)) stored")
+    private String nameLc;
 
-    @ElementCollection
-    @CollectionTable(name = "doctor_available_times", joinColumns = @JoinColumn(name = "doctor_id"))
-    @Column(name = "available_time")
-    private List<String> availableTimes;
+    @JsonIgnore
+    @Column(name = "specialty_lc", insertable = false, updatable = false,
+            columnDefinition = "varchar(255) generated always as (lower(specialty)) stored")
+    private String specialtyLc;
 
 
-// 8. Getters and Setters:
+// 9. Getters and Setters:
 //    - Standard getter and setter methods are provided for all fields: id, name, specialty, email, password, phone, and availableTimes.
 
     public Long getId() { 
@@ -170,13 +210,82 @@ public class Doctor {
         this.phone = phone;
     }
 
-    
+    // Available times as slot labels, in time order
     public List<String> getAvailableTimes() {
-        return availableTimes;
+        return toTimes(availableHours);
     }
 
+    // Accepts one-hour slots ("09:00-10:00") and "AM" / "PM"; anything else is rejected with IllegalArgumentException
     public void setAvailableTimes(List<String> availableTimes) {
-        this.availableTimes = availableTimes;
+        setAvailableHours(toHourMask(availableTimes));
+    }
+
+    public int getAvailableHours() {
+        return availableHours;
+    }
+
+    public void setAvailableHours(int availableHours) {
+        this.availableHours = availableHours;
+        this.availablePeriods = periodsOf(availableHours);
+    }
+
+    public int getAvailablePeriods() {
+        return availablePeriods;
+    }
+
+    public static int toHourMask(List<String> times) {
+        int hours = 0;
+        if (times == null) {
+            return hours;
+        }
+        for (String time : times) {
+            int period = periodOf(time == null ? null : time.trim());
+            if (period != 0) {
+                hours |= period == PERIOD_AM ? AM_HOURS : PM_HOURS;
+                continue;
+            }
+            Matcher slot = time == null ? null : HOUR_SLOT.matcher(time.trim());
+            if (slot == null || !slot.matches()
+                    || Integer.parseInt(slot.group(2)) != Integer.parseInt(slot.group(1)) + 1
+                    || Integer.parseInt(slot.group(1)) > 23) {
+                throw new IllegalArgumentException("Available times must be one-hour slots such as 09:00-10:00, or AM / PM, got: "
+                        + time);
+            }
+            hours |= 1 << Integer.parseInt(slot.group(1));
+        }
+        return hours;
+    }
+
+    public static List<String> toTimes(int availableHours) {
+        List<String> times = new ArrayList<>(Integer.bitCount(availableHours));
+        for (int hours = availableHours; hours != 0; hours &= hours - 1) {
+            int hour = Integer.numberOfTrailingZeros(hours);
+            times.add(String.format("%02d:00-%02d:00", hour, hour + 1));
+        }
+        return times;
+    }
+
+    public static int periodsOf(int availableHours) {
+        return ((availableHours & MORNING_HOURS) != 0 ? PERIOD_AM : 0)
+                | ((availableHours & ~MORNING_HOURS) != 0 ? PERIOD_PM : 0);
+    }
+
+    // "AM" or "PM" as a period bit, 0 for anything else
+    public static int periodOf(String amOrPm) {
+        if ("AM".equalsIgnoreCase(amOrPm)) {
+            return PERIOD_AM;
+        }
+        return "PM".equalsIgnoreCase(amOrPm) ? PERIOD_PM : 0;
+    }
+
+    // Values of `availablePeriods` that include the given period, for `IN` filters: every value for null, none for
+    // anything but "AM" or "PM"
+    public static List<Integer> periodValuesMatching(String amOrPm) {
+        if (amOrPm == null) {
+            return List.of(0, PERIOD_AM, PERIOD_PM, PERIOD_AM | PERIOD_PM);
+        }
+        int period = periodOf(amOrPm);
+        return period == 0 ? List.of() : List.of(period, PERIOD_AM | PERIOD_PM);
     }
 
 }
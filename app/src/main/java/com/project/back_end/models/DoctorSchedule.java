@@ -0,0 +1,139 @@
+package com.project.back_end.models;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import jakarta.persistence.CollectionTable;
+import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.OrderColumn;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+// @Entity annotation:
+//    - Weekly schedule template of one doctor: working hours per weekday, slot length, breaks and days off.
+//    - Compiled by `DoctorScheduleService` into one `SlotGrid` per weekday; doctors without a schedule keep the default slots.
+
+@Entity
+public class DoctorSchedule {
+
+// 1. 'id' field:
+//    - Type: private Long
+//    - Description:
+//      - Primary key, auto-generated.
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+// 2. 'doctorId' field:
+//    - Type: private Long
+//    - Description:
+//      - The doctor this schedule belongs to; at most one schedule per doctor.
+
+    @Column(name = "doctor_id", unique = true, nullable = false)
+    private Long doctorId;
+
+// 3. 'slotMinutes' field:
+//    - Type: private int
+//    - Description:
+//      - Length of one appointment slot in minutes.
+
+    @Min(5)
+    @Max(240)
+    private int slotMinutes = 60;
+
+// 4. 'workingHours' field:
+//    - Type: private List<ScheduleBlock>
+//    - Description:
+//      - Working blocks per weekday; a weekday may have several blocks and weekdays without blocks are days off.
+
+    @Valid
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "doctor_schedule_hours", joinColumns = @JoinColumn(name = "schedule_id"))
+    @OrderColumn(name = "position")
+    private List<ScheduleBlock> workingHours = new ArrayList<>();
+
+// 5. 'breaks' field:
+//    - Type: private List<ScheduleBlock>
+//    - Description:
+//      - Periods without appointments (e.g. lunch). A break without a weekday applies to every day.
+
+    @Valid
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "doctor_schedule_breaks", joinColumns = @JoinColumn(name = "schedule_id"))
+    @OrderColumn(name = "position")
+    private List<ScheduleBlock> breaks = new ArrayList<>();
+
+// 6. 'daysOff' field:
+//    - Type: private Set<LocalDate>
+//    - Description:
+//      - Exceptions to the weekly template such as vacations and public holidays.
+
+    @NotNull
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "doctor_schedule_days_off", joinColumns = @JoinColumn(name = "schedule_id"))
+    @Column(name = "day_off")
+    private Set<LocalDate> daysOff = new HashSet<>();
+
+// 7. Getters and Setters:
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getDoctorId() {
+        return doctorId;
+    }
+
+    public void setDoctorId(Long doctorId) {
+        this.doctorId = doctorId;
+    }
+
+    public int getSlotMinutes() {
+        return slotMinutes;
+    }
+
+    public void setSlotMinutes(int slotMinutes) {
+        this.slotMinutes = slotMinutes;
+    }
+
+    public List<ScheduleBlock> getWorkingHours() {
+        return workingHours;
+    }
+
+    public void setWorkingHours(List<ScheduleBlock> workingHours) {
+        this.workingHours = workingHours;
+    }
+
+    public List<ScheduleBlock> getBreaks() {
+        return breaks;
+    }
+
+    public void setBreaks(List<ScheduleBlock> breaks) {
+        this.breaks = breaks;
+    }
+
+    public Set<LocalDate> getDaysOff() {
+        return daysOff;
+    }
+
+    public void setDaysOff(Set<LocalDate> daysOff) {
+        this.daysOff = daysOff;
+    }
+}
@@ -1,15 +1,19 @@
 package com.project.back_end.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonManagedReference;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.Table;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
@@ -21,6 +25,7 @@ import jakarta.validation.constraints.Pattern;
 //    - Required for persistence frameworks (e.g., Hibernate) to map the class to a database table.
 
 @Entity
+@Table(indexes = @Index(name = "idx_patient_name_lc", columnList = "name_lc"))
 public class Patient {
 
 // 1. 'id' field:
@@ -95,8 +100,19 @@ public class Patient {
     @Size(max = 255)
     private String address;
 
+// 7. 'nameLc' field:
+//    - Type: private String
+//    - Description:
+//      - Lower-cased copy of `name`, generated by MySQL and indexed (B-tree plus a FULLTEXT ngram index created by
+//        `SchemaMigrations`), so patient name searches do not wrap the column in `LOWER()`. Read-only here.
+
+    @JsonIgnore
+    @Column(name = "name_lc", insertable = false, updatable = false,
+            columnDefinition = "varchar(255) generated always as (lower(name)) stored")
+    private String nameLc;
+
 
-// 7. Getters and Setters:
+// 8. Getters and Setters:
 //    - Standard getter and setter methods are provided for all fields: id, name, email, password, phone, and address.
 //    - These methods allow access and modification of the fields of the Patient class.
 
@@ -0,0 +1,79 @@
+package com.project.back_end.models;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.validation.constraints.NotNull;
+
+// @Embeddable annotation:
+//    - A time range within a day, stored as part of a `DoctorSchedule` (working hours or breaks).
+
+@Embeddable
+public class ScheduleBlock {
+
+// 1. 'dayOfWeek' field:
+//    - Type: private DayOfWeek
+//    - Description:
+//      - The weekday the block applies to. For breaks, null means every working day.
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "day_of_week")
+    private DayOfWeek dayOfWeek;
+
+// 2. 'startTime' and 'endTime' fields:
+//    - Type: private LocalTime
+//    - Description:
+//      - Start (inclusive) and end (exclusive) of the block.
+
+    @NotNull(message = "Start time cannot be null")
+    @Column(name = "start_time")
+    private LocalTime startTime;
+
+    @NotNull(message = "End time cannot be null")
+    @Column(name = "end_time")
+    private LocalTime endTime;
+
+    public ScheduleBlock() {
+    }
+
+    public ScheduleBlock(DayOfWeek dayOfWeek, LocalTime startTime, LocalTime endTime) {
+        this.dayOfWeek = dayOfWeek;
+        this.startTime = startTime;
+        this.endTime = endTime;
+    }
+
+// 3. Getters and Setters:
+
+    public DayOfWeek getDayOfWeek() {
+        return dayOfWeek;
+    }
+
+    public void setDayOfWeek(DayOfWeek dayOfWeek) {
+        this.dayOfWeek = dayOfWeek;
+    }
+
+    public LocalTime getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(LocalTime startTime) {
+        this.startTime = startTime;
+    }
+
+    public LocalTime getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(LocalTime endTime) {
+        this.endTime = endTime;
+    }
+
+    // True when the block applies on the given day (a null day means every day)
+    public boolean appliesTo(DayOfWeek day) {
+        return dayOfWeek == null || dayOfWeek == day;
+    }
+}
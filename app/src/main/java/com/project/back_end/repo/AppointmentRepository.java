@@ -53,20 +53,74 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
                                                              @Param("end") LocalDateTime end);
     
 
+//    - **findAppointmentTimesByDoctorIdBetween**:
+//      - Projection used by `AvailabilityIndex`: only the booked times of one doctor in [start, end), no entities.
+//      - Return type: List<LocalDateTime>
+//      - Parameters: Long doctorId, LocalDateTime start, LocalDateTime end
+    @Query("SELECT a.appointmentTime FROM Appointment a WHERE a.doctor.id = :doctorId " +
+           "AND a.appointmentTime >= :start AND a.appointmentTime < :end")
+    List<LocalDateTime> findAppointmentTimesByDoctorIdBetween(@Param("doctorId") Long doctorId,
+                                                              @Param("start") LocalDateTime start,
+                                                              @Param("end") LocalDateTime end);
+
+//    - **insertIfSlotFree**:
+//      - Booking in one statement: inserts the appointment only if the doctor and the patient exist and the doctor has
+//        nothing booked at that time. The NOT EXISTS probe and the insert both use the (doctor_id, appointment_time) unique index.
+//      - Return type: int (1 when inserted, 0 when a condition failed)
+//      - Parameters: Long doctorId, Long patientId, LocalDateTime appointmentTime, int status
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO appointment (doctor_id, patient_id, appointment_time, status) " +
+                   "SELECT :doctorId, :patientId, :appointmentTime, :status FROM DUAL " +
+                   "WHERE EXISTS (SELECT 1 FROM doctor d WHERE d.id = :doctorId) " +
+                   "AND EXISTS (SELECT 1 FROM patient p WHERE p.id = :patientId) " +
+                   "AND NOT EXISTS (SELECT 1 FROM appointment a WHERE a.doctor_id = :doctorId AND a.appointment_time = :appointmentTime)",
+           nativeQuery = true)
+    int insertIfSlotFree(@Param("doctorId") Long doctorId,
+                         @Param("patientId") Long patientId,
+                         @Param("appointmentTime") LocalDateTime appointmentTime,
+                         @Param("status") int status);
+
+
+//    - **findPatientIdsByDoctorId**:
+//      - Ids of the patients who have or had an appointment with the doctor, used to limit a doctor's patient typeahead.
+//      - Return type: List<Long>
+//      - Parameters: Long doctorId
+    @Query("SELECT DISTINCT a.patient.id FROM Appointment a WHERE a.doctor.id = :doctorId")
+    List<Long> findPatientIdsByDoctorId(@Param("doctorId") Long doctorId);
+
+//    - **findAppointmentTimesByDoctorIdsBetween**:
+//      - Grouped variant for the batch availability endpoint: (doctor id, appointment time) pairs for many doctors at once.
+//      - Return type: List<Object[]>
+//      - Parameters: List<Long> doctorIds, LocalDateTime start, LocalDateTime end
+    @Query("SELECT a.doctor.id, a.appointmentTime FROM Appointment a WHERE a.doctor.id IN :doctorIds " +
+           "AND a.appointmentTime >= :start AND a.appointmentTime < :end")
+    List<Object[]> findAppointmentTimesByDoctorIdsBetween(@Param("doctorIds") List<Long> doctorIds,
+                                                          @Param("start") LocalDateTime start,
+                                                          @Param("end") LocalDateTime end);
+
+
 //    - **findByDoctorIdAndPatient_NameContainingIgnoreCaseAndAppointmentTimeBetween**:
 //      - This method retrieves appointments for a specific doctor and patient name (ignoring case) within a given time range.
 //      - It performs a LEFT JOIN to fetch both the doctor and patient details along with the appointment times.
+//      - The (doctor_id, appointment_time) unique index narrows the rows; the name is found through the FULLTEXT ngram
+//        index on the generated, lower-cased `name_lc` column with `patientNameQuery`, built by
+//        `FulltextFunctions.booleanQuery(patientName)`, and confirmed with `LIKE`. The doctor-name filters below do the
+//        same on `doctor.name_lc`, driven by the patient id. The query must not be null: when `booleanQuery` returns
+//        null, callers read the rows without the name filter and filter them in memory.
 //      - Return type: List<Appointment>
-//      - Parameters: Long doctorId, String patientName, LocalDateTime start, LocalDateTime end
+//      - Parameters: Long doctorId, String patientNameQuery, String patientName, LocalDateTime start, LocalDateTime end
  
     @Query("SELECT a FROM Appointment a " +
            "LEFT JOIN FETCH a.patient p " +
            "LEFT JOIN FETCH a.doctor d " +
            "WHERE d.id = :doctorId " +
-           "AND LOWER(p.name) LIKE LOWER(CONCAT('%', :patientName, '%')) " +
+           "AND fulltext_match(p.nameLc, :patientNameQuery) > 0 " +
+           "AND p.nameLc LIKE CONCAT('%', LOWER(:patientName), '%') " +
            "AND a.appointmentTime BETWEEN :start AND :end")
     List<Appointment> findByDoctorIdAndPatient_NameContainingIgnoreCaseAndAppointmentTimeBetween(
             @Param("doctorId") Long doctorId,
+            @Param("patientNameQuery") String patientNameQuery,
             @Param("patientName") String patientName,
             @Param("start") LocalDateTime start,
             @Param("end") LocalDateTime end);
@@ -110,31 +164,35 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
 
 
 //    - **filterByDoctorNameAndPatientId**:
-//      - This method retrieves appointments based on a doctor’s name (using a LIKE query) and the patient’s ID.
+//      - This method retrieves appointments based on a doctor’s name (FULLTEXT candidates confirmed with LIKE) and the patient’s ID.
 //      - Return type: List<Appointment>
-//      - Parameters: String doctorName, Long patientId
+//      - Parameters: String doctorNameQuery, String doctorName, Long patientId
 
     @Query("SELECT a FROM Appointment a " +
-           "WHERE LOWER(a.doctor.name) LIKE LOWER(CONCAT('%', :doctorName, '%')) " +
+           "WHERE fulltext_match(a.doctor.nameLc, :doctorNameQuery) > 0 " +
+           "AND a.doctor.nameLc LIKE CONCAT('%', LOWER(:doctorName), '%') " +
            "AND a.patient.id = :patientId")
-    List<Appointment> filterByDoctorNameAndPatientId(@Param("doctorName") String doctorName,
+    List<Appointment> filterByDoctorNameAndPatientId(@Param("doctorNameQuery") String doctorNameQuery,
+                                                    @Param("doctorName") String doctorName,
                                                     @Param("patientId") Long patientId);
 
 
 //    - **filterByDoctorNameAndPatientIdAndStatus**:
-//      - This method retrieves appointments based on a doctor’s name (using a LIKE query), patient’s ID, and a specific appointment status.
+//      - This method retrieves appointments based on a doctor’s name (FULLTEXT candidates confirmed with LIKE), patient’s ID, and a specific appointment status.
 //      - Return type: List<Appointment>
-//      - Parameters: String doctorName, Long patientId, int status
+//      - Parameters: String doctorNameQuery, String doctorName, Long patientId, int status
 
 //    - **updateStatus**:
 //      - This method updates the status of a specific appointment based on its ID.
 //      - Return type: void
 //      - Parameters: int status, long id
     @Query("SELECT a FROM Appointment a " +
-           "WHERE LOWER(a.doctor.name) LIKE LOWER(CONCAT('%', :doctorName, '%')) " +
+           "WHERE fulltext_match(a.doctor.nameLc, :doctorNameQuery) > 0 " +
+           "AND a.doctor.nameLc LIKE CONCAT('%', LOWER(:doctorName), '%') " +
            "AND a.patient.id = :patientId " +
            "AND a.status = :status")
-    List<Appointment> filterByDoctorNameAndPatientIdAndStatus(@Param("doctorName") String doctorName,
+    List<Appointment> filterByDoctorNameAndPatientIdAndStatus(@Param("doctorNameQuery") String doctorNameQuery,
+                                                             @Param("doctorName") String doctorName,
                                                              @Param("patientId") Long patientId,
                                                              @Param("status") int status);
 
@@ -147,7 +205,8 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
 //    - Spring Data JPA automatically implements this repository, providing the necessary CRUD functionality and custom queries defined in the interface.
 
 // LM added - Additional methods for finding conflicting appointments
-    @Query("SELECT a FROM Appointment a WHERE a.doctor.id = :doctorId AND a.dateTime = :dateTime AND a.id <> :appointmentId")
+    // Matches on appointmentTime, the column booking sets and the unique constraint covers
+    @Query("SELECT a FROM Appointment a WHERE a.doctor.id = :doctorId AND a.appointmentTime = :dateTime AND a.id <> :appointmentId")
         List<Appointment> findConflictingAppointments(@Param("doctorId") Long doctorId,
                                                     @Param("dateTime") LocalDateTime dateTime,
                                                     @Param("appointmentId") Long appointmentId);
@@ -158,9 +217,11 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
            "LEFT JOIN FETCH a.patient p " +
            "LEFT JOIN FETCH a.doctor d " +
            "WHERE p.id = :patientId " +
-           "AND LOWER(d.name) LIKE LOWER(CONCAT('%', :doctorName, '%')) ")
+           "AND fulltext_match(d.nameLc, :doctorNameQuery) > 0 " +
+           "AND d.nameLc LIKE CONCAT('%', LOWER(:doctorName), '%') ")
     List<Appointment> findByPatientIdAndDoctorNameContainingIgnoreCase(
             @Param("patientId") Long patientId,
+            @Param("doctorNameQuery") String doctorNameQuery,
             @Param("doctorName") String doctorName);
             
             
@@ -169,10 +230,12 @@ public interface AppointmentRepository extends JpaRepository<Appointment, Long>
            "LEFT JOIN FETCH a.patient p " +
            "LEFT JOIN FETCH a.doctor d " +
            "WHERE p.id = :patientId " +
-           "AND LOWER(d.name) LIKE LOWER(CONCAT('%', :doctorName, '%')) " +
+           "AND fulltext_match(d.nameLc, :doctorNameQuery) > 0 " +
+           "AND d.nameLc LIKE CONCAT('%', LOWER(:doctorName), '%') " +
            "AND a.status = :status")
     List<Appointment> findByPatientIdAndDoctorNameContainingIgnoreCaseAndStatus(
             @Param("patientId") Long patientId,
+            @Param("doctorNameQuery") String doctorNameQuery,
             @Param("doctorName") String doctorName,
             @Param("status") int status);
     // end LM added
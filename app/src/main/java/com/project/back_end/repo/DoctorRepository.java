@@ -2,7 +2,9 @@ package com.project.back_end.repo;
 
 
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -15,6 +17,7 @@ import java.time.LocalDateTime;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.project.back_end.DTO.DoctorCard;
 import com.project.back_end.models.Doctor;
 
 @Repository
@@ -34,32 +37,61 @@ public interface DoctorRepository extends JpaRepository<Doctor, Long> {
 //      - Parameters: String email
     Doctor findByEmail(String email);
 
-//    - **findByNameLike**:
-//      - This method retrieves a list of Doctors whose name contains the provided search string (case-sensitive).
-//      - The `CONCAT('%', :name, '%')` is used to create a pattern for partial matching.
-//      - Return type: List<Doctor>
-//      - Parameters: String name
-    @Query("SELECT d FROM Doctor d WHERE LOWER(d.name) LIKE LOWER(CONCAT('%', :name, '%'))")
-    List<Doctor> findByNameLike(@Param("name") String name);
+//    - **NAME_MATCH**:
+//      - Doctors whose name contains `name`, ignoring case: the FULLTEXT ngram index on the generated `name_lc` column
+//        finds the candidates through `nameQuery`, built with `FulltextFunctions.booleanQuery(name)`, and the `LIKE` on
+//        the same column only confirms the whole substring on them. `LIKE '%x%'` alone cannot use an index.
+//      - When `booleanQuery` returns null (no word of two characters or more) the index cannot find the name; callers
+//        then narrow the rows another way and filter the name in memory.
+    String NAME_MATCH = "fulltext_match(d.nameLc, :nameQuery) > 0 AND d.nameLc LIKE CONCAT('%', LOWER(:name), '%')";
 
 //    - **findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase**:
 //      - This method retrieves a list of Doctors where the name contains the search string (case-insensitive) and the specialty matches exactly (case-insensitive).
 //      - It combines both fields for a more specific search.
+//      - The name is searched as in `NAME_MATCH` below, so `nameQuery` must not be null.
 //      - Return type: List<Doctor>
-//      - Parameters: String name, String specialty
-    @Query("SELECT d FROM Doctor d WHERE LOWER(d.name) LIKE LOWER(CONCAT('%', :name, '%')) AND LOWER(d.specialty) = LOWER(:specialty)")
-    List<Doctor> findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(@Param("name") String name, @Param("specialty") String specialty);
+//      - Parameters: String nameQuery, String name, String specialty
+    @Query("SELECT d FROM Doctor d WHERE d.specialtyLc = LOWER(:specialty) AND " + NAME_MATCH)
+    List<Doctor> findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(@Param("nameQuery") String nameQuery, @Param("name") String name,
+                                                                       @Param("specialty") String specialty);
 
 //    - **findBySpecialtyIgnoreCase**:
 //      - This method retrieves a list of Doctors with the specified specialty, ignoring case sensitivity.
+//      - Compares the indexed, generated `specialty_lc` column with the lower-cased parameter, so the index is used.
 //      - Return type: List<Doctor>
 //      - Parameters: String specialty
-    @Query("SELECT d FROM Doctor d WHERE LOWER(d.specialty) = LOWER(:specialty)")
+    @Query("SELECT d FROM Doctor d WHERE d.specialtyLc = LOWER(:specialty)")
     List<Doctor> findBySpecialtyIgnoreCase(@Param("specialty") String specialty);
 
-// LM added test
-    @Query("SELECT d FROM Doctor d WHERE LOWER(d.name) LIKE LOWER(CONCAT('%', :name, '%')) ")
-    List<Doctor> findByNameContainingIgnoreCase(@Param("name") String name);
+//    - **findAllCards / findCardById**:
+//      - Doctors as `DoctorCard`s, for listings and `DoctorDirectory`: only the card columns are selected, and the
+//        results are plain objects outside the persistence context. `findPageAfter` below returns cards as well.
+    String CARD = "new com.project.back_end.DTO.DoctorCard(d.id, d.name, d.specialty, d.email, d.phone, d.availableHours)";
+
+    @Query("SELECT " + CARD + " FROM Doctor d ORDER BY d.id")
+    List<DoctorCard> findAllCards();
+
+    @Query("SELECT " + CARD + " FROM Doctor d WHERE d.id = :id")
+    Optional<DoctorCard> findCardById(@Param("id") Long id);
+
+//    - **findPageAfter / findPageAfterByName**:
+//      - One keyset page of doctors: ids greater than `after`, in id order, at most `limit` rows. The next page starts
+//        after the last id returned, so every page is an index range read on the primary key, however deep it is.
+//      - `specialty` is optional (null matches all); `periods` lists the accepted values of the indexed
+//        `available_periods` column, e.g. `Doctor.periodValuesMatching("AM")`, and is tested in the WHERE clause.
+//      - `findPageAfterByName` also keeps the doctors whose name contains `name`, found as in `NAME_MATCH`.
+//      - Return type: List<DoctorCard>
+    @Query("SELECT " + CARD + " FROM Doctor d WHERE d.id > :after"
+            + " AND (:specialty IS NULL OR d.specialtyLc = LOWER(:specialty))"
+            + " AND d.availablePeriods IN :periods ORDER BY d.id")
+    List<DoctorCard> findPageAfter(@Param("after") long after, @Param("specialty") String specialty,
+                               @Param("periods") List<Integer> periods, Limit limit);
+
+    @Query("SELECT " + CARD + " FROM Doctor d WHERE d.id > :after AND " + NAME_MATCH
+            + " AND (:specialty IS NULL OR d.specialtyLc = LOWER(:specialty))"
+            + " AND d.availablePeriods IN :periods ORDER BY d.id")
+    List<DoctorCard> findPageAfterByName(@Param("after") long after, @Param("nameQuery") String nameQuery, @Param("name") String name,
+                                         @Param("specialty") String specialty, @Param("periods") List<Integer> periods, Limit limit);
 
     /*
     // LM test - used with simplfied test
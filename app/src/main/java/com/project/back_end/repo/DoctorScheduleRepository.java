@@ -0,0 +1,18 @@
+package com.project.back_end.repo;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import com.project.back_end.models.DoctorSchedule;
+
+@Repository
+public interface DoctorScheduleRepository extends JpaRepository<DoctorSchedule, Long> {
+
+//    - **findByDoctorId**:
+//      - Retrieves the weekly schedule of a doctor, if one was configured.
+//      - Return type: Optional<DoctorSchedule>
+//      - Parameters: Long doctorId
+    Optional<DoctorSchedule> findByDoctorId(Long doctorId);
+}
@@ -40,6 +40,15 @@ public interface PatientRepository extends JpaRepository<Patient, Long> {
 //      - Parameters: String email, String phone
     Patient findByEmailOrPhone(String email, String phone);
 
+//    - **findAllNames / findNameById**:
+//      - Projections for the name typeahead: (id, name) pairs only, no entities.
+//      - Return type: List<Object[]>
+    @Query("SELECT p.id, p.name FROM Patient p")
+    List<Object[]> findAllNames();
+
+    @Query("SELECT p.name FROM Patient p WHERE p.id = :id")
+    String findNameById(@Param("id") Long id);
+
 // 3. @Repository annotation:
 //    - The @Repository annotation marks this interface as a Spring Data JPA repository.
 //    - Spring Data JPA automatically implements this repository, providing the necessary CRUD functionality and custom queries defined in the interface.
@@ -1,7 +1,9 @@
 package com.project.back_end.services;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.util.Optional;
 import org.springframework.http.ResponseEntity;
@@ -12,8 +14,13 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
+import org.springframework.dao.DataIntegrityViolationException;
 
+import com.project.back_end.config.FulltextFunctions;
+import com.project.back_end.DTO.AuthPrincipal;
+import com.project.back_end.events.AppointmentChangedEvent;
 import com.project.back_end.models.Appointment;
 import com.project.back_end.models.Doctor;
 import com.project.back_end.repo.AppointmentRepository;
@@ -34,17 +41,26 @@ public class AppointmentService {
     private final AppointmentRepository appointmentRepository;
     private final PatientRepository patientRepository;
     private final DoctorRepository doctorRepository;
-    private final TokenService tokenService;
+    private final AvailabilityIndex availabilityIndex;
+    private final BookingLocks bookingLocks;
+    private final SlotHoldService slotHolds;
+    private final ApplicationEventPublisher events;
 
     // Constructor for dependency injection
     public AppointmentService(AppointmentRepository appointmentRepository,
                               PatientRepository patientRepository,
                               DoctorRepository doctorRepository,
-                              TokenService tokenService) {
+                              AvailabilityIndex availabilityIndex,
+                              BookingLocks bookingLocks,
+                              SlotHoldService slotHolds,
+                              ApplicationEventPublisher events) {
         this.appointmentRepository = appointmentRepository;
         this.patientRepository = patientRepository;
         this.doctorRepository = doctorRepository;
-        this.tokenService = tokenService;
+        this.availabilityIndex = availabilityIndex;
+        this.bookingLocks = bookingLocks;
+        this.slotHolds = slotHolds;
+        this.events = events;
     }
 
 // 3. **Add @Transactional Annotation for Methods that Modify Database**:
@@ -53,15 +69,48 @@ public class AppointmentService {
 
 // 4. **Book Appointment Method**:
 //    - Responsible for saving the new appointment to the database.
-//    - If the save operation fails, it returns `0`; otherwise, it returns `1`.
+//    - If the save operation fails, it returns `0`; if the slot is already taken, `-1`; if the doctor or the patient
+//      does not exist, `-2`; otherwise, it returns `1`.
+//    - The database is reached once: `insertIfSlotFree` checks that the doctor and patient exist and that the slot is
+//      free, and inserts, in a single statement. The existence checks only run again to explain a refused insert.
+//    - An `AppointmentChangedEvent` is published; `AvailabilityIndex` marks the slot from it.
+//    - Contenders for the same doctor on this node queue on the doctor's `BookingLocks` stripe and the slot is
+//      re-checked under the lock; across nodes the (doctor_id, appointment_time) unique constraint decides.
+//    - A slot held by another patient (`SlotHoldService`) counts as taken; the patient's own hold is released once booked.
 //    - Instruction: Ensure that the method handles any exceptions and returns an appropriate result code.
     public int bookAppointment(Appointment appointment) {
+        Long doctorId = appointment.getDoctor().getId();
+        Long patientId = appointment.getPatient() != null ? appointment.getPatient().getId() : null;
+        ReentrantLock lock = bookingLocks.lock(doctorId);
         try {
-            appointmentRepository.save(appointment);
+            if (!availabilityIndex.isFree(doctorId, appointment.getAppointmentTime())
+                    || slotHolds.isHeldByOther(doctorId, appointment.getAppointmentTime(), patientId)) {
+                return -1; // Taken by a contender that got the lock first, or held by another patient
+            }
+            // Runs inside the lock so the row is in the unique index before the next contender checks
+            int inserted = appointmentRepository.insertIfSlotFree(doctorId, patientId, appointment.getAppointmentTime(),
+                    appointment.getStatus() != null ? appointment.getStatus() : 0);
+            if (inserted == 0) {
+                if (!doctorRepository.existsById(doctorId) || patientId == null || !patientRepository.existsById(patientId)) {
+                    return -2;
+                }
+                // Booked through another node; the index learns about it now
+                availabilityIndex.markBooked(doctorId, appointment.getAppointmentTime());
+                return -1;
+            }
+            // Not in a transaction: listeners run before the lock is released, so the next contender sees the slot taken
+            events.publishEvent(AppointmentChangedEvent.booked(doctorId, patientId, appointment.getAppointmentTime()));
+            slotHolds.release(doctorId, appointment.getAppointmentTime(), patientId);
             return 1; // Success
+        } catch (DataIntegrityViolationException e) {
+            // Booked through another node in the meantime; the index learns about it now
+            availabilityIndex.markBooked(doctorId, appointment.getAppointmentTime());
+            return -1;
         } catch (Exception e) {
             // Log the error if needed
             return 0; // Error occurred
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -69,10 +118,13 @@ public class AppointmentService {
 //    - This method is used to update an existing appointment based on its ID.
 //    - It validates whether the patient ID matches, checks if the appointment is available for updating, and ensures that the doctor is available at the specified time.
 //    - If the update is successful, it saves the appointment; otherwise, it returns an appropriate error message.
+//    - The conflict check and the flush run under the new doctor's `BookingLocks` stripe; a slot taken through
+//      another node surfaces as `DataIntegrityViolationException`, answered with 409 by `ValidationFailed`.
+//    - An appointment of another patient than `patient` is refused with 403 (`ResponseStatusException`).
 //    - Instruction: Ensure proper validation and error handling is included for appointment updates.
     @Transactional
      
-    public boolean updateAppointment(Appointment appointment) {
+    public boolean updateAppointment(Appointment appointment, AuthPrincipal patient) {
     Optional<Appointment> existingAppointmentOpt = appointmentRepository.findById(appointment.getId());
 
      // 5.1. Check if the appointment exists by ID
@@ -81,11 +133,13 @@ public class AppointmentService {
             return false;
         }
         Appointment existingAppointment = existingAppointmentOpt.get();
+        Long previousDoctorId = existingAppointment.getDoctor().getId();
+        LocalDateTime previousTime = existingAppointment.getAppointmentTime();
 
-        // 5.2. Validate patient ID matches the existing appointment
-        if (!existingAppointment.getPatient().getId().equals(appointment.getPatient().getId())) {
-            // throw new IllegalArgumentException("Patient ID does not match the existing appointment");
-            return false;
+        // 5.2. Only the patient who owns the appointment may move it; the controller has checked that the body names
+        // the same patient
+        if (!existingAppointment.getPatient().getId().equals(patient.getId())) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Appointment belongs to another patient");
         }
 
         // 5.3. Check if the doctor exists
@@ -94,25 +148,36 @@ public class AppointmentService {
             return false;
         }
 
-        // 5.4. Validate doctor availability at the appointment time
-        boolean isDoctorAvailable = checkDoctorAvailability(appointment.getDoctor().getId(), appointment.getDateTime(), appointment.getId());
-        if (!isDoctorAvailable) {
-            //throw new IllegalArgumentException("Doctor is not available at the specified time");
-            return false;
+        Long doctorId = appointment.getDoctor().getId();
+        ReentrantLock lock = bookingLocks.lock(doctorId);
+        try {
+            // 5.4. Validate doctor availability at the appointment time
+            boolean isDoctorAvailable = checkDoctorAvailability(doctorId, appointment.getAppointmentTime(), appointment.getId())
+                    && !slotHolds.isHeldByOther(doctorId, appointment.getAppointmentTime(), existingAppointment.getPatient().getId());
+            if (!isDoctorAvailable) {
+                //throw new IllegalArgumentException("Doctor is not available at the specified time");
+                return false;
+            }
+
+            // 5.5. If all validations pass, update the appointment details
+            existingAppointment.setAppointmentTime(appointment.getAppointmentTime());
+            // existingAppointment.setReason(appointment.getReason());
+            existingAppointment.setDoctor(appointment.getDoctor());
+            existingAppointment.setPatient(appointment.getPatient());
+            existingAppointment.setStatus(appointment.getStatus()); // e.g., confirmed, canceled, etc.
+            // existingAppointment.setLocation(appointment.getLocation()); // if applicable
+            // existingAppointment.setNotes(appointment.getNotes()); // any additional notes
+            // Add other fields as needed
+
+            // 5.6. Save the updated appointment; flushed so a conflicting row fails here, inside the lock
+            appointmentRepository.saveAndFlush(existingAppointment);
+        } finally {
+            lock.unlock();
         }
 
-        // 5.5. If all validations pass, update the appointment details
-        existingAppointment.setDateTime(appointment.getDateTime());
-        // existingAppointment.setReason(appointment.getReason());
-        existingAppointment.setDoctor(appointment.getDoctor());
-        existingAppointment.setPatient(appointment.getPatient());
-        existingAppointment.setStatus(appointment.getStatus()); // e.g., confirmed, canceled, etc.
-        // existingAppointment.setLocation(appointment.getLocation()); // if applicable
-        // existingAppointment.setNotes(appointment.getNotes()); // any additional notes
-        // Add other fields as needed
-
-        // 5.6. Save the updated appointment
-        appointmentRepository.save(existingAppointment);
+        // 5.7. Announce the move; caches such as the availability index apply it once the transaction commits
+        events.publishEvent(AppointmentChangedEvent.updated(existingAppointment.getId(), existingAppointment.getDoctor().getId(),
+                existingAppointment.getPatient().getId(), existingAppointment.getAppointmentTime(), previousDoctorId, previousTime));
     
         return true;
     }    
@@ -159,19 +224,52 @@ public class AppointmentService {
     // end of LM first version
     */
 
+// **holdSlot / releaseHold Methods**:
+//    - Reserve a free slot for the patient for a short time while the booking form is confirmed, so other patients stop
+//      seeing it and don't lose the race only at submit. See `SlotHoldService` for the expiry.
+//    - `holdSlot` answers 201 with the expiry time, 404 for an unknown doctor and 409 when the slot is booked, held by
+//      another patient, or not a slot of the doctor's schedule.
+    public ResponseEntity<Map<String, Object>> holdSlot(Long doctorId, LocalDateTime dateTime, AuthPrincipal patient) {
+        Map<String, Object> response = new HashMap<>();
+
+        if (!doctorRepository.existsById(doctorId)) {
+            response.put("message", "Doctor not found");
+            return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+        }
+        if (!dateTime.isAfter(LocalDateTime.now()) || !availabilityIndex.isFree(doctorId, dateTime)) {
+            response.put("message", "Appointment time unavailable");
+            return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+        }
+
+        LocalDateTime expiresAt = slotHolds.hold(doctorId, dateTime, patient.getId());
+        if (expiresAt == null) {
+            response.put("message", "Appointment time is held by another patient");
+            return new ResponseEntity<>(response, HttpStatus.CONFLICT);
+        }
+        response.put("message", "Appointment time held");
+        response.put("expiresAt", expiresAt);
+        return new ResponseEntity<>(response, HttpStatus.CREATED);
+    }
+
+    public ResponseEntity<Map<String, Object>> releaseHold(Long doctorId, LocalDateTime dateTime, AuthPrincipal patient) {
+        Map<String, Object> response = new HashMap<>();
+        if (!slotHolds.release(doctorId, dateTime, patient.getId())) {
+            response.put("message", "No hold on this appointment time");
+            return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
+        }
+        response.put("message", "Hold released");
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
 // 6. **Cancel Appointment Method**:
 //    - This method cancels an appointment by deleting it from the database.
 //    - It ensures the patient who owns the appointment is trying to cancel it and handles possible errors.
 //    - Instruction: Make sure that the method checks for the patient ID match before deleting the appointment.
     @Transactional
-    public ResponseEntity<Map<String, String>> cancelAppointment(long id, String token) {
+    public ResponseEntity<Map<String, String>> cancelAppointment(long id, AuthPrincipal patient) {
         Map<String, String> response = new HashMap<>();
 
-        // Validate token for patient role
-        if (!tokenService.validateToken(token, "patient")) {
-            response.put("message", "Invalid or unauthorized token");
-            return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED);
-        }
+        // The patient token was validated once by AuthInterceptor; the resolved principal is passed in
 
         // Find appointment by ID
         Optional<Appointment> appointmentOpt = appointmentRepository.findById(id);
@@ -180,8 +278,17 @@ public class AppointmentService {
             return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
         }
 
-        // Delete the appointment
-        appointmentRepository.delete(appointmentOpt.get());
+        // Only the patient who owns the appointment may cancel it
+        if (!appointmentOpt.get().getPatient().getId().equals(patient.getId())) {
+            response.put("message", "Appointment belongs to another patient");
+            return new ResponseEntity<>(response, HttpStatus.FORBIDDEN);
+        }
+
+        // Delete the appointment and free its slot
+        Appointment appointment = appointmentOpt.get();
+        appointmentRepository.delete(appointment);
+        events.publishEvent(AppointmentChangedEvent.canceled(appointment.getId(), appointment.getDoctor().getId(),
+                patient.getId(), appointment.getAppointmentTime()));
         response.put("message", "Appointment canceled successfully");
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
@@ -192,30 +299,29 @@ public class AppointmentService {
 //    - Instruction: Ensure the correct use of transaction boundaries, especially when querying the database for appointments.
 
     @Transactional(readOnly = true)
-    public Map<String, Object> getAppointment(String pname, LocalDate date, String token) {
+    public Map<String, Object> getAppointment(String pname, LocalDate date, AuthPrincipal doctor) {
         Map<String, Object> response = new HashMap<>();
 
-        // Validate token for doctor role
-        if (!tokenService.validateToken(token, "doctor")) {
-            response.put("error", "Invalid or unauthorized token");
-            return response;
-        }
+        // The doctor token was validated once by AuthInterceptor; the principal already carries the doctor id
 
         // Define start and end of the day for the date
         LocalDateTime startOfDay = date.atStartOfDay();
         LocalDateTime endOfDay = date.atTime(LocalTime.MAX);
 
-        // Fetch appointments for the doctor between start and end of the day
-        List<Appointment> appointments = appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(
-                getDoctorIdFromToken(token), startOfDay, endOfDay);
-
-        // If patient name filter is provided, filter the list
-        if (pname != null && !pname.isEmpty()) {
-            appointments = appointments.stream()
-                    .filter(app -> app.getPatient() != null &&
-                            app.getPatient().getName() != null &&
-                            app.getPatient().getName().toLowerCase().contains(pname.toLowerCase()))
-                    .toList();
+        // Fetch appointments for the doctor between start and end of the day, filtered by patient name in the query if given.
+        // A name the FULLTEXT index cannot find is filtered here, among the doctor's appointments of the day.
+        String nameQuery = FulltextFunctions.booleanQuery(pname);
+        List<Appointment> appointments;
+        if (nameQuery != null) {
+            appointments = appointmentRepository.findByDoctorIdAndPatient_NameContainingIgnoreCaseAndAppointmentTimeBetween(
+                    doctor.getId(), nameQuery, pname, startOfDay, endOfDay);
+        } else {
+            appointments = appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(doctor.getId(), startOfDay, endOfDay);
+            if (pname != null && !pname.isEmpty()) {
+                appointments = appointments.stream()
+                        .filter(appointment -> FulltextFunctions.containsIgnoreCase(appointment.getPatient().getName(), pname))
+                        .toList();
+            }
         }
 
         response.put("appointments", appointments);
@@ -237,6 +343,8 @@ public class AppointmentService {
 
         // Save the updated appointment
         appointmentRepository.save(appointment);
+        events.publishEvent(AppointmentChangedEvent.statusChanged(appointment.getId(), appointment.getDoctor().getId(),
+                appointment.getPatient().getId(), appointment.getAppointmentTime()));
     }
 
  
@@ -247,12 +355,5 @@ public class AppointmentService {
         return conflicts.isEmpty();  // true if no conflicts, false if doctor is booked
     }
 
-// Helper method to extract doctor ID from token (implementation depends on your tokenService)
-    private Long getDoctorIdFromToken(String token) {
-        String doctorIdentifier = tokenService.extractIdentifier(token);
-        Doctor doctor = doctorRepository.findByEmail(doctorIdentifier);
-        return (doctor != null) ? doctor.getId() : null;
-    }
-
 // end LM added
 }
\ No newline at end of file
@@ -0,0 +1,264 @@
+package com.project.back_end.services;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.project.back_end.DTO.SlotGrid;
+import com.project.back_end.events.AppointmentChangedEvent;
+import com.project.back_end.events.DoctorChangedEvent;
+import com.project.back_end.repo.AppointmentRepository;
+
+// In-memory index of booked slots: one bitmask per (doctor, date), bit i set when slot i is booked.
+// - A day is loaded lazily with one projection query (appointment times only) the first time it is read.
+// - Bookings, moves and cancellations update the mask in place when their `AppointmentChangedEvent` arrives
+//   after commit, so availability checks never go back to the database for a day that is already indexed.
+// - A load that overlaps a write for the same doctor is not cached (the write may be missing from the
+//   rows it read); the next read simply loads again.
+@Component
+public class AvailabilityIndex {
+
+    private static final int WRITE_STRIPES = 64;
+    private static final int EPOCH_DAY_BITS = 20;
+
+    private final AppointmentRepository appointmentRepository;
+    // Bit i of a (doctor, date) mask refers to slot i of that doctor's grid for that date
+    private final DoctorScheduleService scheduleService;
+
+    // (doctorId << 20 | epochDay) -> booked mask
+    private final ConcurrentHashMap<Long, AtomicLong> bookedMasks = new ConcurrentHashMap<>();
+    // Per-doctor-stripe write counters used to detect loads that raced with a write
+    private final AtomicLongArray writeSeq = new AtomicLongArray(WRITE_STRIPES);
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private volatile long lastPurgeDay = LocalDate.now().toEpochDay();
+
+    public AvailabilityIndex(AppointmentRepository appointmentRepository, DoctorScheduleService scheduleService) {
+        this.appointmentRepository = appointmentRepository;
+        this.scheduleService = scheduleService;
+    }
+
+// 1. **getBookedMask Method**
+// Returns the booked-slot mask for a doctor on a date, loading it from the database on first use.
+    public long getBookedMask(Long doctorId, LocalDate date) {
+        Long key = key(doctorId, date);
+        AtomicLong mask = bookedMasks.get(key);
+        if (mask != null) {
+            hits.increment();
+            return mask.get();
+        }
+        return load(doctorId, date, key);
+    }
+
+// **getBookedMasks Method**
+// Booked-slot masks for several doctors over a date range: result[d][i] is the mask of doctorIds.get(d)
+// on from.plusDays(i). Days not indexed yet are loaded together with one grouped query.
+    public long[][] getBookedMasks(List<Long> doctorIds, LocalDate from, LocalDate to) {
+        int days = (int) (to.toEpochDay() - from.toEpochDay()) + 1;
+        long[][] masks = new long[doctorIds.size()][days];
+        List<Long> missingDoctors = new ArrayList<>();
+        List<Integer> missingPositions = new ArrayList<>();
+
+        for (int d = 0; d < doctorIds.size(); d++) {
+            Long doctorId = doctorIds.get(d);
+            boolean missing = false;
+            for (int i = 0; i < days; i++) {
+                AtomicLong mask = bookedMasks.get(key(doctorId, from.plusDays(i)));
+                if (mask == null) {
+                    missing = true;
+                    break;
+                }
+                masks[d][i] = mask.get();
+            }
+            if (missing) {
+                missingDoctors.add(doctorId);
+                missingPositions.add(d);
+            } else {
+                hits.increment();
+            }
+        }
+        if (missingDoctors.isEmpty()) {
+            return masks;
+        }
+
+        loads.increment();
+        purgePastDays();
+        long[] seqs = new long[missingDoctors.size()];
+        for (int m = 0; m < seqs.length; m++) {
+            seqs[m] = writeSeq.get(stripe(missingDoctors.get(m)));
+        }
+
+        Map<Long, long[]> loaded = new HashMap<>();
+        for (Long doctorId : missingDoctors) {
+            loaded.put(doctorId, new long[days]);
+        }
+        List<Object[]> rows = appointmentRepository.findAppointmentTimesByDoctorIdsBetween(
+                missingDoctors, from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+        for (Object[] row : rows) {
+            LocalDateTime time = (LocalDateTime) row[1];
+            int slot = scheduleService.gridFor((Long) row[0], time.toLocalDate()).slotIndex(time);
+            if (slot >= 0) {
+                loaded.get((Long) row[0])[(int) (time.toLocalDate().toEpochDay() - from.toEpochDay())] |= 1L << slot;
+            }
+        }
+
+        // Same publish-then-check protocol as `load`, per doctor
+        for (int m = 0; m < seqs.length; m++) {
+            Long doctorId = missingDoctors.get(m);
+            long[] doctorMasks = loaded.get(doctorId);
+            for (int i = 0; i < days; i++) {
+                Long key = key(doctorId, from.plusDays(i));
+                AtomicLong published = new AtomicLong(doctorMasks[i]);
+                AtomicLong existing = bookedMasks.putIfAbsent(key, published);
+                if (existing != null) {
+                    doctorMasks[i] = existing.get();
+                } else if (writeSeq.get(stripe(doctorId)) != seqs[m]) {
+                    bookedMasks.remove(key, published);
+                }
+            }
+            masks[missingPositions.get(m)] = doctorMasks;
+        }
+        return masks;
+    }
+
+// 2. **isFree Method**
+// True when `dateTime` is the start of a slot of the doctor's grid for that day and nobody has booked it yet.
+    public boolean isFree(Long doctorId, LocalDateTime dateTime) {
+        int slot = gridFor(doctorId, dateTime.toLocalDate()).slotIndex(dateTime);
+        return slot >= 0 && (getBookedMask(doctorId, dateTime.toLocalDate()) & (1L << slot)) == 0;
+    }
+
+// 3. **onAppointmentChanged Method**
+// Applies a committed booking, move or cancellation to the affected (doctor, date) masks only.
+// Runs after the schedule cache listener (`@Order`), so reloaded days use the current grid.
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(1)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        switch (event.getType()) {
+            case BOOKED -> update(event.getDoctorId(), event.getAppointmentTime(), true);
+            case UPDATED -> {
+                update(event.getPreviousDoctorId(), event.getPreviousTime(), false);
+                update(event.getDoctorId(), event.getAppointmentTime(), true);
+            }
+            case CANCELED -> update(event.getDoctorId(), event.getAppointmentTime(), false);
+            default -> { }   // status changes keep the slot booked
+        }
+    }
+
+// 4. **onDoctorChanged Method**
+// Drops every indexed day of a doctor that was deleted or whose schedule (and so slot grid) changed.
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(1)
+    public void onDoctorChanged(DoctorChangedEvent event) {
+        if (event.getType() != DoctorChangedEvent.Type.DELETED && event.getType() != DoctorChangedEvent.Type.SCHEDULE_CHANGED) {
+            return;
+        }
+        Long doctorId = event.getDoctorId();
+        writeSeq.incrementAndGet(stripe(doctorId));
+        bookedMasks.keySet().removeIf(key -> (key >>> EPOCH_DAY_BITS) == doctorId);
+    }
+
+// **markBooked Method**
+// Records a booking found in the database rather than made here (e.g. a slot taken through another node),
+// so the next check answers from memory.
+    public void markBooked(Long doctorId, LocalDateTime dateTime) {
+        update(doctorId, dateTime, true);
+    }
+
+    // The grid the masks of a doctor and date refer to
+    public SlotGrid gridFor(Long doctorId, LocalDate date) {
+        return scheduleService.gridFor(doctorId, date);
+    }
+
+// 5. **getStats Method**
+// Counters exposed through the admin metrics endpoint.
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("days", bookedMasks.size());
+        stats.put("hits", hits.sum());
+        stats.put("loads", loads.sum());
+        return stats;
+    }
+
+    private long load(Long doctorId, LocalDate date, Long key) {
+        loads.increment();
+        purgePastDays();
+        int stripe = stripe(doctorId);
+        long seq = writeSeq.get(stripe);
+
+        List<LocalDateTime> bookedTimes = appointmentRepository.findAppointmentTimesByDoctorIdBetween(
+                doctorId, date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+        long booked = 0L;
+        SlotGrid grid = gridFor(doctorId, date);
+        for (LocalDateTime time : bookedTimes) {
+            int slot = grid.slotIndex(time);
+            if (slot >= 0) {
+                booked |= 1L << slot;
+            }
+        }
+
+        // Publish first, then check: a write that incremented the counter after this check sees the entry
+        // and updates it; one that incremented before it may be missing from `bookedTimes`, so drop the entry.
+        AtomicLong loaded = new AtomicLong(booked);
+        AtomicLong existing = bookedMasks.putIfAbsent(key, loaded);
+        if (existing != null) {
+            return existing.get();
+        }
+        if (writeSeq.get(stripe) != seq) {
+            bookedMasks.remove(key, loaded);
+        }
+        return booked;
+    }
+
+    private void update(Long doctorId, LocalDateTime dateTime, boolean booked) {
+        if (doctorId == null || dateTime == null) {
+            return;
+        }
+        writeSeq.incrementAndGet(stripe(doctorId));
+        int slot = gridFor(doctorId, dateTime.toLocalDate()).slotIndex(dateTime);
+        AtomicLong mask = bookedMasks.get(key(doctorId, dateTime.toLocalDate()));
+        if (slot < 0 || mask == null) {
+            // Off-grid time, or a day nobody has read yet: it will be loaded from the database when needed
+            return;
+        }
+        long bit = 1L << slot;
+        if (booked) {
+            mask.getAndUpdate(current -> current | bit);
+        } else {
+            mask.getAndUpdate(current -> current & ~bit);
+        }
+    }
+
+    // Helper method to drop days in the past, at most once per day
+    private void purgePastDays() {
+        long today = LocalDate.now().toEpochDay();
+        if (today == lastPurgeDay) {
+            return;
+        }
+        lastPurgeDay = today;
+        long dayMask = (1L << EPOCH_DAY_BITS) - 1;
+        bookedMasks.keySet().removeIf(key -> (key & dayMask) < today);
+    }
+
+    // Also used by `SlotHoldService`, so holds and bookings of a doctor's day share one key
+    static Long key(Long doctorId, LocalDate date) {
+        return (doctorId << EPOCH_DAY_BITS) | date.toEpochDay();
+    }
+
+    private static int stripe(Long doctorId) {
+        return (int) (doctorId & (WRITE_STRIPES - 1));
+    }
+}
@@ -0,0 +1,384 @@
+package com.project.back_end.services;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongFunction;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.back_end.DTO.SlotGrid;
+import com.project.back_end.events.AppointmentChangedEvent;
+import com.project.back_end.events.DoctorChangedEvent;
+
+import jakarta.annotation.PreDestroy;
+
+// Server-Sent Events fan-out of availability changes, so the booking UI is pushed slot deltas instead of polling
+// `/doctor/availability`.
+// - Subscribers filter by doctor ids, dates, or both; they are indexed by doctor (date-only subscribers in one shared set),
+//   so an event only visits the subscribers that can match it.
+// - Connections are async `SseEmitter`s: an idle subscriber holds no thread. Each event is serialized once and queued
+//   to every matching subscriber; a small pool of sender threads drains the queues, one subscriber at a time per thread.
+// - A slow client only delays itself: its queue is bounded, and on overflow the backlog is replaced by one "refresh"
+//   (the client re-fetches availability). A client stuck in one send for longer than SEND_TIMEOUT_MILLIS is dropped
+//   by the heartbeat, so no more frames are queued for it.
+// - A send blocks its sender thread until the socket takes the bytes. The connector's write timeout
+//   (`server.tomcat.connection-timeout`, which Tomcat also uses for writes) makes the write fail, and the sender thread
+//   then ends the stream. The heartbeat cannot end it sooner: `ResponseBodyEmitter` synchronizes `send` and
+//   `completeWithError`, so a completion from another thread would wait for the blocked write.
+// - Deltas come from committed `AppointmentChangedEvent`s; a schedule change or deleted doctor sends "refresh".
+@Component
+public class AvailabilityStream {
+
+    private static final long HEARTBEAT_SECONDS = 20;
+    private static final int QUEUE_CAPACITY = 64;        // frames waiting per subscriber
+    private static final int DRAIN_BATCH = 16;           // frames sent per turn before the thread moves on
+    private static final long SEND_TIMEOUT_MILLIS = 10_000L;
+
+    // One open stream, its filter and its outgoing frames; empty sets match everything
+    private static final class Subscriber {
+        private final SseEmitter emitter;
+        private final Set<Long> doctorIds;
+        private final Set<LocalDate> dates;
+        private final ArrayBlockingQueue<Set<ResponseBodyEmitter.DataWithMediaType>> pending =
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        // True while a drain task is queued or running; at most one thread sends to a subscriber
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile long sendStartedAt;   // System.nanoTime() of the send in progress, 0 when none
+        private volatile boolean stalled;      // dropped by the heartbeat while blocked in a send
+
+        Subscriber(SseEmitter emitter, Set<Long> doctorIds, Set<LocalDate> dates) {
+            this.emitter = emitter;
+            this.doctorIds = doctorIds;
+            this.dates = dates;
+        }
+
+        boolean matches(LocalDate date) {
+            return date == null || dates.isEmpty() || dates.contains(date);
+        }
+    }
+
+    private final ConcurrentHashMap<Long, Set<Subscriber>> byDoctor = new ConcurrentHashMap<>();
+    private final Set<Subscriber> anyDoctor = ConcurrentHashMap.newKeySet();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    // Permits for open streams, taken before a subscriber is registered so the limit holds under concurrent subscribes
+    private final Semaphore subscriberPermits;
+    private final ExecutorService senders;
+    private final ScheduledExecutorService heartbeats;
+    private final AvailabilityIndex availabilityIndex;
+    private final ObjectMapper objectMapper;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    private final Set<ResponseBodyEmitter.DataWithMediaType> overflowRefresh;
+    private final LongSupplier clock;                    // System.nanoTime()
+    private final LongFunction<SseEmitter> emitters;     // timeout in millis -> new stream
+
+    private final LongAdder eventsSent = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder overflows = new LongAdder();
+    private final LongAdder stalled = new LongAdder();
+
+    @Autowired
+    public AvailabilityStream(AvailabilityIndex availabilityIndex, ObjectMapper objectMapper,
+                              @Value("${availability.stream.max-subscribers:10000}") int maxSubscribers,
+                              @Value("${availability.stream.timeout-minutes:30}") long timeoutMinutes,
+                              @Value("${availability.stream.sender-threads:4}") int senderThreads) {
+        this(availabilityIndex, objectMapper, maxSubscribers, timeoutMinutes, senderThreads, System::nanoTime, SseEmitter::new);
+    }
+
+    // Takes the clock and the emitters from tests
+    AvailabilityStream(AvailabilityIndex availabilityIndex, ObjectMapper objectMapper, int maxSubscribers, long timeoutMinutes,
+                       int senderThreads, LongSupplier clock, LongFunction<SseEmitter> emitters) {
+        this.clock = clock;
+        this.emitters = emitters;
+        this.availabilityIndex = availabilityIndex;
+        this.objectMapper = objectMapper;
+        this.maxSubscribers = maxSubscribers;
+        this.subscriberPermits = new Semaphore(maxSubscribers);
+        // Browsers reconnect by themselves when the stream ends, which also re-checks the token
+        this.timeoutMillis = TimeUnit.MINUTES.toMillis(timeoutMinutes);
+        this.senders = Executors.newFixedThreadPool(Math.max(1, senderThreads), daemonThreads("availability-stream-"));
+        this.heartbeats = Executors.newSingleThreadScheduledExecutor(daemonThreads("availability-stream-heartbeat-"));
+        this.heartbeats.scheduleWithFixedDelay(this::heartbeat, HEARTBEAT_SECONDS, HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+        // No doctor id: every watched doctor and date may have changed
+        this.overflowRefresh = frame("refresh", Map.of("reason", "OVERFLOW"));
+    }
+
+// 1. **subscribe Method**
+// Opens a stream for the given doctors and/or dates. Returns null when the subscriber limit is reached.
+    public SseEmitter subscribe(Set<Long> doctorIds, Set<LocalDate> dates) {
+        if (!subscriberPermits.tryAcquire()) {
+            return null;
+        }
+        SseEmitter emitter = emitters.apply(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, Set.copyOf(doctorIds), Set.copyOf(dates));
+        subscribers.add(subscriber);
+        if (subscriber.doctorIds.isEmpty()) {
+            anyDoctor.add(subscriber);
+        } else {
+            for (Long doctorId : subscriber.doctorIds) {
+                // Added inside compute so a concurrent unsubscribe cannot drop the set in between
+                byDoctor.compute(doctorId, (id, watchers) -> {
+                    Set<Subscriber> target = watchers != null ? watchers : ConcurrentHashMap.newKeySet();
+                    target.add(subscriber);
+                    return target;
+                });
+            }
+        }
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+
+        // Tells the client the stream is live, so it can fetch the current availability once and apply deltas after
+        enqueue(subscriber, frame("subscribed", Map.of("doctorIds", subscriber.doctorIds, "dates", subscriber.dates)));
+        return emitter;
+    }
+
+// 2. **onAppointmentChanged / onDoctorChanged Methods**
+// Turn committed changes into "slot-taken", "slot-freed" or "refresh" events for the matching subscribers.
+// Ordered after the schedule and index listeners, so slot labels come from the current grid.
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(2)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        switch (event.getType()) {
+            case BOOKED -> publishSlot("slot-taken", event.getDoctorId(), event.getAppointmentTime());
+            case CANCELED -> publishSlot("slot-freed", event.getDoctorId(), event.getAppointmentTime());
+            case UPDATED -> {
+                publishSlot("slot-freed", event.getPreviousDoctorId(), event.getPreviousTime());
+                publishSlot("slot-taken", event.getDoctorId(), event.getAppointmentTime());
+            }
+            default -> { }   // status changes keep the slot booked
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(2)
+    public void onDoctorChanged(DoctorChangedEvent event) {
+        if (subscribers.isEmpty()
+                || (event.getType() != DoctorChangedEvent.Type.SCHEDULE_CHANGED && event.getType() != DoctorChangedEvent.Type.DELETED)) {
+            return;
+        }
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("doctorId", event.getDoctorId());
+        data.put("reason", event.getType());
+        fanOut(event.getDoctorId(), null, frame("refresh", data));
+    }
+
+// 3. **getStats Method**
+// Counters exposed through the admin metrics endpoint.
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("subscribers", subscribers.size());
+        stats.put("maxSubscribers", maxSubscribers);
+        stats.put("watchedDoctors", byDoctor.size());
+        stats.put("eventsSent", eventsSent.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("overflows", overflows.sum());
+        stats.put("stalled", stalled.sum());
+        stats.put("pendingSends", subscribers.stream().mapToInt(subscriber -> subscriber.pending.size()).sum());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+        senders.shutdownNow();
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+    }
+
+    private void publishSlot(String type, Long doctorId, LocalDateTime time) {
+        if (doctorId == null || time == null) {
+            return;
+        }
+        LocalDate date = time.toLocalDate();
+        SlotGrid grid = availabilityIndex.gridFor(doctorId, date);
+        int slot = grid.slotIndex(time);
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        data.put("doctorId", doctorId);
+        data.put("date", date);
+        data.put("slot", slot);
+        data.put("time", slot >= 0 ? grid.label(slot) : null);
+        data.put("startTime", time);
+        fanOut(doctorId, date, frame(type, data));
+    }
+
+    // Queues the already serialized event to every matching subscriber; only the queueing runs on the caller's thread
+    private void fanOut(Long doctorId, LocalDate date, Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+        if (frame == null) {
+            return;
+        }
+        Set<Subscriber> watchers = byDoctor.get(doctorId);
+        if (watchers != null) {
+            for (Subscriber subscriber : watchers) {
+                if (subscriber.matches(date)) {
+                    enqueue(subscriber, frame);
+                }
+            }
+        }
+        for (Subscriber subscriber : anyDoctor) {
+            if (subscriber.matches(date)) {
+                enqueue(subscriber, frame);
+            }
+        }
+    }
+
+    // Helper method adding a frame to a subscriber's queue. A full queue means the client is not keeping up:
+    // its backlog is dropped and replaced by one "refresh", which supersedes every delta in it.
+    private void enqueue(Subscriber subscriber, Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+        if (frame == null || subscriber.stalled) {
+            return;
+        }
+        if (!subscriber.pending.offer(frame)) {
+            overflows.increment();
+            do {
+                subscriber.pending.clear();
+            } while (!subscriber.pending.offer(overflowRefresh));
+        }
+        scheduleDrain(subscriber);
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (!subscriber.draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            senders.execute(() -> drain(subscriber));
+        } catch (RejectedExecutionException e) {
+            subscriber.draining.set(false);   // shutting down
+        }
+    }
+
+    // Sends up to DRAIN_BATCH frames, then yields the thread to other subscribers if more are waiting
+    private void drain(Subscriber subscriber) {
+        try {
+            for (int i = 0; i < DRAIN_BATCH && !subscriber.stalled; i++) {
+                Set<ResponseBodyEmitter.DataWithMediaType> frame = subscriber.pending.poll();
+                if (frame == null) {
+                    break;
+                }
+                if (!send(subscriber, frame)) {
+                    return;   // client went away; `send` already ended the stream
+                }
+            }
+            if (subscriber.stalled) {
+                // Dropped by the heartbeat during a send that has now returned: end the stream so the browser reconnects
+                subscriber.pending.clear();
+                subscriber.emitter.complete();
+                return;
+            }
+        } finally {
+            subscriber.draining.set(false);
+        }
+        // Frames queued while `draining` was still set have to be picked up here
+        if (!subscriber.pending.isEmpty() && subscribers.contains(subscriber)) {
+            scheduleDrain(subscriber);
+        }
+    }
+
+    // Queues a keepalive to idle subscribers (a busy queue already tests the connection) and drops clients
+    // whose current send has been blocked for longer than SEND_TIMEOUT_MILLIS
+    void heartbeat() {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        long now = clock.getAsLong();
+        Set<ResponseBodyEmitter.DataWithMediaType> ping = SseEmitter.event().comment("keepalive").build();
+        for (Subscriber subscriber : subscribers) {
+            long startedAt = subscriber.sendStartedAt;
+            if (startedAt != 0 && now - startedAt > TimeUnit.MILLISECONDS.toNanos(SEND_TIMEOUT_MILLIS)) {
+                // Frees its permit and stops queueing frames for it. The blocked write itself fails with the connector's
+                // write timeout, and the sender thread then ends the stream (see `drain` and `send`)
+                stalled.increment();
+                subscriber.stalled = true;
+                unsubscribe(subscriber);
+                subscriber.pending.clear();
+            } else if (subscriber.pending.isEmpty()) {
+                enqueue(subscriber, ping);
+            }
+        }
+    }
+
+    // Writes one frame; returns false when the client went away
+    private boolean send(Subscriber subscriber, Set<ResponseBodyEmitter.DataWithMediaType> frame) {
+        subscriber.sendStartedAt = clock.getAsLong();
+        try {
+            subscriber.emitter.send(frame);
+            eventsSent.increment();
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the container reports it too, but the subscriber is dropped right away
+            dropped.increment();
+            unsubscribe(subscriber);
+            subscriber.pending.clear();
+            subscriber.emitter.completeWithError(e);
+            return false;
+        } finally {
+            subscriber.sendStartedAt = 0;
+        }
+    }
+
+    private Set<ResponseBodyEmitter.DataWithMediaType> frame(String name, Object data) {
+        try {
+            return SseEmitter.event().name(name)
+                    .data(objectMapper.writeValueAsString(data), MediaType.APPLICATION_JSON)
+                    .build();
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        subscriberPermits.release();
+        anyDoctor.remove(subscriber);
+        for (Long doctorId : subscriber.doctorIds) {
+            byDoctor.computeIfPresent(doctorId, (id, watchers) -> {
+                watchers.remove(subscriber);
+                return watchers.isEmpty() ? null : watchers;
+            });
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,62 @@
+package com.project.back_end.services;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+
+// Per-doctor lock striping for the booking write path, used by `AppointmentService`.
+// - Patients racing for the same doctor on this node queue on one lock instead of all reaching the database
+//   and failing on the unique constraint; bookings for other doctors proceed in parallel.
+// - A fixed number of stripes keeps memory constant; two doctors sharing a stripe only serialize each other.
+// - The lock is an optimization only: the (doctor_id, appointment_time) unique constraint on `Appointment`
+//   is what keeps bookings race-free across nodes.
+@Component
+public class BookingLocks {
+
+    private static final int STRIPES = 64;
+
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder contended = new LongAdder();
+
+    public BookingLocks() {
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+// 1. **lock Method**
+// Acquires the stripe of the doctor and returns it; callers release it in a `finally` block.
+    public ReentrantLock lock(Long doctorId) {
+        ReentrantLock lock = locks[stripe(doctorId)];
+        acquisitions.increment();
+        if (!lock.tryLock()) {
+            contended.increment();
+            lock.lock();
+        }
+        return lock;
+    }
+
+// 2. **getStats Method**
+// Counters exposed through the admin metrics endpoint.
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        long total = acquisitions.sum();
+        long waited = contended.sum();
+        stats.put("stripes", STRIPES);
+        stats.put("acquisitions", total);
+        stats.put("contended", waited);
+        stats.put("contentionRatio", total == 0 ? 0.0 : (double) waited / total);
+        return stats;
+    }
+
+    private static int stripe(Long doctorId) {
+        long id = doctorId == null ? 0L : doctorId;
+        // Spread consecutive ids so neighbouring doctors don't share a stripe
+        return (int) ((id * 0x9E3779B97F4A7C15L) >>> 58);
+    }
+}
@@ -0,0 +1,90 @@
+package com.project.back_end.services;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.project.back_end.events.AppointmentChangedEvent;
+import com.project.back_end.events.DoctorChangedEvent;
+
+// Change counters behind the ETags of the doctor listings and the appointment listings, so a client that already has
+// the current version gets 304 Not Modified before any repository call or serialization
+// (`WebRequest.checkNotModified(etag)` in the controllers).
+// - One counter for the doctor table, bumped by every committed doctor create, update and delete.
+// - Striped counters for appointments per patient and per doctor (id modulo STRIPES), bumped by every committed
+//   `AppointmentChangedEvent`. Two ids sharing a stripe only cost an extra full response, never a stale one, and
+//   memory stays fixed however many patients there are.
+// Counters are bumped after commit and read before the listing is loaded, so a response is never tagged with a version
+// newer than its data. The ETags carry the start time of this process, since the counters restart at 0.
+@Component
+public class ChangeVersions {
+
+    private static final int STRIPES = 4096;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong doctors = new AtomicLong();
+    private final AtomicLongArray patientAppointments = new AtomicLongArray(STRIPES);
+    private final AtomicLongArray doctorAppointments = new AtomicLongArray(STRIPES);
+
+    private final LongAdder bumps = new LongAdder();
+
+// 1. **ETag Methods**
+// Strong ETags (quoted) for the doctor listings (`/doctor/doctors`, `/doctor/filter/...`, `/doctor/facets`),
+// the appointments of one patient, which also show doctor names, and the appointments of one doctor.
+    public String doctorsETag() {
+        return "\"d-" + epoch + "-" + doctors.get() + "\"";
+    }
+
+    public String patientAppointmentsETag(Long patientId) {
+        return "\"pa-" + epoch + "-" + patientId + "-" + patientAppointments.get(stripe(patientId)) + "-" + doctors.get() + "\"";
+    }
+
+    public String doctorAppointmentsETag(Long doctorId) {
+        return "\"da-" + epoch + "-" + doctorId + "-" + doctorAppointments.get(stripe(doctorId)) + "\"";
+    }
+
+// 2. **onDoctorChanged / onAppointmentChanged Methods**
+// Bump the counters of the committed write. A weekly schedule change does not alter the doctor listings.
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDoctorChanged(DoctorChangedEvent event) {
+        if (event.getType() != DoctorChangedEvent.Type.SCHEDULE_CHANGED) {
+            doctors.incrementAndGet();
+            bumps.increment();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        bump(patientAppointments, event.getPatientId());
+        bump(doctorAppointments, event.getDoctorId());
+        if (event.getPreviousDoctorId() != null && !event.getPreviousDoctorId().equals(event.getDoctorId())) {
+            bump(doctorAppointments, event.getPreviousDoctorId());
+        }
+    }
+
+// 3. **getStats Method**
+// Counters exposed through the admin metrics endpoint.
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("doctorsVersion", doctors.get());
+        stats.put("bumps", bumps.sum());
+        return stats;
+    }
+
+    private void bump(AtomicLongArray counters, Long id) {
+        if (id != null) {
+            counters.incrementAndGet(stripe(id));
+            bumps.increment();
+        }
+    }
+
+    private static int stripe(Long id) {
+        return (int) Math.floorMod(id == null ? 0L : id, (long) STRIPES);
+    }
+}
@@ -0,0 +1,323 @@
+package com.project.back_end.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.project.back_end.DTO.DoctorCard;
+import com.project.back_end.events.DoctorChangedEvent;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.DoctorRepository;
+
+// Read-optimized copy of the doctor table behind the doctor search box and filters, which would otherwise run
+// `LOWER(name) LIKE '%x%'` full scans on every keystroke.
+// - Names are indexed by trigram: a substring query of three or more characters only visits the doctors sharing its
+//   rarest trigram. Shorter queries scan the names, which is still in memory.
+// - Specialties have an inverted index (lower-cased specialty -> doctor ids).
+// - AM/PM availability is the doctor's two-bit `availablePeriods` mask.
+// - Loaded once on first use; afterwards each `DoctorChangedEvent` re-reads only that doctor. Doctors are held as
+//   `DoctorCard`s, read with a projection query, so the directory never keeps entities or passwords around.
+// - Facet counts (doctors per specialty and per AM/PM availability) are kept up to date by the same writes, so the
+//   filter dropdowns and the admin summary cost O(#specialties) instead of a scan of the doctors.
+// Postings are only candidates: every hit is checked against the doctor's entry, so a search running during an update
+// never returns a doctor that does not match.
+@Component
+public class DoctorDirectory {
+
+    private static final int GRAM = 3;
+
+    // Indexed copy of one doctor
+    private static final class Entry {
+        private final DoctorCard doctor;
+        private final String name;          // lower-cased
+        private final String specialty;     // lower-cased, null if missing
+        private final int periods;          // Doctor.PERIOD_AM | Doctor.PERIOD_PM bits
+
+        Entry(DoctorCard doctor) {
+            this.doctor = doctor;
+            this.name = lower(doctor.getName());
+            this.specialty = doctor.getSpecialty() == null ? null : lower(doctor.getSpecialty());
+            this.periods = doctor.getAvailablePeriods();
+        }
+
+        boolean matches(String nameQuery, String specialtyQuery, int period) {
+            return (nameQuery == null || name.contains(nameQuery))
+                    && (specialtyQuery == null || specialtyQuery.equals(specialty))
+                    && (period == 0 || (periods & period) != 0);
+        }
+    }
+
+    // Doctors of one specialty, counted by `availablePeriods` mask (index 0 to 3); replaced, never modified
+    private static final class Facet {
+        private final String label;         // spelling of the first doctor seen with this specialty
+        private final int[] byPeriods;
+
+        Facet(String label, int[] byPeriods) {
+            this.label = label;
+            this.byPeriods = byPeriods;
+        }
+
+        Facet plus(int periods, int delta) {
+            int[] counts = byPeriods.clone();
+            counts[periods] += delta;
+            return new Facet(label, counts);
+        }
+
+        int doctors() {
+            return byPeriods[0] + byPeriods[1] + byPeriods[2] + byPeriods[3];
+        }
+    }
+
+    private final DoctorRepository doctorRepository;
+
+    private final ConcurrentSkipListMap<Long, Entry> entries = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<String, Set<Long>> byTrigram = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<Long>> bySpecialty = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, Facet> facets = new ConcurrentSkipListMap<>();
+    private final AtomicIntegerArray doctorsByPeriods = new AtomicIntegerArray(4);
+    private volatile boolean loaded;
+
+    private final LongAdder searches = new LongAdder();
+    private final LongAdder indexedSearches = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+
+    public DoctorDirectory(DoctorRepository doctorRepository) {
+        this.doctorRepository = doctorRepository;
+    }
+
+// 1. **search Method**
+// Doctors whose name contains `name` (case-insensitive), whose specialty equals `specialty` (case-insensitive) and who
+// are available in the period `amOrPm` ("AM" or "PM"), ordered by id. A null argument does not filter; any other
+// period than AM or PM matches no doctor.
+// The paged variant is keyset based: it returns at most `limit` doctors with an id greater than `after`.
+    public List<DoctorCard> search(String name, String specialty, String amOrPm) {
+        return search(name, specialty, amOrPm, 0L, Integer.MAX_VALUE);
+    }
+
+    public List<DoctorCard> search(String name, String specialty, String amOrPm, long after, int limit) {
+        ensureLoaded();
+        searches.increment();
+
+        int period = 0;
+        if (amOrPm != null) {
+            period = Doctor.periodOf(amOrPm);
+            if (period == 0) {
+                return List.of();
+            }
+        }
+        String nameQuery = name == null ? null : lower(name);
+        String specialtyQuery = specialty == null ? null : lower(specialty);
+
+        // Smallest candidate set available; null means every doctor has to be checked
+        Set<Long> candidates = null;
+        if (specialtyQuery != null) {
+            candidates = bySpecialty.getOrDefault(specialtyQuery, Set.of());
+        }
+        if (nameQuery != null && nameQuery.length() >= GRAM) {
+            for (int i = 0; i + GRAM <= nameQuery.length(); i++) {
+                Set<Long> posting = byTrigram.getOrDefault(nameQuery.substring(i, i + GRAM), Set.of());
+                if (candidates == null || posting.size() < candidates.size()) {
+                    candidates = posting;
+                }
+            }
+        }
+
+        List<DoctorCard> result = new ArrayList<>();
+        if (candidates == null) {
+            for (Entry entry : entries.tailMap(after, false).values()) {
+                if (result.size() == limit) {
+                    break;
+                }
+                if (entry.matches(nameQuery, specialtyQuery, period)) {
+                    result.add(entry.doctor);
+                }
+            }
+            return result;
+        }
+
+        indexedSearches.increment();
+        List<Long> ids = new ArrayList<>(candidates.size());
+        for (Long id : candidates) {
+            if (id > after) {
+                ids.add(id);
+            }
+        }
+        ids.sort(null);
+        for (Long id : ids) {
+            if (result.size() == limit) {
+                break;
+            }
+            Entry entry = entries.get(id);
+            if (entry != null && entry.matches(nameQuery, specialtyQuery, period)) {
+                result.add(entry.doctor);
+            }
+        }
+        return result;
+    }
+
+// 2. **onDoctorChanged Method**
+// Re-reads the changed doctor after commit and swaps its entry and postings. Events that arrive before the first
+// load are ignored, since the load reads the committed rows anyway.
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDoctorChanged(DoctorChangedEvent event) {
+        if (event.getType() == DoctorChangedEvent.Type.SCHEDULE_CHANGED || event.getDoctorId() == null) {
+            return;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                return;
+            }
+            DoctorCard doctor = event.getType() == DoctorChangedEvent.Type.DELETED ? null
+                    : doctorRepository.findCardById(event.getDoctorId()).orElse(null);
+            if (doctor == null) {
+                remove(event.getDoctorId());
+            } else {
+                put(doctor);
+            }
+            refreshes.increment();
+        }
+    }
+
+// 3. **getFacets Method**
+// Doctor counts for the filter dropdowns and the admin dashboard:
+// - "total", "am" and "pm": all doctors, and those available in the morning / afternoon (a doctor can count in both)
+// - "specialties": one {specialty, doctors, am, pm} per specialty, ordered by lower-cased specialty
+    public Map<String, Object> getFacets() {
+        ensureLoaded();
+
+        List<Map<String, Object>> specialties = new ArrayList<>(facets.size());
+        for (Facet facet : facets.values()) {
+            Map<String, Object> counts = new HashMap<>();
+            counts.put("specialty", facet.label);
+            counts.put("doctors", facet.doctors());
+            counts.put("am", facet.byPeriods[Doctor.PERIOD_AM] + facet.byPeriods[Doctor.PERIOD_AM | Doctor.PERIOD_PM]);
+            counts.put("pm", facet.byPeriods[Doctor.PERIOD_PM] + facet.byPeriods[Doctor.PERIOD_AM | Doctor.PERIOD_PM]);
+            specialties.add(counts);
+        }
+
+        int both = doctorsByPeriods.get(Doctor.PERIOD_AM | Doctor.PERIOD_PM);
+        Map<String, Object> response = new HashMap<>();
+        response.put("total", doctorsByPeriods.get(0) + doctorsByPeriods.get(Doctor.PERIOD_AM)
+                + doctorsByPeriods.get(Doctor.PERIOD_PM) + both);
+        response.put("am", doctorsByPeriods.get(Doctor.PERIOD_AM) + both);
+        response.put("pm", doctorsByPeriods.get(Doctor.PERIOD_PM) + both);
+        response.put("specialties", specialties);
+        return response;
+    }
+
+// 4. **getStats Method**
+// Counters exposed through the admin metrics endpoint.
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("loaded", loaded);
+        stats.put("doctors", entries.size());
+        stats.put("trigrams", byTrigram.size());
+        stats.put("specialties", bySpecialty.size());
+        stats.put("searches", searches.sum());
+        stats.put("indexedSearches", indexedSearches.sum());
+        stats.put("refreshes", refreshes.sum());
+        return stats;
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (!loaded) {
+                for (DoctorCard doctor : doctorRepository.findAllCards()) {
+                    put(doctor);
+                }
+                loaded = true;
+            }
+        }
+    }
+
+    // Caller holds the monitor. New postings are added before the old ones are removed, so a concurrent
+    // search sees the doctor under the old or the new values, never under neither.
+    private void put(DoctorCard doctor) {
+        Entry entry = new Entry(doctor);
+        Long id = doctor.getId();
+
+        Set<String> grams = trigrams(entry.name);
+        for (String gram : grams) {
+            byTrigram.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+        if (entry.specialty != null) {
+            bySpecialty.computeIfAbsent(entry.specialty, s -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+        Entry previous = entries.put(id, entry);
+        count(entry, 1);
+
+        if (previous != null) {
+            count(previous, -1);
+            for (String gram : trigrams(previous.name)) {
+                if (!grams.contains(gram)) {
+                    unpost(byTrigram, gram, id);
+                }
+            }
+            if (previous.specialty != null && !previous.specialty.equals(entry.specialty)) {
+                unpost(bySpecialty, previous.specialty, id);
+            }
+        }
+    }
+
+    // Caller holds the monitor
+    private void remove(Long id) {
+        Entry previous = entries.remove(id);
+        if (previous == null) {
+            return;
+        }
+        count(previous, -1);
+        for (String gram : trigrams(previous.name)) {
+            unpost(byTrigram, gram, id);
+        }
+        if (previous.specialty != null) {
+            unpost(bySpecialty, previous.specialty, id);
+        }
+    }
+
+    // Caller holds the monitor. Adds `delta` to the facet counts of the entry's specialty and periods.
+    private void count(Entry entry, int delta) {
+        doctorsByPeriods.addAndGet(entry.periods, delta);
+        if (entry.specialty == null) {
+            return;
+        }
+        String label = entry.doctor.getSpecialty();
+        facets.compute(entry.specialty, (key, facet) -> {
+            Facet counted = (facet == null ? new Facet(label, new int[4]) : facet).plus(entry.periods, delta);
+            return counted.doctors() > 0 ? counted : null;
+        });
+    }
+
+    private static void unpost(ConcurrentHashMap<String, Set<Long>> index, String key, Long id) {
+        index.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static Set<String> trigrams(String name) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= name.length(); i++) {
+            grams.add(name.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    private static String lower(String value) {
+        return value == null ? "" : value.toLowerCase(Locale.ROOT);
+    }
+}
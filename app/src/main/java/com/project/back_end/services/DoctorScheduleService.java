@@ -0,0 +1,198 @@
+package com.project.back_end.services;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.project.back_end.DTO.SlotGrid;
+import com.project.back_end.events.DoctorChangedEvent;
+import com.project.back_end.models.DoctorSchedule;
+import com.project.back_end.models.ScheduleBlock;
+import com.project.back_end.repo.DoctorScheduleRepository;
+
+// Weekly schedule templates of the doctors and their compiled form.
+// - A `DoctorSchedule` is compiled once into one `SlotGrid` per weekday plus the set of days off, and cached per doctor.
+// - The cache is only refreshed when a committed `DoctorChangedEvent` reports a schedule change or deletion, so availability and booking validation
+//   resolve a doctor's grid for a date with two map lookups.
+// - Doctors without a schedule use `SlotGrid.DEFAULT` every day, as before schedules existed.
+@Service
+public class DoctorScheduleService {
+
+    private static final SlotGrid NO_SLOTS = new SlotGrid(new int[0], 60);
+    private static final CompiledSchedule DEFAULT_SCHEDULE = new CompiledSchedule(defaultWeek(), new long[0]);
+
+    private final DoctorScheduleRepository scheduleRepository;
+    private final ConcurrentHashMap<Long, CompiledSchedule> compiled = new ConcurrentHashMap<>();
+
+    public DoctorScheduleService(DoctorScheduleRepository scheduleRepository) {
+        this.scheduleRepository = scheduleRepository;
+    }
+
+// 1. **gridFor Method**
+// Returns the slots a doctor offers on a date: the weekday's grid, or an empty grid on a day off.
+    public SlotGrid gridFor(Long doctorId, LocalDate date) {
+        return compiledFor(doctorId).gridFor(date);
+    }
+
+// 2. **getSchedule Method**
+// Returns the stored template of a doctor, if any.
+    @Transactional(readOnly = true)
+    public Optional<DoctorSchedule> getSchedule(Long doctorId) {
+        return scheduleRepository.findByDoctorId(doctorId);
+    }
+
+// 3. **saveSchedule Method**
+// Validates and stores a doctor's template, replacing the previous one.
+// Returns the saved schedule; throws IllegalArgumentException with a readable message when the template is invalid.
+// Callers publish `DoctorChangedEvent.Type.SCHEDULE_CHANGED`, which recompiles it and drops the doctor's indexed availability
+// (see `DoctorService.saveSchedule`).
+    @Transactional
+    public DoctorSchedule saveSchedule(Long doctorId, DoctorSchedule schedule) {
+        // Compiled up front only to reject invalid templates before anything is written
+        compile(schedule);
+
+        DoctorSchedule target = scheduleRepository.findByDoctorId(doctorId).orElseGet(DoctorSchedule::new);
+        target.setDoctorId(doctorId);
+        target.setSlotMinutes(schedule.getSlotMinutes());
+        target.getWorkingHours().clear();
+        target.getWorkingHours().addAll(schedule.getWorkingHours());
+        target.getBreaks().clear();
+        target.getBreaks().addAll(schedule.getBreaks());
+        target.getDaysOff().clear();
+        target.getDaysOff().addAll(schedule.getDaysOff());
+        // The compiled cache is refreshed by `onDoctorChanged` once the caller's change is committed
+        return scheduleRepository.save(target);
+    }
+
+// 4. **deleteSchedule Method**
+// Removes a doctor's template (e.g. when the doctor is deleted); the doctor falls back to the default slots.
+    @Transactional
+    public void deleteSchedule(Long doctorId) {
+        scheduleRepository.findByDoctorId(doctorId).ifPresent(scheduleRepository::delete);
+    }
+
+// **onDoctorChanged Method**
+// Drops the compiled template of a doctor whose schedule changed or who was deleted; it is recompiled on next use.
+// Ordered before `AvailabilityIndex`, which reloads days against the new grid.
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(0)
+    public void onDoctorChanged(DoctorChangedEvent event) {
+        if (event.getType() == DoctorChangedEvent.Type.DELETED || event.getType() == DoctorChangedEvent.Type.SCHEDULE_CHANGED) {
+            compiled.remove(event.getDoctorId());
+        }
+    }
+
+// 5. **getStats Method**
+// Counters exposed through the admin metrics endpoint.
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("compiledSchedules", compiled.size());
+        return stats;
+    }
+
+    private CompiledSchedule compiledFor(Long doctorId) {
+        CompiledSchedule schedule = compiled.get(doctorId);
+        if (schedule != null) {
+            return schedule;
+        }
+        // Doctors without a template are cached too, so they are not looked up again
+        return compiled.computeIfAbsent(doctorId, id -> scheduleRepository.findByDoctorId(id)
+                .map(DoctorScheduleService::compile)
+                .orElse(DEFAULT_SCHEDULE));
+    }
+
+    // Helper method turning a template into one grid per weekday. Equal days share one SlotGrid instance.
+    static CompiledSchedule compile(DoctorSchedule schedule) {
+        int slotMinutes = schedule.getSlotMinutes();
+        if (slotMinutes < 5 || slotMinutes > 240) {
+            throw new IllegalArgumentException("Slot length must be between 5 and 240 minutes");
+        }
+        for (ScheduleBlock block : schedule.getWorkingHours()) {
+            validateBlock(block, "Working hours");
+            if (block.getDayOfWeek() == null) {
+                throw new IllegalArgumentException("Working hours need a day of week");
+            }
+        }
+        for (ScheduleBlock block : schedule.getBreaks()) {
+            validateBlock(block, "Break");
+        }
+
+        SlotGrid[] week = new SlotGrid[7];
+        Map<String, SlotGrid> distinctGrids = new HashMap<>();
+        for (DayOfWeek day : DayOfWeek.values()) {
+            int[] starts = slotStarts(schedule, day, slotMinutes);
+            if (starts.length > SlotGrid.MAX_SLOTS) {
+                throw new IllegalArgumentException("At most " + SlotGrid.MAX_SLOTS + " slots per day (" + day + ")");
+            }
+            week[day.getValue() - 1] = starts.length == 0 ? NO_SLOTS
+                    : distinctGrids.computeIfAbsent(Arrays.toString(starts), key -> new SlotGrid(starts, slotMinutes));
+        }
+
+        long[] daysOff = schedule.getDaysOff().stream().mapToLong(LocalDate::toEpochDay).sorted().toArray();
+        return new CompiledSchedule(week, daysOff);
+    }
+
+    // Helper method listing the slot starts of one weekday: consecutive slots inside each working block,
+    // skipping any slot that overlaps a break of that day
+    private static int[] slotStarts(DoctorSchedule schedule, DayOfWeek day, int slotMinutes) {
+        return schedule.getWorkingHours().stream()
+                .filter(block -> block.getDayOfWeek() == day)
+                .flatMapToInt(block -> {
+                    int start = toMinute(block.getStartTime().getHour(), block.getStartTime().getMinute());
+                    int end = toMinute(block.getEndTime().getHour(), block.getEndTime().getMinute());
+                    return java.util.stream.IntStream.iterate(start, minute -> minute + slotMinutes <= end,
+                            minute -> minute + slotMinutes);
+                })
+                .filter(minute -> schedule.getBreaks().stream()
+                        .filter(pause -> pause.appliesTo(day))
+                        .noneMatch(pause -> minute < toMinute(pause.getEndTime().getHour(), pause.getEndTime().getMinute())
+                                && minute + slotMinutes > toMinute(pause.getStartTime().getHour(), pause.getStartTime().getMinute())))
+                .distinct()
+                .sorted()
+                .toArray();
+    }
+
+    private static void validateBlock(ScheduleBlock block, String what) {
+        if (block.getStartTime() == null || block.getEndTime() == null || !block.getStartTime().isBefore(block.getEndTime())) {
+            throw new IllegalArgumentException(what + " must have a start time before its end time");
+        }
+    }
+
+    private static int toMinute(int hour, int minute) {
+        return hour * 60 + minute;
+    }
+
+    private static SlotGrid[] defaultWeek() {
+        SlotGrid[] week = new SlotGrid[7];
+        Arrays.fill(week, SlotGrid.DEFAULT);
+        return week;
+    }
+
+    // Compiled form of a template: grid per weekday (Monday first) and the sorted epoch days off
+    static final class CompiledSchedule {
+        private final SlotGrid[] week;
+        private final long[] daysOff;
+
+        CompiledSchedule(SlotGrid[] week, long[] daysOff) {
+            this.week = week;
+            this.daysOff = daysOff;
+        }
+
+        SlotGrid gridFor(LocalDate date) {
+            if (daysOff.length > 0 && Arrays.binarySearch(daysOff, date.toEpochDay()) >= 0) {
+                return NO_SLOTS;
+            }
+            return week[date.getDayOfWeek().getValue() - 1];
+        }
+    }
+}
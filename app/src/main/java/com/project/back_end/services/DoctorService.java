@@ -1,10 +1,11 @@
 package com.project.back_end.services;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
@@ -12,16 +13,24 @@ import org.springframework.http.HttpStatus;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Map;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.Set;
 
+import com.project.back_end.config.FulltextFunctions;
+import com.project.back_end.DTO.DoctorCard;
 import com.project.back_end.DTO.Login;
+import com.project.back_end.DTO.SlotGrid;
+import com.project.back_end.DTO.SlotSet;
+import com.project.back_end.events.DoctorChangedEvent;
 import com.project.back_end.models.Appointment;
 import com.project.back_end.models.Doctor;
+import com.project.back_end.models.DoctorSchedule;
 import com.project.back_end.repo.AppointmentRepository;
 import com.project.back_end.repo.DoctorRepository;
 import com.project.back_end.repo.PatientRepository;
@@ -43,14 +52,32 @@ public class DoctorService {
     private final DoctorRepository doctorRepository;
     private final AppointmentRepository appointmentRepository;
     private final TokenService tokenService;
+    private final PasswordHasher passwordHasher;
+    private final AvailabilityIndex availabilityIndex;
+    private final DoctorScheduleService scheduleService;
+    private final SlotHoldService slotHolds;
+    private final ApplicationEventPublisher events;
+    private final DoctorDirectory directory;
 
     // Constructor injection for dependencies
     public DoctorService(DoctorRepository doctorRepository,
                          AppointmentRepository appointmentRepository,
-                         TokenService tokenService) {
+                         TokenService tokenService,
+                         PasswordHasher passwordHasher,
+                         AvailabilityIndex availabilityIndex,
+                         DoctorScheduleService scheduleService,
+                         SlotHoldService slotHolds,
+                         ApplicationEventPublisher events,
+                         DoctorDirectory directory) {
         this.doctorRepository = doctorRepository;
         this.appointmentRepository = appointmentRepository;
         this.tokenService = tokenService;
+        this.passwordHasher = passwordHasher;
+        this.availabilityIndex = availabilityIndex;
+        this.scheduleService = scheduleService;
+        this.slotHolds = slotHolds;
+        this.events = events;
+        this.directory = directory;
     }
 
 
@@ -61,22 +88,20 @@ public class DoctorService {
 
 // 4. **getDoctorAvailability Method**:
 //    - Retrieves the available time slots for a specific doctor on a particular date and filters out already booked slots.
-//    - The method fetches all appointments for the doctor on the given date and calculates the availability by comparing against booked slots.
+//    - The booked slots come from `AvailabilityIndex` (one bitmask per doctor and day, loaded once, then kept up to date
+//      by bookings and cancellations), so repeated calls do not query the appointments.
+//    - Slots another patient is holding in `SlotHoldService` are left out as well.
 //    - Instruction: Ensure that the time slots are properly formatted and the available slots are correctly filtered.
     
     public Map<String, Object> getDoctorAvailability(Long doctorId, LocalDate date) {
         Map<String, Object> response = new HashMap<>();
 
         try {
-            // Fetch all appointments for the doctor on the given date
-            List<Appointment> appointments = appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(
-                doctorId,
-                date.atStartOfDay(),
-                date.plusDays(1).atStartOfDay()
-            );
+            SlotGrid grid = availabilityIndex.gridFor(doctorId, date);
+            long takenMask = availabilityIndex.getBookedMask(doctorId, date) | slotHolds.getHeldMask(doctorId, date, grid);
 
-            // Prepare a list or other structure representing available time slots
-            List<String> availableSlots = calculateAvailableSlots(appointments);
+            // Free slots stay a bitmask; labels are produced only when the response is serialized
+            SlotSet availableSlots = calculateAvailableSlots(grid, takenMask);
 
             response.put("availableSlots", availableSlots);
             response.put("status", "success");
@@ -88,17 +113,108 @@ public class DoctorService {
         return response;
     }
 
-    // Helper method to calculate available time slots based on existing appointments
-    private List<String> calculateAvailableSlots(List<Appointment> appointments) {
-        // Example logic: define all possible slots and remove those booked
-        List<String> allSlots = Arrays.asList("09:00 AM", "10:00 AM", "11:00 AM", "01:00 PM", "02:00 PM", "03:00 PM");
-        Set<String> bookedSlots = appointments.stream()
-            .map(appointment -> appointment.getAppointmentTime().toLocalTime().toString()) // adjust format as needed
-            .collect(Collectors.toSet());
-
-        return allSlots.stream()
-            .filter(slot -> !bookedSlots.contains(slot))
-            .collect(Collectors.toList());
+    // Helper method computing the free slots as the complement of the booked mask within the doctor's grid for the day
+    private SlotSet calculateAvailableSlots(SlotGrid grid, long bookedMask) {
+        return new SlotSet(grid, ~bookedMask & grid.allSlots());
+    }
+
+// **getBatchAvailability Method**:
+//    - Availability of several doctors over a date range, for browsing a specialty without one request per doctor and day.
+//    - Days that are not indexed yet are loaded with a single grouped query by `AvailabilityIndex`.
+//    - The response stays compact for large grids: each distinct slot grid (schedule) is listed once under "grids", and each
+//      doctor gets per day the index of its grid and one integer whose bit i is set when slot i of that grid is free.
+    public Map<String, Object> getBatchAvailability(List<Long> doctorIds, LocalDate from, LocalDate to) {
+        Map<String, Object> response = new HashMap<>();
+
+        long[][] bookedMasks = availabilityIndex.getBookedMasks(doctorIds, from, to);
+        Map<SlotGrid, Integer> gridIndexes = new IdentityHashMap<>();
+        List<SlotSet> grids = new ArrayList<>();
+
+        List<Map<String, Object>> doctors = new ArrayList<>(doctorIds.size());
+        for (int d = 0; d < doctorIds.size(); d++) {
+            int days = bookedMasks[d].length;
+            int[] gridIds = new int[days];
+            long[] freeMasks = new long[days];
+            for (int i = 0; i < days; i++) {
+                SlotGrid grid = availabilityIndex.gridFor(doctorIds.get(d), from.plusDays(i));
+                gridIds[i] = gridIndexes.computeIfAbsent(grid, g -> {
+                    grids.add(new SlotSet(g, g.allSlots()));
+                    return grids.size() - 1;
+                });
+                long heldMask = slotHolds.getHeldMask(doctorIds.get(d), from.plusDays(i), grid);
+                freeMasks[i] = ~(bookedMasks[d][i] | heldMask) & grid.allSlots();
+            }
+            Map<String, Object> doctor = new HashMap<>();
+            doctor.put("id", doctorIds.get(d));
+            doctor.put("grid", gridIds);
+            doctor.put("free", freeMasks);
+            doctors.add(doctor);
+        }
+
+        response.put("from", from);
+        response.put("to", to);
+        response.put("grids", grids);
+        response.put("doctors", doctors);
+        return response;
+    }
+
+// **getSchedule / saveSchedule Methods**:
+//    - Read and replace a doctor's weekly template (working hours, slot length, breaks, days off).
+//    - Saving publishes `DoctorChangedEvent` (SCHEDULE_CHANGED): listeners recompile the template and drop the doctor's indexed
+//      availability, whose slot indexes refer to the old grid.
+//    - `saveSchedule` returns `-1` when the doctor does not exist and `1` on success; invalid templates raise IllegalArgumentException.
+    public Optional<DoctorSchedule> getSchedule(Long doctorId) {
+        return scheduleService.getSchedule(doctorId);
+    }
+
+    public int saveSchedule(Long doctorId, DoctorSchedule schedule) {
+        if (!doctorRepository.existsById(doctorId)) {
+            return -1;
+        }
+        scheduleService.saveSchedule(doctorId, schedule);
+        events.publishEvent(new DoctorChangedEvent(DoctorChangedEvent.Type.SCHEDULE_CHANGED, doctorId));
+        return 1;
+    }
+
+// **findEarliestSlots Method**:
+//    - Returns the first `limit` free slots across all doctors of a specialty between `from` and `to` (inclusive),
+//      optionally only morning ("AM") or afternoon ("PM") slots, in chronological order.
+//    - Each doctor contributes a cursor over its free slots in time order; a priority queue merges the cursors
+//      (k-way merge), so only as many days are read as needed to find `limit` slots.
+//    - The first day of all doctors is loaded with one grouped query; later days are read from `AvailabilityIndex` on demand.
+    public Map<String, Object> findEarliestSlots(String specialty, String amOrPm, LocalDate from, LocalDate to, int limit) {
+        Map<String, Object> response = new HashMap<>();
+        List<DoctorCard> doctors = directory.search(null, specialty, null);
+        List<Map<String, Object>> slots = new ArrayList<>(limit);
+
+        if (!doctors.isEmpty()) {
+            List<Long> doctorIds = doctors.stream().map(DoctorCard::getId).toList();
+            long[][] firstDay = availabilityIndex.getBookedMasks(doctorIds, from, from);
+            LocalDateTime now = LocalDateTime.now();
+
+            PriorityQueue<FreeSlotCursor> queue = new PriorityQueue<>();
+            for (int d = 0; d < doctors.size(); d++) {
+                FreeSlotCursor cursor = new FreeSlotCursor(doctors.get(d), from, to, amOrPm, now, firstDay[d][0]);
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+
+            while (slots.size() < limit && !queue.isEmpty()) {
+                FreeSlotCursor cursor = queue.poll();
+                Map<String, Object> slot = new HashMap<>();
+                slot.put("doctorId", cursor.doctor.getId());
+                slot.put("doctorName", cursor.doctor.getName());
+                slot.put("time", cursor.current());
+                slots.add(slot);
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+        }
+
+        response.put("slots", slots);
+        return response;
     }
 
 
@@ -150,7 +266,9 @@ public class DoctorService {
             if (doctorRepository.findByEmail(doctor.getEmail()) != null) {
                 return -1; // Doctor already exists
             }
-            doctorRepository.save(doctor);
+            doctor.setPassword(passwordHasher.hash(doctor.getPassword()));
+            Doctor saved = doctorRepository.save(doctor);
+            events.publishEvent(new DoctorChangedEvent(DoctorChangedEvent.Type.CREATED, saved.getId()));
             return 1; // Success
         } catch (Exception e) {
             // Log exception if needed
@@ -165,10 +283,18 @@ public class DoctorService {
     public int updateDoctor(Doctor doctor) {
         try {
             // Check if doctor exists by ID
-            if (!doctorRepository.existsById(doctor.getId())) {
+            Optional<Doctor> existingOpt = doctorRepository.findById(doctor.getId());
+            if (!existingOpt.isPresent()) {
                 return -1; // Doctor not found
             }
+            String previousEmail = existingOpt.get().getEmail();
+            doctor.setPassword(passwordHasher.hash(doctor.getPassword()));
             doctorRepository.save(doctor);
+
+            // Tokens issued for the previous email no longer describe this doctor; revoked by TokenService after commit
+            boolean emailChanged = previousEmail != null && !previousEmail.equalsIgnoreCase(doctor.getEmail());
+            events.publishEvent(new DoctorChangedEvent(DoctorChangedEvent.Type.UPDATED, doctor.getId(),
+                    emailChanged ? previousEmail : null));
             return 1; // Success
         } catch (Exception e) {
             // Log exception if needed
@@ -179,10 +305,51 @@ public class DoctorService {
 // 7. **getDoctors Method**:
 //    - Fetches all doctors from the database. It is marked with `@Transactional` to ensure that the collection is properly loaded.
 //    - Instruction: Ensure that the collection is eagerly loaded, especially if dealing with lazy-loaded relationships (e.g., available times). 
+//    - Listings return `DoctorCard` projections: only the card columns are read and no entities are managed.
     // Method to retrieve all doctors
-    @Transactional
-    public List<Doctor> getDoctors() {
-        return doctorRepository.findAll();
+    @Transactional(readOnly = true)
+    public List<DoctorCard> getDoctors() {
+        return doctorRepository.findAllCards();
+    }
+
+// **getDoctorsPage / findDoctorsAfter Methods**:
+//    - Keyset pagination over the doctor table, so a listing never materializes the whole table: a page holds at most
+//      `limit` doctors with an id greater than `after`, in id order.
+//    - The response carries "nextCursor", the `after` of the next page, or null after the last page.
+//    - `findDoctorsAfter` also applies the optional name, specialty and AM/PM filters in the query; it backs the
+//      streamed listings, which read the table page by page. A name the FULLTEXT index cannot find (no word of two
+//      characters or more) is paged from `DoctorDirectory` instead, which matches any substring.
+    public Map<String, Object> getDoctorsPage(long after, int limit) {
+        return page(findDoctorsAfter(after, null, null, null, limit), limit);
+    }
+
+    public List<DoctorCard> findDoctorsAfter(long after, String name, String specialty, String amOrPm, int limit) {
+        List<Integer> periods = Doctor.periodValuesMatching(amOrPm);
+        if (periods.isEmpty()) {
+            return List.of();
+        }
+        if (name == null) {
+            return doctorRepository.findPageAfter(after, specialty, periods, Limit.of(limit));
+        }
+        String nameQuery = FulltextFunctions.booleanQuery(name);
+        if (nameQuery == null) {
+            return directory.search(name, specialty, amOrPm, after, limit);
+        }
+        return doctorRepository.findPageAfterByName(after, nameQuery, name, specialty, periods, Limit.of(limit));
+    }
+
+    private static Map<String, Object> page(List<DoctorCard> doctors, int limit) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("doctors", doctors);
+        response.put("nextCursor", doctors.size() == limit ? doctors.get(doctors.size() - 1).getId() : null);
+        return response;
+    }
+
+// **getFacets Method**:
+//    - Doctor counts per specialty and per AM/PM availability, for the filter dropdowns and the admin summary tiles.
+//    - Served from the counts `DoctorDirectory` keeps up to date on doctor writes, without reading the doctor table.
+    public Map<String, Object> getFacets() {
+        return directory.getFacets();
     }
  
 // 8. **deleteDoctor Method**:
@@ -204,6 +371,12 @@ public class DoctorService {
             // Delete the doctor
             doctorRepository.deleteById(id);
 
+            scheduleService.deleteSchedule(id);
+
+            // Once this transaction commits, cached schedule and availability of the doctor are dropped, and its
+            // tokens are revoked (they are validated without the database); a rollback leaves both untouched
+            events.publishEvent(new DoctorChangedEvent(DoctorChangedEvent.Type.DELETED, id, doctorOpt.get().getEmail()));
+
             return 1; // Success
         } catch (Exception e) {
             // Log exception if needed
@@ -245,29 +418,30 @@ export async function deleteDoctor(doctorId, token) {
 // 9. **validateDoctor Method**:
 //    - Validates a doctor's login by checking if the email and password match an existing doctor record.
 //    - It generates a token for the doctor if the login is successful, otherwise returns an error message.
+//    - Passwords are checked against the stored BCrypt hash; legacy plaintext rows are re-hashed on success.
+//    - Called on `LoginExecutor` by `DoctorController.doctorLogin`, since the hash check is CPU-heavy.
 //    - Instruction: Make sure to handle invalid login attempts and password mismatches properly with error responses.
 // Method to validate doctor login credentials
     public ResponseEntity<Map<String, String>> validateDoctor(Login login) {
         Map<String, String> response = new HashMap<>();
-        
-        System.out.println("testLM XXXXXXX entered in validateDoctor inside DoctorService.java");
-        System.out.println("testLM XXXXXXX login: " + login);
-        System.out.println("testLM XXXXXXX response: " + response);
-        System.out.println("testLM XXXXXXX Login email: " + login.getEmail());
+
         Doctor doctor = doctorRepository.findByEmail(login.getEmail());
         if (doctor == null) {
             response.put("message", "Doctor not found");
             return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
         }
 
-        // Assuming passwords are stored hashed; replace with your password check logic
-        if (!doctor.getPassword().equals(login.getPassword())) {
+        if (!passwordHasher.matches(login.getPassword(), doctor.getPassword())) {
             response.put("message", "Invalid password");
             return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED);
         }
+        if (passwordHasher.needsUpgrade(doctor.getPassword())) {
+            doctor.setPassword(passwordHasher.hash(login.getPassword()));
+            doctorRepository.save(doctor);
+        }
 
         // Generate token if valid
-        String token = tokenService.generateToken(doctor.getEmail());
+        String token = tokenService.generateToken(doctor.getEmail(), "doctor", doctor.getId());
 
         response.put("token", token);
         return new ResponseEntity<>(response, HttpStatus.OK);
@@ -277,11 +451,13 @@ export async function deleteDoctor(doctorId, token) {
 //    - Finds doctors based on partial name matching and returns the list of doctors with their available times.
 //    - This method is annotated with `@Transactional` to ensure that the database query and data retrieval are properly managed within a transaction.
 //    - Instruction: Ensure that available times are eagerly loaded for the doctors.
+//    - This and the other filter methods below are served by `DoctorDirectory` (trigram name index, specialty index and
+//      AM/PM mask), which holds the doctors with their available times already loaded; the database is not queried.
     // Method to find doctors by partial name match
     public Map<String, Object> findDoctorByName(String name) {
         Map<String, Object> response = new HashMap<>();
 
-        List<Doctor> doctors = doctorRepository.findByNameLike(name);
+        List<DoctorCard> doctors = directory.search(name, null, null);
         response.put("doctors", doctors);
 
         return response;
@@ -295,36 +471,28 @@ export async function deleteDoctor(doctorId, token) {
     public Map<String, Object> filterDoctorsByNameSpecialtyAndTime(String name, String specialty, String amOrPm) {
         Map<String, Object> response = new HashMap<>();
 
-        // Step 1: Filter by name and specialty (case-insensitive)
-        List<Doctor> filteredDoctors = doctorRepository
-                .findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(name, specialty);
-
-        // Step 2: Further filter doctors by availability (AM or PM)
-        List<Doctor> availableDoctors = filteredDoctors.stream()
-                .filter(doc -> isAvailableAtTime(doc, amOrPm))
-                .collect(Collectors.toList());
+        // Name (case-insensitive substring), specialty (case-insensitive) and availability (AM or PM) in one lookup
+        List<DoctorCard> availableDoctors = directory.search(name, specialty, amOrPm);
 
         response.put("doctors", availableDoctors);
         return response;
     }
+
+    // Keyset-paged variant: at most `limit` doctors with an id greater than `after`, plus "nextCursor"
+    public Map<String, Object> filterDoctorsByNameSpecialtyAndTime(String name, String specialty, String amOrPm,
+                                                                   long after, int limit) {
+        return page(directory.search(name, specialty, amOrPm, after, limit), limit);
+    }
 // 12. **filterDoctorByTime Method**:
 //    - Filters a list of doctors based on whether their available times match the specified time period (AM/PM).
 //    - This method processes a list of doctors and their available times to return those that fit the time criteria.
 //    - Instruction: Ensure that the time filtering logic correctly handles both AM and PM time slots and edge cases.
     // Filters doctors by their available times matching AM or PM
-    private List<Doctor> filterDoctorByTime(List<Doctor> doctors, String amOrPm) {
-        if (amOrPm == null || (!amOrPm.equalsIgnoreCase("AM") && !amOrPm.equalsIgnoreCase("PM"))) {
-            // If invalid time period specified, return empty list or original list as per requirements
-            return List.of(); // returning empty list here
+    private List<DoctorCard> filterDoctorByTime(String amOrPm) {
+        if (amOrPm == null) {
+            return List.of();
         }
-
-        String timePeriod = amOrPm.toUpperCase();
-
-        return doctors.stream()
-                .filter(doctor -> doctor.getAvailableTimes() != null &&
-                        doctor.getAvailableTimes().stream()
-                                .anyMatch(time -> time.equalsIgnoreCase(timePeriod)))
-                .collect(Collectors.toList());
+        return directory.search(null, null, amOrPm);   // empty for anything but AM or PM
     }
 
 // 13. **filterDoctorByNameAndTime Method**:
@@ -335,28 +503,13 @@ export async function deleteDoctor(doctorId, token) {
     public Map<String, Object> filterDoctorByNameAndTime(String name, String amOrPm) {
         Map<String, Object> response = new HashMap<>();
 
-        // Step 1: Filter by name (case-insensitive)
-        List<Doctor> filteredDoctors = doctorRepository.findByNameContainingIgnoreCase(name);
-
-        // Step 2: Further filter doctors by availability (AM or PM)
-        List<Doctor> availableDoctors = filteredDoctors.stream()
-                .filter(doc -> isAvailableAtTime(doc, amOrPm))
-                .collect(Collectors.toList());
+        // Name (case-insensitive substring) and availability (AM or PM) in one lookup
+        List<DoctorCard> availableDoctors = directory.search(name, null, amOrPm);
 
         response.put("doctors", availableDoctors);
         return response;
     }
 
-    // Helper method to check if doctor is available during AM or PM
-    private boolean isAvailableAtTime(Doctor doctor, String amOrPm) {
-        // Assuming Doctor has a method or field that indicates availability time slots
-        // Example: doctor.getAvailableTimes() returns List<String> like ["AM", "PM"]
-        if (doctor.getAvailableTimes() == null) {
-            return false;
-        }
-        return doctor.getAvailableTimes().stream()
-                .anyMatch(time -> time.equalsIgnoreCase(amOrPm));
-    }
 // 14. **filterDoctorByNameAndSpecialty Method**:
 //    - Filters doctors by name and specialty.
 //    - It ensures that the resulting list of doctors matches both the name (case-insensitive) and the specified specialty.
@@ -365,7 +518,7 @@ export async function deleteDoctor(doctorId, token) {
     public Map<String, Object> filterDoctorByNameAndSpecialty(String name, String specialty) {
         Map<String, Object> response = new HashMap<>();
 
-        List<Doctor> doctors = doctorRepository.findByNameContainingIgnoreCaseAndSpecialtyIgnoreCase(name, specialty);
+        List<DoctorCard> doctors = directory.search(name, specialty, null);
 
         response.put("doctors", doctors);
         return response;
@@ -380,11 +533,8 @@ export async function deleteDoctor(doctorId, token) {
     public Map<String, Object> filterDoctorByTimeAndSpecialty(String specialty, String amOrPm) {
         Map<String, Object> response = new HashMap<>();
 
-        // Step 1: Filter by specialty (case-insensitive)
-        List<Doctor> doctorsBySpecialty = doctorRepository.findBySpecialtyIgnoreCase(specialty);
-
-        // Step 2: Filter the doctors by availability time (AM/PM)
-        List<Doctor> filteredDoctors = filterDoctorByTime(doctorsBySpecialty, amOrPm);
+        // Specialty (case-insensitive) and availability (AM or PM) in one lookup
+        List<DoctorCard> filteredDoctors = amOrPm == null ? List.of() : directory.search(null, specialty, amOrPm);
 
         response.put("doctors", filteredDoctors);
         return response;
@@ -415,7 +565,7 @@ export async function deleteDoctor(doctorId, token) {
     public Map<String, Object> filterDoctorBySpecialty(String specialty) {
         Map<String, Object> response = new HashMap<>();
 
-        List<Doctor> doctors = doctorRepository.findBySpecialtyIgnoreCase(specialty);
+        List<DoctorCard> doctors = directory.search(null, specialty, null);
 
         response.put("doctors", doctors);
         return response;
@@ -429,16 +579,90 @@ export async function deleteDoctor(doctorId, token) {
     public Map<String, Object> filterDoctorsByTime(String amOrPm) {
         Map<String, Object> response = new HashMap<>();
 
-        // Fetch all doctors
-        List<Doctor> allDoctors = doctorRepository.findAll();
-
         // Filter doctors by available time (AM/PM)
-        List<Doctor> filteredDoctors = filterDoctorByTime(allDoctors, amOrPm);
+        List<DoctorCard> filteredDoctors = filterDoctorByTime(amOrPm);
 
         response.put("doctors", filteredDoctors);
         return response;
     }
 
+    // Iterator over one doctor's free slots in time order, used by `findEarliestSlots`.
+    // Ordered by the slot it currently points at, so a PriorityQueue of cursors yields slots chronologically.
+    private final class FreeSlotCursor implements Comparable<FreeSlotCursor> {
+        private final DoctorCard doctor;
+        private final LocalDate to;
+        private final String amOrPm;
+        private final LocalDateTime now;
+
+        private LocalDate day;
+        private SlotGrid grid;
+        private long remaining;      // free slots of `day` not returned yet
+        private long currentKey;     // epoch minute of the current slot, for ordering
+        private LocalDateTime current;
+
+        FreeSlotCursor(DoctorCard doctor, LocalDate from, LocalDate to, String amOrPm, LocalDateTime now, long firstDayBooked) {
+            this.doctor = doctor;
+            this.to = to;
+            this.amOrPm = amOrPm;
+            this.now = now;
+            this.day = from;
+            loadDay(firstDayBooked);
+        }
+
+        // Moves to the next free slot; false when the window is exhausted
+        boolean advance() {
+            while (true) {
+                while (remaining != 0) {
+                    int slot = Long.numberOfTrailingZeros(remaining);
+                    remaining &= remaining - 1;
+                    int minute = grid.startMinute(slot);
+                    LocalDateTime time = day.atStartOfDay().plusMinutes(minute);
+                    if (time.isAfter(now)) {
+                        current = time;
+                        currentKey = day.toEpochDay() * 1440 + minute;
+                        return true;
+                    }
+                }
+                if (!day.isBefore(to)) {
+                    return false;
+                }
+                day = day.plusDays(1);
+                loadDay(availabilityIndex.getBookedMask(doctor.getId(), day));
+            }
+        }
+
+        LocalDateTime current() {
+            return current;
+        }
+
+        private void loadDay(long bookedMask) {
+            grid = availabilityIndex.gridFor(doctor.getId(), day);
+            long heldMask = slotHolds.getHeldMask(doctor.getId(), day, grid);
+            remaining = ~(bookedMask | heldMask) & grid.allSlots() & periodMask(grid, amOrPm);
+        }
+
+        @Override
+        public int compareTo(FreeSlotCursor other) {
+            int byTime = Long.compare(currentKey, other.currentKey);
+            return byTime != 0 ? byTime : Long.compare(doctor.getId(), other.doctor.getId());
+        }
+    }
+
+    // Helper method selecting the morning (before noon) or afternoon slots of a grid; all slots for any other value
+    private static long periodMask(SlotGrid grid, String amOrPm) {
+        boolean morning = "AM".equalsIgnoreCase(amOrPm);
+        if (!morning && !"PM".equalsIgnoreCase(amOrPm)) {
+            return grid.allSlots();
+        }
+        long mask = 0L;
+        for (int i = 0; i < grid.size(); i++) {
+            if ((grid.startMinute(i) < 12 * 60) == morning) {
+                mask |= 1L << i;
+            }
+        }
+        return mask;
+    }
+
     /* LM: commenting out because the method is already defined above
     // Private helper method to filter a list of doctors by their available times (AM/PM)
     private List<Doctor> filterDoctorByTime(List<Doctor> doctors, String amOrPm) {
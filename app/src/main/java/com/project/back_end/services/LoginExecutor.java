@@ -0,0 +1,89 @@
+package com.project.back_end.services;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+// Bounded pool that runs the login endpoints (repository lookup + BCrypt check + token signing).
+// - Controllers return the `CompletableFuture`, so the Tomcat thread is released while the password is hashed
+//   and a burst of logins cannot take the threads that serve bookings and dashboards.
+// - The queue is bounded; when it is full the login is rejected immediately with 503 and `Retry-After`
+//   instead of piling up behind the hashing work.
+@Component
+public class LoginExecutor {
+
+    private final ThreadPoolExecutor executor;
+    private final long retryAfterSeconds;
+    private final LongAdder rejected = new LongAdder();
+
+    public LoginExecutor(@Value("${login.executor.threads:0}") int threads,
+                         @Value("${login.executor.queue-capacity:100}") int queueCapacity,
+                         @Value("${login.executor.retry-after-seconds:2}") long retryAfterSeconds) {
+        // BCrypt is CPU-bound: by default one thread per core
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "login-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+// 1. **submit Method**
+// Runs a login on the pool. Returns an already completed 503 response when the pool is saturated,
+// and a 500 response when the login itself fails unexpectedly.
+    public CompletableFuture<ResponseEntity<Map<String, String>>> submit(Supplier<ResponseEntity<Map<String, String>>> login) {
+        try {
+            return CompletableFuture.supplyAsync(login, executor)
+                    .exceptionally(e -> {
+                        Map<String, String> response = new HashMap<>();
+                        response.put("message", "Internal server error");
+                        return new ResponseEntity<>(response, HttpStatus.INTERNAL_SERVER_ERROR);
+                    });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            Map<String, String> response = new HashMap<>();
+            response.put("message", "Too many login attempts in progress, please retry shortly");
+            return CompletableFuture.completedFuture(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                    .body(response));
+        }
+    }
+
+// 2. **getStats Method**
+// Pool counters exposed through the admin metrics endpoint.
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("poolSize", executor.getPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("queueCapacity", executor.getQueue().size() + executor.getQueue().remainingCapacity());
+        stats.put("completed", executor.getCompletedTaskCount());
+        stats.put("rejected", rejected.sum());
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
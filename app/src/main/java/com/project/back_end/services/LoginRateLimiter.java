@@ -0,0 +1,177 @@
+package com.project.back_end.services;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+// In-process throttling for the login endpoints, checked before any repository lookup or password hashing.
+// - Every client IP and every (role, identifier) pair gets a token bucket; an attempt needs a token from both.
+// - Buckets are lock-free: each is a single `AtomicLong` holding the bucket's "theoretical arrival time"
+//   (GCRA, equivalent to a token bucket), updated with compare-and-set.
+// - Memory is bounded: a bucket whose time is in the past is full again and can be dropped without changing
+//   behaviour, so idle buckets are swept periodically. IP and identifier buckets live in separate maps of at most
+//   `maxBuckets` each, so flooding one cannot crowd out the other. When a map is still full:
+//   - a new identifier gets no bucket, and only its IP's limit applies (flooding random identifiers cannot lock
+//     other users out);
+//   - a new IP shares one of OVERFLOW_STRIPES overflow buckets, picked by hash, so a flood of addresses only
+//     slows the few new IPs that land on the same stripe.
+@Component
+public class LoginRateLimiter {
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(30);
+    private static final int OVERFLOW_STRIPES = 256;
+
+    // Times are nanoseconds since `origin`, so they start at 0 and compare without overflow
+    private final long origin = System.nanoTime();
+    private final ConcurrentHashMap<String, AtomicLong> ipBuckets = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, AtomicLong> identifierBuckets = new ConcurrentHashMap<>();
+    private final AtomicLong[] ipOverflowBuckets = new AtomicLong[OVERFLOW_STRIPES];
+    private final int maxBuckets;   // per map
+
+    private final Limit identifierLimit;
+    private final Limit ipLimit;
+
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+    private volatile long nextSweep = SWEEP_INTERVAL_NANOS;
+
+    private final LongAdder rejectedByIdentifier = new LongAdder();
+    private final LongAdder rejectedByIp = new LongAdder();
+    private final LongAdder overflowUses = new LongAdder();
+
+    public LoginRateLimiter(@Value("${login.rate.identifier.burst:5}") int identifierBurst,
+                            @Value("${login.rate.identifier.per-minute:5}") int identifierPerMinute,
+                            @Value("${login.rate.ip.burst:20}") int ipBurst,
+                            @Value("${login.rate.ip.per-minute:60}") int ipPerMinute,
+                            @Value("${login.rate.max-buckets:100000}") int maxBuckets) {
+        this.identifierLimit = new Limit(identifierBurst, identifierPerMinute);
+        this.ipLimit = new Limit(ipBurst, ipPerMinute);
+        this.maxBuckets = maxBuckets;
+        for (int i = 0; i < OVERFLOW_STRIPES; i++) {
+            ipOverflowBuckets[i] = new AtomicLong();
+        }
+    }
+
+// 1. **check Method**
+// Takes one attempt from the caller's IP bucket and from the identifier's bucket.
+// Returns null when the attempt may proceed, otherwise a 429 response with `Retry-After`
+// (same convention as `Service.validateToken`).
+    public ResponseEntity<Map<String, String>> check(String role, String identifier, String clientIp) {
+        long now = System.nanoTime() - origin;
+        sweepIfDue(now);
+
+        String ip = String.valueOf(clientIp);
+        AtomicLong ipBucket = bucketFor(ipBuckets, ip);
+        if (ipBucket == null) {
+            overflowUses.increment();
+            ipBucket = ipOverflowBuckets[Math.floorMod(ip.hashCode(), OVERFLOW_STRIPES)];
+        }
+        long waitNanos = tryAcquire(ipBucket, ipLimit, now);
+        if (waitNanos > 0) {
+            rejectedByIp.increment();
+            return tooManyAttempts(waitNanos);
+        }
+
+        String normalized = identifier == null ? "" : identifier.trim().toLowerCase();
+        AtomicLong identifierBucket = bucketFor(identifierBuckets, role + ":" + normalized);
+        if (identifierBucket == null) {
+            // Identifier map full: the IP limit alone governs this attempt
+            overflowUses.increment();
+            return null;
+        }
+        waitNanos = tryAcquire(identifierBucket, identifierLimit, now);
+        if (waitNanos > 0) {
+            rejectedByIdentifier.increment();
+            return tooManyAttempts(waitNanos);
+        }
+        return null;
+    }
+
+// 2. **getStats Method**
+// Rejection counters exposed through the admin metrics endpoint.
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("ipBuckets", ipBuckets.size());
+        stats.put("identifierBuckets", identifierBuckets.size());
+        stats.put("maxBuckets", maxBuckets);
+        stats.put("rejectedByIdentifier", rejectedByIdentifier.sum());
+        stats.put("rejectedByIp", rejectedByIp.sum());
+        stats.put("overflowUses", overflowUses.sum());
+        return stats;
+    }
+
+    // Helper method implementing GCRA on one bucket. Returns 0 when a token was taken,
+    // otherwise the nanoseconds until the next token is available.
+    private long tryAcquire(AtomicLong bucket, Limit limit, long now) {
+        while (true) {
+            long tat = bucket.get();
+            long base = Math.max(tat, now);
+            long next = base + limit.intervalNanos;
+            // More than `burst` tokens' worth of time booked ahead means the bucket is empty
+            if (next - now > limit.burstNanos) {
+                return next - now - limit.burstNanos;
+            }
+            if (bucket.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // Bucket of `key`, or null when the map is full and the key has none
+    private AtomicLong bucketFor(ConcurrentHashMap<String, AtomicLong> buckets, String key) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxBuckets) {
+            return null;
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong());
+    }
+
+    // Helper method to drop buckets that have refilled completely; only one thread sweeps at a time
+    private void sweepIfDue(long now) {
+        if (now < nextSweep) {
+            return;
+        }
+        if (!sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            nextSweep = now + SWEEP_INTERVAL_NANOS;
+            ipBuckets.values().removeIf(bucket -> bucket.get() <= now);
+            identifierBuckets.values().removeIf(bucket -> bucket.get() <= now);
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    private static ResponseEntity<Map<String, String>> tooManyAttempts(long waitNanos) {
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Too many login attempts, please retry later");
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos) + 1);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(response);
+    }
+
+    // Refill interval and burst size of one kind of bucket, in nanoseconds
+    private static final class Limit {
+        private final long intervalNanos;
+        private final long burstNanos;
+
+        Limit(int burst, int perMinute) {
+            this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, perMinute);
+            this.burstNanos = intervalNanos * Math.max(1, burst);
+        }
+    }
+}
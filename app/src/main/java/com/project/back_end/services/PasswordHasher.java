@@ -0,0 +1,58 @@
+package com.project.back_end.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+// BCrypt password hashing for admins, doctors and patients.
+// - New and updated passwords are stored as BCrypt hashes.
+// - Rows created before hashing was introduced still hold plaintext; they are accepted once and
+//   re-hashed by the login that matched them (see `needsUpgrade`).
+// Hashing is deliberately CPU-heavy, so logins run on `LoginExecutor` rather than on Tomcat threads.
+@Component
+public class PasswordHasher {
+
+    private final BCryptPasswordEncoder encoder;
+
+    public PasswordHasher(@Value("${login.bcrypt.strength:10}") int strength) {
+        this.encoder = new BCryptPasswordEncoder(strength);
+    }
+
+// 1. **hash Method**
+// Returns the BCrypt hash of a raw password. Values that are already hashed are returned unchanged,
+// so entities can be saved again without double hashing.
+    public String hash(String rawPassword) {
+        if (rawPassword == null || isHashed(rawPassword)) {
+            return rawPassword;
+        }
+        return encoder.encode(rawPassword);
+    }
+
+// 2. **matches Method**
+// Checks a login attempt against the stored value, hashed or legacy plaintext.
+    public boolean matches(String rawPassword, String storedPassword) {
+        if (rawPassword == null || storedPassword == null) {
+            return false;
+        }
+        if (isHashed(storedPassword)) {
+            return encoder.matches(rawPassword, storedPassword);
+        }
+        // Legacy plaintext row; constant-time comparison
+        return MessageDigest.isEqual(rawPassword.getBytes(StandardCharsets.UTF_8),
+                storedPassword.getBytes(StandardCharsets.UTF_8));
+    }
+
+// 3. **needsUpgrade Method**
+// True when the stored value is still plaintext and should be replaced by `hash` after a successful login.
+    public boolean needsUpgrade(String storedPassword) {
+        return storedPassword != null && !isHashed(storedPassword);
+    }
+
+    private static boolean isHashed(String value) {
+        // "$2a$10$" + 53 characters of salt and hash
+        return value.length() == 60 && value.startsWith("$2") && value.charAt(3) == '$';
+    }
+}
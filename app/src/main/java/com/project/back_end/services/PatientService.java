@@ -1,5 +1,6 @@
 package com.project.back_end.services;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
@@ -20,8 +21,11 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.List;
 
+import com.project.back_end.config.FulltextFunctions;
 import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.DTO.AuthPrincipal;
 import com.project.back_end.DTO.Login;
+import com.project.back_end.events.PatientChangedEvent;
 import com.project.back_end.models.Appointment;
 import com.project.back_end.models.Doctor;
 import com.project.back_end.models.Patient;
@@ -46,23 +50,33 @@ public class PatientService {
     private final PatientRepository patientRepository;
     private final AppointmentRepository appointmentRepository;
     private final TokenService tokenService;
+    private final PasswordHasher passwordHasher;
+    private final ApplicationEventPublisher events;
 
     // Constructor injection for dependencies
     public PatientService(PatientRepository patientRepository,
                           AppointmentRepository appointmentRepository,
-                          TokenService tokenService) {
+                          TokenService tokenService,
+                          PasswordHasher passwordHasher,
+                          ApplicationEventPublisher events) {
         this.patientRepository = patientRepository;
         this.appointmentRepository = appointmentRepository;
         this.tokenService = tokenService;
+        this.passwordHasher = passwordHasher;
+        this.events = events;
     }
 
 // 3. **createPatient Method**:
 //    - Creates a new patient in the database. It saves the patient object using the `PatientRepository`.
 //    - If the patient is successfully saved, the method returns `1`; otherwise, it logs the error and returns `0`.
 //    - Instruction: Ensure that error handling is done properly and exceptions are caught and logged appropriately.
+//    - Publishes `PatientChangedEvent` (CREATED), which adds the patient to the name typeahead.
     public int createPatient(Patient patient) {
         try {
-            patientRepository.save(patient);
+            // Passwords are stored as BCrypt hashes
+            patient.setPassword(passwordHasher.hash(patient.getPassword()));
+            Patient saved = patientRepository.save(patient);
+            events.publishEvent(new PatientChangedEvent(PatientChangedEvent.Type.CREATED, saved.getId()));
             return 1;  // Success
         } catch (Exception e) {
             // Optionally log the exception here
@@ -76,10 +90,10 @@ public class PatientService {
 //    - This method is marked as `@Transactional` to ensure database consistency during the transaction.
 //    - Instruction: Ensure that appointment data is properly converted into DTOs and the method handles errors gracefully.
     @Transactional
-    public List<AppointmentDTO> getPatientAppointment(Long patientId, String token) {
-        // Validate token (assuming you have a token validation method)
-        if (!tokenService.validateToken(token, "patient")) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid token");
+    public List<AppointmentDTO> getPatientAppointment(Long patientId, AuthPrincipal principal) {
+        // The token was validated once by AuthInterceptor; a patient may only read their own appointments
+        if (principal.hasRole("patient") && !principal.getId().equals(patientId)) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN, "Appointments belong to another patient");
         }
 
         // Fetch appointments from repository
@@ -176,8 +190,12 @@ public class PatientService {
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
-    // Fetch appointments matching doctor name and patient ID
-    List<Appointment> appointments = appointmentRepository.filterByDoctorNameAndPatientId(doctorName, patientId);
+    // Fetch appointments matching doctor name and patient ID; a name the FULLTEXT index cannot find is filtered here,
+    // among the patient's appointments
+    String nameQuery = FulltextFunctions.booleanQuery(doctorName);
+    List<Appointment> appointments = nameQuery != null
+        ? appointmentRepository.filterByDoctorNameAndPatientId(nameQuery, doctorName, patientId)
+        : withDoctorName(appointmentRepository.findByPatientId(patientId), doctorName);
 
     if (appointments.isEmpty()) {
         response.put("message", "No appointments found for the given doctor and patient.");
@@ -234,7 +252,10 @@ public class PatientService {
     }
 
     // Fetch appointments filtered by doctorName, patientId, and status
-    List<Appointment> appointments = appointmentRepository.findByPatientIdAndDoctorNameContainingIgnoreCaseAndStatus(patientId, doctorName, status);
+    String nameQuery = FulltextFunctions.booleanQuery(doctorName);
+    List<Appointment> appointments = nameQuery != null
+        ? appointmentRepository.findByPatientIdAndDoctorNameContainingIgnoreCaseAndStatus(patientId, nameQuery, doctorName, status)
+        : withDoctorName(appointmentRepository.findByPatientIdAndStatus(patientId, status), doctorName);
 
     if (appointments.isEmpty()) {
         response.put("message", "No appointments found matching the criteria.");
@@ -270,17 +291,11 @@ public class PatientService {
 //    - It returns the patient's information in the response body.
     //    - Instruction: Make sure that the token extraction process works correctly and patient details are fetched properly based on the extracted email.
     // Method to fetch patient details based on JWT token
-    public ResponseEntity<Map<String, Object>> getPatientDetails(String token) {
+    public ResponseEntity<Map<String, Object>> getPatientDetails(AuthPrincipal principal) {
         Map<String, Object> response = new HashMap<>();
 
-        // Extract email from token
-        String email = tokenService.extractIdentifier(token);
-        if (email == null || email.isEmpty()) {
-            response.put("message", "Invalid token");
-            return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED);
-        }
-
-        Patient patient = patientRepository.findByEmail(email);
+        // The principal resolved from the token already carries the patient id
+        Patient patient = patientRepository.findById(principal.getId()).orElse(null);
         if (patient == null) {
             response.put("message", "Patient not found");
             return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
@@ -290,6 +305,14 @@ public class PatientService {
     }
 
 
+    // Helper method for doctor names the FULLTEXT index cannot find: keeps the appointments whose doctor name contains `doctorName`
+    private static List<Appointment> withDoctorName(List<Appointment> appointments, String doctorName) {
+        return appointments.stream()
+            .filter(appointment -> FulltextFunctions.containsIgnoreCase(appointment.getDoctor().getName(), doctorName))
+            .collect(Collectors.toList());
+    }
+
+
 // 9. **Handling Exceptions and Errors**:
 //    - The service methods handle exceptions using try-catch blocks and log any issues that occur. If an error occurs during database operations, the service responds with appropriate HTTP status codes (e.g., `500 Internal Server Error`).
 //    - Instruction: Ensure that error handling is consistent across the service, with proper logging and meaningful error messages returned to the client.
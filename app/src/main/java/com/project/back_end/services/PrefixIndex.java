@@ -0,0 +1,170 @@
+package com.project.back_end.services;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongPredicate;
+
+// Sorted-array prefix index of (id, label) pairs, used by `Typeahead`.
+// - Every word start of a label is a key ("dr. ann lee" -> "dr. ann lee", "ann lee", "lee"), so typing any word of a
+//   name completes it. Keys are kept in three parallel arrays sorted by key, which is far smaller than a trie of nodes.
+// - A lookup binary-searches the first key with the prefix and walks forward: O(log n + results).
+// - Writes copy the arrays (copy-on-write) and publish them in one volatile write, so lookups never lock.
+//   Writes are rare next to lookups (sign-ups and admin edits against every keystroke).
+final class PrefixIndex {
+
+    // One immutable generation of the index
+    private static final class Snapshot {
+        private final String[] keys;
+        private final long[] ids;
+        private final String[] labels;
+
+        Snapshot(String[] keys, long[] ids, String[] labels) {
+            this.keys = keys;
+            this.ids = ids;
+            this.labels = labels;
+        }
+    }
+
+    private static final Snapshot EMPTY = new Snapshot(new String[0], new long[0], new String[0]);
+
+    private volatile Snapshot snapshot = EMPTY;
+
+    // Replaces the whole index; `labels` maps id -> label
+    synchronized void load(Map<Long, String> labels) {
+        List<Object[]> entries = new ArrayList<>();
+        labels.forEach((id, label) -> {
+            for (String key : keysOf(label)) {
+                entries.add(new Object[] {key, id, label});
+            }
+        });
+        entries.sort(Comparator.comparing((Object[] e) -> (String) e[0]).thenComparing(e -> (Long) e[1]));
+
+        String[] keys = new String[entries.size()];
+        long[] ids = new long[entries.size()];
+        String[] texts = new String[entries.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = (String) entries.get(i)[0];
+            ids[i] = (Long) entries.get(i)[1];
+            texts[i] = (String) entries.get(i)[2];
+        }
+        snapshot = new Snapshot(keys, ids, texts);
+    }
+
+    // Adds or replaces the label of `id`
+    synchronized void put(long id, String label) {
+        String[] added = keysOf(label).toArray(new String[0]);
+        Arrays.sort(added);
+        rebuild(id, added, label);
+    }
+
+    synchronized void remove(long id) {
+        rebuild(id, new String[0], null);
+    }
+
+    // Up to `limit` distinct ids whose label has a word starting with `prefix`, in key order, as id -> label.
+    // `accept` can skip ids; at most `maxScan` keys are visited, which bounds a lookup that skips a lot.
+    Map<Long, String> complete(String prefix, int limit, LongPredicate accept, int maxScan) {
+        Map<Long, String> result = new LinkedHashMap<>();
+        String query = normalize(prefix);
+        if (query.isEmpty()) {
+            return result;
+        }
+        Snapshot current = snapshot;
+        int i = lowerBound(current.keys, query);
+        for (int scanned = 0; i < current.keys.length && scanned < maxScan && result.size() < limit; i++, scanned++) {
+            if (!current.keys[i].startsWith(query)) {
+                break;
+            }
+            long id = current.ids[i];
+            if (accept.test(id)) {
+                result.putIfAbsent(id, current.labels[i]);
+            }
+        }
+        return result;
+    }
+
+    int size() {
+        return snapshot.keys.length;
+    }
+
+    // Copy of the arrays without the entries of `id`, merged with its new keys (already sorted)
+    private void rebuild(long id, String[] added, String label) {
+        Snapshot current = snapshot;
+        int kept = 0;
+        for (long existing : current.ids) {
+            if (existing != id) {
+                kept++;
+            }
+        }
+        int size = kept + added.length;
+        String[] keys = new String[size];
+        long[] ids = new long[size];
+        String[] labels = new String[size];
+
+        int a = 0;
+        int out = 0;
+        for (int i = 0; i < current.keys.length; i++) {
+            if (current.ids[i] == id) {
+                continue;
+            }
+            while (a < added.length && compare(added[a], id, current.keys[i], current.ids[i]) < 0) {
+                keys[out] = added[a++];
+                ids[out] = id;
+                labels[out++] = label;
+            }
+            keys[out] = current.keys[i];
+            ids[out] = current.ids[i];
+            labels[out++] = current.labels[i];
+        }
+        while (a < added.length) {
+            keys[out] = added[a++];
+            ids[out] = id;
+            labels[out++] = label;
+        }
+        snapshot = new Snapshot(keys, ids, labels);
+    }
+
+    private static int compare(String key, long id, String otherKey, long otherId) {
+        int byKey = key.compareTo(otherKey);
+        return byKey != 0 ? byKey : Long.compare(id, otherId);
+    }
+
+    private static int lowerBound(String[] keys, String query) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(query) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Suffixes of the normalized label starting at each word
+    static Set<String> keysOf(String label) {
+        Set<String> keys = new HashSet<>();
+        String text = normalize(label);
+        for (int i = 0; i < text.length(); i++) {
+            boolean wordStart = Character.isLetterOrDigit(text.charAt(i))
+                    && (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1)));
+            if (wordStart) {
+                keys.add(text.substring(i));
+            }
+        }
+        return keys;
+    }
+
+    static String normalize(String text) {
+        return text == null ? "" : text.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -18,6 +18,7 @@ import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.DTO.AuthPrincipal;
 import com.project.back_end.DTO.Login;
 import com.project.back_end.models.Admin;
 import com.project.back_end.models.Appointment;
@@ -46,15 +47,42 @@ public class Service {
     private final PatientRepository patientRepository;
     private final DoctorService doctorService;
     private final PatientService patientService;
+    private final PasswordHasher passwordHasher;
+    private final LoginExecutor loginExecutor;
+    private final LoginRateLimiter loginRateLimiter;
+    private final AvailabilityIndex availabilityIndex;
+    private final DoctorScheduleService scheduleService;
+    private final BookingLocks bookingLocks;
+    private final SlotHoldService slotHolds;
+    private final AvailabilityStream availabilityStream;
+    private final DoctorDirectory doctorDirectory;
+    private final Typeahead typeahead;
+    private final ChangeVersions changeVersions;
 
     public Service(TokenService tokenService, AdminRepository adminRepository, DoctorRepository doctorRepository,
-                   PatientRepository patientRepository, DoctorService doctorService, PatientService patientService) {
+                   PatientRepository patientRepository, DoctorService doctorService, PatientService patientService,
+                   PasswordHasher passwordHasher, LoginExecutor loginExecutor, LoginRateLimiter loginRateLimiter,
+                   AvailabilityIndex availabilityIndex, DoctorScheduleService scheduleService,
+                   BookingLocks bookingLocks, SlotHoldService slotHolds, AvailabilityStream availabilityStream,
+                   DoctorDirectory doctorDirectory, Typeahead typeahead,
+                   ChangeVersions changeVersions) {
         this.tokenService = tokenService;
         this.adminRepository = adminRepository;
         this.doctorRepository = doctorRepository;
         this.patientRepository = patientRepository;
         this.doctorService = doctorService;
         this.patientService = patientService;
+        this.passwordHasher = passwordHasher;
+        this.loginExecutor = loginExecutor;
+        this.loginRateLimiter = loginRateLimiter;
+        this.availabilityIndex = availabilityIndex;
+        this.scheduleService = scheduleService;
+        this.bookingLocks = bookingLocks;
+        this.slotHolds = slotHolds;
+        this.availabilityStream = availabilityStream;
+        this.doctorDirectory = doctorDirectory;
+        this.typeahead = typeahead;
+        this.changeVersions = changeVersions;
     }
 // 3. **validateToken Method**
 // This method checks if the provided JWT token is valid for a specific user. It uses the TokenService to perform the validation.
@@ -74,10 +102,30 @@ public class Service {
         return null;
     }
 
+// **getMetrics Method**
+// Collects the in-process counters shown to admins (token cache and revocation, login pool and throttling, availability index, schedules, booking locks, slot holds, availability streams, doctor directory, typeahead, change versions).
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("tokenCache", tokenService.getCacheStats());
+        metrics.put("tokenRevocation", tokenService.getRevocationStats());
+        metrics.put("loginExecutor", loginExecutor.getStats());
+        metrics.put("loginRateLimiter", loginRateLimiter.getStats());
+        metrics.put("availabilityIndex", availabilityIndex.getStats());
+        metrics.put("schedules", scheduleService.getStats());
+        metrics.put("bookingLocks", bookingLocks.getStats());
+        metrics.put("slotHolds", slotHolds.getStats());
+        metrics.put("availabilityStream", availabilityStream.getStats());
+        metrics.put("doctorDirectory", doctorDirectory.getStats());
+        metrics.put("typeahead", typeahead.getStats());
+        metrics.put("changeVersions", changeVersions.getStats());
+        return metrics;
+    }
+
 // 4. **validateAdmin Method**
 // This method validates the login credentials for an admin user.
 // - It first searches the admin repository using the provided username.
-// - If an admin is found, it checks if the password matches.
+// - If an admin is found, it checks the password against the stored BCrypt hash (legacy plaintext rows are re-hashed on success).
+// - It runs on `LoginExecutor`, not on a request thread, because the hash check is CPU-heavy.
 // - If the password is correct, it generates and returns a JWT token (using the admin’s username) with a 200 OK status.
 // - If the password is incorrect, it returns a 401 Unauthorized status with an error message.
 // - If no admin is found, it also returns a 401 Unauthorized.
@@ -93,14 +141,17 @@ public class Service {
             return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED);
         }
 
-        // Compare passwords (assuming plain text; replace with hashed password check if needed)
-        if (!existingAdmin.getPassword().equals(receivedAdmin.getPassword())) {
+        if (!passwordHasher.matches(receivedAdmin.getPassword(), existingAdmin.getPassword())) {
             response.put("message", "Invalid password");
             return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED);
         }
+        if (passwordHasher.needsUpgrade(existingAdmin.getPassword())) {
+            existingAdmin.setPassword(passwordHasher.hash(receivedAdmin.getPassword()));
+            adminRepository.save(existingAdmin);
+        }
 
         // Generate token
-        String token = tokenService.generateToken(existingAdmin.getUsername());
+        String token = tokenService.generateToken(existingAdmin.getUsername(), "admin", existingAdmin.getId());
 
         response.put("token", token);
         return new ResponseEntity<>(response, HttpStatus.OK);
@@ -114,47 +165,35 @@ public class Service {
         // Delegate filtering to doctorService method that handles all three criteria
         return doctorService.filterDoctorsByNameSpecialtyAndTime(name, specialty, time);
     }
+
+    // Keyset-paged variant, see `DoctorService.getDoctorsPage`
+    public Map<String, Object> filterDoctor(String name, String specialty, String time, long after, int limit) {
+        return doctorService.filterDoctorsByNameSpecialtyAndTime(name, specialty, time, after, limit);
+    }
 // 6. **validateAppointment Method**
 // This method validates if the requested appointment time for a doctor is available.
-// - It first checks if the doctor exists in the repository.
-// - Then, it retrieves the list of available time slots for the doctor on the specified date.
-// - It compares the requested appointment time with the start times of these slots.
-// - If a match is found, it returns 1 (valid appointment time).
-// - If no matching time slot is found, it returns 0 (invalid).
-// - If the doctor doesn’t exist, it returns -1.
+// - It only checks in-memory state; whether the doctor exists is decided by the booking statement itself
+//   (`AppointmentService.bookAppointment`), so validating and booking cost one database round trip.
+// - Then it checks the requested time against the doctor's booked-slot mask for that date in `AvailabilityIndex`.
+// - If the time is the start of a free slot, it returns 1 (valid appointment time).
+// - If the time is not a slot start, the slot is already booked, or another patient holds it, it returns 0 (invalid).
+// - If no doctor is given, it returns -1.
 // This logic prevents overlapping or invalid appointment bookings.
     
     public int validateAppointment(Appointment appointment) {
-        // Find the doctor by ID
-        Optional<Doctor> doctorOpt = doctorRepository.findById(appointment.getDoctor().getId());
-        if (!doctorOpt.isPresent()) {
-            return -1;  // Doctor doesn't exist
+        Long doctorId = appointment.getDoctor() != null ? appointment.getDoctor().getId() : null;
+        if (doctorId == null) {
+            return -1;  // No doctor given
         }
-
-        Doctor doctor = doctorOpt.get();
-
-        // Extract the appointment date (assuming appointmentTime is LocalDateTime)
-        LocalDate appointmentDate = appointment.getAppointmentTime().toLocalDate();
-
-        // Get available time slots for the doctor on the appointment date
-        Map<String, Object> availability = doctorService.getDoctorAvailability(doctor.getId(), appointmentDate);
-
-        // The availability map should contain a list of available slots under key "availableSlots" (adjust key if different)
-        @SuppressWarnings("unchecked")
-        List<String> availableSlots = (List<String>) availability.get("availableSlots");
-
-        if (availableSlots == null || availableSlots.isEmpty()) {
-            return 0;  // No available slots, so invalid appointment time
+        if (appointment.getAppointmentTime() == null) {
+            return 0;
         }
 
-        // Format the appointment time to match the slot format, e.g., "09:00 AM"
-        String requestedTimeSlot = appointment.getAppointmentTime().toLocalTime().format(DateTimeFormatter.ofPattern("hh:mm a"));
-
-        // Check if the requested appointment time matches any available slot
-        boolean isValid = availableSlots.stream()
-            .anyMatch(slot -> slot.equalsIgnoreCase(requestedTimeSlot));
-
-        return isValid ? 1 : 0;
+        Long patientId = appointment.getPatient() != null ? appointment.getPatient().getId() : null;
+        if (slotHolds.isHeldByOther(doctorId, appointment.getAppointmentTime(), patientId)) {
+            return 0;
+        }
+        return availabilityIndex.isFree(doctorId, appointment.getAppointmentTime()) ? 1 : 0;
     }
 
 
@@ -198,7 +237,8 @@ public int validateAppointment(Appointment appointment) {
 // 8. **validatePatientLogin Method**
 // This method handles login validation for patient users.
 // - It looks up the patient by email.
-// - If found, it checks whether the provided password matches the stored one.
+// - If found, it checks the provided password against the stored BCrypt hash (legacy plaintext rows are re-hashed on success).
+// - Like `validateAdmin`, it runs on `LoginExecutor`.
 // - On successful validation, it generates a JWT token and returns it with a 200 OK status.
 // - If the password is incorrect or the patient doesn't exist, it returns a 401 Unauthorized with a relevant error.
 // - If an exception occurs, it returns a 500 Internal Server Error.
@@ -213,61 +253,48 @@ public int validateAppointment(Appointment appointment) {
             return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
         }
 
-        // Check password (assuming plain text; replace with hashed password check if applicable)
-        if (!patient.getPassword().equals(login.getPassword())) {
+        if (!passwordHasher.matches(login.getPassword(), patient.getPassword())) {
             response.put("message", "Invalid password");
             return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED);
         }
+        if (passwordHasher.needsUpgrade(patient.getPassword())) {
+            patient.setPassword(passwordHasher.hash(login.getPassword()));
+            patientRepository.save(patient);
+        }
 
         // Generate token if valid
-        String token = tokenService.generateToken(patient.getEmail());
+        String token = tokenService.generateToken(patient.getEmail(), "patient", patient.getId());
         response.put("token", token);
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
 // 9. **filterPatient Method**
 // This method filters a patient's appointment history based on condition and doctor name.
-// - It extracts the email from the JWT token to identify the patient.
+// - It identifies the patient from the principal resolved by `AuthInterceptor`, so the token is not parsed again.
 // - Depending on which filters (condition, doctor name) are provided, it delegates the filtering logic to PatientService.
 // - If no filters are provided, it retrieves all appointments for the patient.
 // This flexible method supports patient-specific querying and enhances user experience on the client side.
 
-// Assuming these methods exist in this service:
+// Filtering itself is implemented in PatientService
     public ResponseEntity<Map<String, Object>> filterByCondition(String condition, Long patientId) {
-        // Implementation here
-        return null;
+        return patientService.filterByCondition(condition, patientId);
     }
 
     public ResponseEntity<Map<String, Object>> filterByDoctor(String name, Long patientId) {
-        // Implementation here
-        return null;
+        return patientService.filterByDoctor(name, patientId);
     }
 
     public ResponseEntity<Map<String, Object>> filterByDoctorAndCondition(String condition, String name, Long patientId) {
-        // Implementation here
-        return null;
+        return patientService.filterByDoctorAndCondition(condition, name, patientId);
     }
 
-    public ResponseEntity<Map<String, Object>> filterPatient(String condition, String name, String token) {
-        Map<String, Object> response = new HashMap<>();
-
-        // Extract patient email from token
-        String email = tokenService.extractIdentifier(token);
-        if (email == null || email.isEmpty()) {
-            response.put("message", "Invalid token");
-            return new ResponseEntity<>(response, HttpStatus.UNAUTHORIZED);
-        }
-
-        // Retrieve patient ID by email (assuming patientRepository is available)
-        Long patientId = getPatientIdByEmail(email);
-        if (patientId == null) {
-            response.put("message", "Patient not found");
-            return new ResponseEntity<>(response, HttpStatus.NOT_FOUND);
-        }
+    public ResponseEntity<Map<String, Object>> filterPatient(String condition, String name, AuthPrincipal patient) {
+        // The principal resolved by AuthInterceptor already identifies the patient; no token parsing or lookup needed
+        Long patientId = patient.getId();
 
         // Apply filters based on input parameters
         if ((condition == null || condition.isEmpty()) && (name == null || name.isEmpty())) {
             // No filters applied, return all appointments
-            return getAllAppointmentsForPatient(patientId);
+            return getAllAppointmentsForPatient(patient);
         } else if (condition != null && !condition.isEmpty() && (name == null || name.isEmpty())) {
             return filterByCondition(condition, patientId);
         } else if ((condition == null || condition.isEmpty()) && name != null && !name.isEmpty()) {
@@ -277,16 +304,11 @@ public int validateAppointment(Appointment appointment) {
         }
     }
 
-    // Placeholder method to get patient ID by email
-    private Long getPatientIdByEmail(String email) {
-        // Implement retrieval of patient ID from email using patientRepository
-        return null;
-    }
-
-    // Placeholder method to get all appointments for a patient
-    private ResponseEntity<Map<String, Object>> getAllAppointmentsForPatient(Long patientId) {
-        // Implement retrieval of all appointments for patient
-        return null;
+    // Helper method to get all appointments for a patient
+    private ResponseEntity<Map<String, Object>> getAllAppointmentsForPatient(AuthPrincipal patient) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("appointments", patientService.getPatientAppointment(patient.getId(), patient));
+        return new ResponseEntity<>(response, HttpStatus.OK);
     }
 
     /*
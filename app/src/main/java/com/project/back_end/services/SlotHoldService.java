@@ -0,0 +1,224 @@
+package com.project.back_end.services;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.project.back_end.DTO.SlotGrid;
+
+// Short-lived holds on a (doctor, slot) while a patient confirms a booking, used by `AppointmentService` and `DoctorService`.
+// - Held slots are left out of availability responses, and only the holder can book them until the hold expires.
+// - Holds are grouped per doctor and day (same key as `AvailabilityIndex`), so masking a day's availability reads one small map.
+// - A patient keeps at most one hold; holding another slot releases the previous one.
+// - Expiry uses a hashed timer wheel of one-second ticks, advanced on the request path like the other in-memory stores.
+//   Reads also compare the expiry time, so a hold the wheel has not reached yet is already ignored.
+@Service
+public class SlotHoldService {
+
+    private static final int WHEEL_SIZE = 64;            // buckets, one per tick; must be a power of two
+    private static final long TICK_MILLIS = 1000L;
+
+    // One active hold
+    private static final class Hold {
+        private final long dayKey;
+        private final int minute;
+        private final Long patientId;
+        private final long expiresAt;     // epoch millis
+        private final long expiryTick;
+
+        Hold(long dayKey, int minute, Long patientId, long expiresAt) {
+            this.dayKey = dayKey;
+            this.minute = minute;
+            this.patientId = patientId;
+            this.expiresAt = expiresAt;
+            this.expiryTick = expiresAt / TICK_MILLIS + 1;
+        }
+
+        boolean expired(long now) {
+            return expiresAt <= now;
+        }
+    }
+
+    // doctor/day key -> minute of day -> hold; mutated only inside `holdsByDay.compute` for that key
+    private final ConcurrentHashMap<Long, ConcurrentHashMap<Integer, Hold>> holdsByDay = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Hold> holdsByPatient = new ConcurrentHashMap<>();
+
+    private final List<ConcurrentLinkedQueue<Hold>> wheel = new ArrayList<>(WHEEL_SIZE);
+    private final AtomicBoolean advancing = new AtomicBoolean();
+    private volatile long currentTick;
+
+    private final long ttlMillis;
+    private final LongSupplier clock;   // epoch millis
+
+    private final LongAdder granted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    @Autowired
+    public SlotHoldService(@Value("${booking.hold.ttl-seconds:120}") long ttlSeconds) {
+        this(ttlSeconds, System::currentTimeMillis);
+    }
+
+    // Takes the clock from tests
+    SlotHoldService(long ttlSeconds, LongSupplier clock) {
+        this.ttlMillis = Math.max(1, ttlSeconds) * 1000L;
+        this.clock = clock;
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel.add(new ConcurrentLinkedQueue<>());
+        }
+        this.currentTick = clock.getAsLong() / TICK_MILLIS;
+    }
+
+// 1. **hold Method**
+// Holds the slot starting at `dateTime` for the patient. Returns the expiry time, or null when another patient holds it.
+// Holding again the slot one already holds extends the hold. Whether the slot exists and is free is checked by the caller.
+    public LocalDateTime hold(Long doctorId, LocalDateTime dateTime, Long patientId) {
+        long now = clock.getAsLong();
+        advance(now);
+
+        long dayKey = AvailabilityIndex.key(doctorId, dateTime.toLocalDate());
+        int minute = minuteOfDay(dateTime);
+        Hold hold = new Hold(dayKey, minute, patientId, now + ttlMillis);
+        Hold[] current = new Hold[1];
+        holdsByDay.compute(dayKey, (key, holds) -> {
+            if (holds == null) {
+                holds = new ConcurrentHashMap<>();
+            }
+            current[0] = holds.merge(minute, hold, (existing, requested) ->
+                    existing.expired(now) || Objects.equals(existing.patientId, patientId) ? requested : existing);
+            return holds;
+        });
+        if (current[0] != hold) {
+            rejected.increment();
+            return null;
+        }
+
+        Hold previous = holdsByPatient.put(patientId, hold);
+        if (previous != null && (previous.dayKey != dayKey || previous.minute != minute)) {
+            remove(previous);
+        }
+        wheel.get((int) (hold.expiryTick & (WHEEL_SIZE - 1))).add(hold);
+        granted.increment();
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(hold.expiresAt), ZoneId.systemDefault());
+    }
+
+// 2. **release Method**
+// Drops the patient's hold on the slot (booking confirmed or modal closed). Returns false when the patient held nothing there.
+    public boolean release(Long doctorId, LocalDateTime dateTime, Long patientId) {
+        long dayKey = AvailabilityIndex.key(doctorId, dateTime.toLocalDate());
+        int minute = minuteOfDay(dateTime);
+        Hold hold = holdsByPatient.get(patientId);
+        if (hold == null || hold.dayKey != dayKey || hold.minute != minute) {
+            return false;
+        }
+        holdsByPatient.remove(patientId, hold);
+        remove(hold);
+        return true;
+    }
+
+// 3. **isHeldByOther Method**
+// True when someone other than `patientId` holds the slot starting at `dateTime`.
+    public boolean isHeldByOther(Long doctorId, LocalDateTime dateTime, Long patientId) {
+        ConcurrentHashMap<Integer, Hold> holds = holdsByDay.get(AvailabilityIndex.key(doctorId, dateTime.toLocalDate()));
+        if (holds == null) {
+            return false;
+        }
+        Hold hold = holds.get(minuteOfDay(dateTime));
+        return hold != null && !hold.expired(clock.getAsLong()) && !Objects.equals(hold.patientId, patientId);
+    }
+
+// 4. **getHeldMask Method**
+// Slots of `grid` held on the doctor's day, as a bitmask in the same layout as the booked masks of `AvailabilityIndex`.
+    public long getHeldMask(Long doctorId, LocalDate date, SlotGrid grid) {
+        ConcurrentHashMap<Integer, Hold> holds = holdsByDay.get(AvailabilityIndex.key(doctorId, date));
+        if (holds == null) {
+            return 0L;
+        }
+        long now = clock.getAsLong();
+        advance(now);
+        long mask = 0L;
+        for (Hold hold : holds.values()) {
+            int slot = hold.expired(now) ? -1 : grid.slotIndex(date.atStartOfDay().plusMinutes(hold.minute));
+            if (slot >= 0) {
+                mask |= 1L << slot;
+            }
+        }
+        return mask;
+    }
+
+// 5. **getStats Method**
+// Counters exposed through the admin metrics endpoint.
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("active", holdsByPatient.size());
+        stats.put("heldDays", holdsByDay.size());
+        stats.put("ttlSeconds", ttlMillis / 1000L);
+        stats.put("granted", granted.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("expired", expired.sum());
+        return stats;
+    }
+
+    // Helper method moving the wheel up to `now`; each tick expires the due holds of its bucket.
+    // Holds due in a later round of the wheel stay in the bucket. Only one thread advances at a time.
+    private void advance(long now) {
+        long target = now / TICK_MILLIS;
+        if (target <= currentTick || !advancing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            // After a long idle period every bucket is visited once
+            long from = Math.max(currentTick + 1, target - WHEEL_SIZE + 1);
+            for (long tick = from; tick <= target; tick++) {
+                ConcurrentLinkedQueue<Hold> bucket = wheel.get((int) (tick & (WHEEL_SIZE - 1)));
+                int pending = bucket.size();
+                for (int i = 0; i < pending; i++) {
+                    Hold hold = bucket.poll();
+                    if (hold == null) {
+                        break;
+                    }
+                    if (hold.expiryTick > target) {
+                        bucket.add(hold);        // due in a later round
+                    } else if (hold.expired(now)) {
+                        if (remove(hold)) {
+                            expired.increment();
+                        }
+                        holdsByPatient.remove(hold.patientId, hold);
+                    }
+                }
+            }
+            currentTick = target;
+        } finally {
+            advancing.set(false);
+        }
+    }
+
+    // Helper method removing a hold from its day; empty days are dropped
+    private boolean remove(Hold hold) {
+        boolean[] removed = new boolean[1];
+        holdsByDay.computeIfPresent(hold.dayKey, (key, holds) -> {
+            removed[0] = holds.remove(hold.minute, hold);
+            return holds.isEmpty() ? null : holds;
+        });
+        return removed[0];
+    }
+
+    private static int minuteOfDay(LocalDateTime dateTime) {
+        return dateTime.getHour() * 60 + dateTime.getMinute();
+    }
+}
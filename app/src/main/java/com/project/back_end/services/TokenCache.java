@@ -0,0 +1,157 @@
+package com.project.back_end.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import com.project.back_end.DTO.AuthPrincipal;
+
+// Bounded cache of already verified JWTs, used by `TokenService` so that repeated calls with the same token
+// skip signature verification and the repository existence check.
+// - Entries are keyed by a SHA-256 digest of the token plus the requested role, so raw tokens are never kept in memory.
+// - An entry is valid until the earlier of the token's own expiry and the configured cache TTL.
+// - When the cache is full, expired entries are swept first and then the entries closest to expiry are dropped.
+public class TokenCache {
+
+    // Cached result of a successful validation
+    public static final class Entry {
+        private final AuthPrincipal principal;
+        private final long issuedAt;
+        private final long validUntil;
+
+        Entry(AuthPrincipal principal, long issuedAt, long validUntil) {
+            this.principal = principal;
+            this.issuedAt = issuedAt;
+            this.validUntil = validUntil;
+        }
+
+        public AuthPrincipal getPrincipal() {
+            return principal;
+        }
+
+        // `iat` claim in epoch millis, kept so revocation cutoffs can still be checked on a cache hit
+        public long getIssuedAt() {
+            return issuedAt;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final LongSupplier clock;   // epoch millis
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public TokenCache(long ttlMillis, int maxEntries) {
+        this(ttlMillis, maxEntries, System::currentTimeMillis);
+    }
+
+    // Takes the clock from tests
+    TokenCache(long ttlMillis, int maxEntries, LongSupplier clock) {
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+        this.clock = clock;
+    }
+
+    // 1. **get Method**
+    // Returns the cached entry for the token digest and role, or null when it is missing or no longer valid.
+    public Entry get(String tokenDigest, String userType) {
+        String key = key(tokenDigest, userType);
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+        if (entry.validUntil <= clock.getAsLong()) {
+            entries.remove(key, entry);
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry;
+    }
+
+    // 2. **put Method**
+    // Stores a verified token. `issuedAt` and `tokenExpiry` are the `iat` and `exp` claims in epoch millis.
+    public void put(String tokenDigest, AuthPrincipal principal, long issuedAt, long tokenExpiry) {
+        long validUntil = Math.min(tokenExpiry, clock.getAsLong() + ttlMillis);
+        if (entries.size() >= maxEntries) {
+            evict();
+        }
+        entries.put(key(tokenDigest, principal.getRole()), new Entry(principal, issuedAt, validUntil));
+    }
+
+    // 3. **invalidatePrincipal Method**
+    // Drops every cached token that belongs to the given principal (e.g. a deleted doctor).
+    // Principal changes are rare compared to reads, so a full sweep is cheaper than keeping a reverse index.
+    public void invalidatePrincipal(String userType, String identifier) {
+        if (identifier == null) {
+            return;
+        }
+        entries.values().removeIf(entry -> entry.principal.hasRole(userType)
+                && entry.principal.getEmail().equalsIgnoreCase(identifier));
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    // 4. **getStats Method**
+    // Counters exposed through the admin metrics endpoint.
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        stats.put("size", entries.size());
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.sum());
+        stats.put("hitRatio", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        return stats;
+    }
+
+    // Helper method to make room for a new entry: expired entries first, then the ones expiring soonest
+    private void evict() {
+        long now = clock.getAsLong();
+        int before = entries.size();
+        entries.values().removeIf(entry -> entry.validUntil <= now);
+
+        int overflow = entries.size() - maxEntries + Math.max(1, maxEntries / 10);
+        if (overflow > 0) {
+            entries.entrySet().stream()
+                    .sorted((a, b) -> Long.compare(a.getValue().validUntil, b.getValue().validUntil))
+                    .limit(overflow)
+                    .map(Map.Entry::getKey)
+                    .toList()
+                    .forEach(entries::remove);
+        }
+        evictions.add(Math.max(0, before - entries.size()));
+    }
+
+    // 5. **digest Method**
+    // SHA-256 of the token, used as its identity by the cache and by `TokenRevocationService`,
+    // so raw tokens are never kept in memory.
+    public static String digest(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is mandatory on every JVM
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String key(String tokenDigest, String userType) {
+        return userType.toLowerCase() + ":" + tokenDigest;
+    }
+}
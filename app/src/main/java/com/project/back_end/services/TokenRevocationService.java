@@ -0,0 +1,183 @@
+package com.project.back_end.services;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+// In-memory token revocation, used by `TokenService` now that tokens are authorized without a database lookup.
+// - Single tokens (logout) are stored by token digest until the token's own `exp`.
+// - Whole principals (logout everywhere, deleted doctor) are stored as an "issued at or before" cutoff,
+//   kept for one token lifetime after which no token it could match is still valid.
+// - A Bloom filter over both key sets answers the common "not revoked" case without touching the maps.
+//   It can report false positives (then the maps decide) but never false negatives.
+@Service
+public class TokenRevocationService {
+
+    private static final int HASH_FUNCTIONS = 4;
+    private static final long PURGE_INTERVAL_MILLIS = 60 * 1000L;
+
+    // token digest -> token expiry (epoch millis)
+    private final ConcurrentHashMap<String, Long> revokedTokens = new ConcurrentHashMap<>();
+    // "role:id" -> cutoff (epoch millis); tokens issued at or before it are revoked
+    private final ConcurrentHashMap<String, Long> principalCutoffs = new ConcurrentHashMap<>();
+
+    private final int filterBits;
+    private final LongSupplier clock;   // epoch millis
+    private volatile AtomicLongArray filter;
+    private volatile long nextPurge;
+
+    private final LongAdder checks = new LongAdder();
+    private final LongAdder filterPasses = new LongAdder();
+    private final LongAdder revokedHits = new LongAdder();
+
+    @Autowired
+    public TokenRevocationService(@Value("${jwt.revocation.filter-bits:1048576}") int filterBits) {
+        this(filterBits, System::currentTimeMillis);
+    }
+
+    // Takes the clock from tests
+    TokenRevocationService(int filterBits, LongSupplier clock) {
+        this.clock = clock;
+        // Rounded up to whole longs; 2^20 bits (128 KB) keeps false positives negligible for ~100k revocations
+        this.filterBits = Math.max(64, (filterBits + 63) / 64 * 64);
+        this.filter = new AtomicLongArray(this.filterBits / 64);
+        this.nextPurge = clock.getAsLong() + PURGE_INTERVAL_MILLIS;
+    }
+
+// 1. **revokeToken Method**
+// Revokes a single token (logout). The entry disappears once the token would have expired anyway.
+    public void revokeToken(String tokenDigest, long tokenExpiry) {
+        purgeIfDue();
+        revokedTokens.put(tokenDigest, tokenExpiry);
+        addToFilter(filter, tokenDigest);
+    }
+
+// 2. **revokePrincipal Method**
+// Revokes every token issued so far to a principal (logout everywhere, deleted or renamed account).
+    public void revokePrincipal(String role, Long id) {
+        purgeIfDue();
+        String key = principalKey(role, id);
+        principalCutoffs.put(key, clock.getAsLong());
+        addToFilter(filter, key);
+    }
+
+// 3. **isRevoked Method**
+// Checks a token by digest and by its principal's cutoff.
+// The Bloom filter is consulted first; the maps are only read when it reports a possible match.
+    public boolean isRevoked(String tokenDigest, String role, Long id, long issuedAt) {
+        checks.increment();
+        AtomicLongArray current = filter;
+        String key = principalKey(role, id);
+        boolean tokenMaybe = mightContain(current, tokenDigest);
+        boolean principalMaybe = mightContain(current, key);
+        if (!tokenMaybe && !principalMaybe) {
+            filterPasses.increment();
+            return false;
+        }
+
+        long now = clock.getAsLong();
+        if (tokenMaybe) {
+            Long expiry = revokedTokens.get(tokenDigest);
+            if (expiry != null && expiry > now) {
+                revokedHits.increment();
+                return true;
+            }
+        }
+        if (principalMaybe) {
+            Long cutoff = principalCutoffs.get(key);
+            // `issuedAt` is in milliseconds (`TokenService` puts it in the `iatMillis` claim), so a token issued right
+            // after the cutoff is accepted
+            if (cutoff != null && issuedAt <= cutoff) {
+                revokedHits.increment();
+                return true;
+            }
+        }
+        return false;
+    }
+
+// 4. **getStats Method**
+// Counters exposed through the admin metrics endpoint.
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("revokedTokens", revokedTokens.size());
+        stats.put("revokedPrincipals", principalCutoffs.size());
+        stats.put("checks", checks.sum());
+        stats.put("filterPasses", filterPasses.sum());
+        stats.put("revokedHits", revokedHits.sum());
+        return stats;
+    }
+
+    // Helper method to drop expired entries and rebuild the filter, since a Bloom filter cannot remove keys.
+    // Revocations are rare, so this runs on the write path at most once per interval.
+    private synchronized void purgeIfDue() {
+        long now = clock.getAsLong();
+        if (now < nextPurge) {
+            return;
+        }
+        nextPurge = now + PURGE_INTERVAL_MILLIS;
+
+        revokedTokens.values().removeIf(expiry -> expiry <= now);
+        principalCutoffs.values().removeIf(cutoff -> cutoff + TokenService.TOKEN_VALIDITY_MILLIS <= now);
+
+        AtomicLongArray rebuilt = new AtomicLongArray(filterBits / 64);
+        revokedTokens.keySet().forEach(key -> addToFilter(rebuilt, key));
+        principalCutoffs.keySet().forEach(key -> addToFilter(rebuilt, key));
+        filter = rebuilt;
+
+        // Keys added concurrently to the old filter while rebuilding are re-added to the new one
+        revokedTokens.keySet().forEach(key -> addToFilter(rebuilt, key));
+        principalCutoffs.keySet().forEach(key -> addToFilter(rebuilt, key));
+    }
+
+    private void addToFilter(AtomicLongArray bits, String key) {
+        long hash = hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < HASH_FUNCTIONS; i++) {
+            int bit = Math.floorMod(h1 + i * h2, filterBits);
+            int word = bit >>> 6;
+            long mask = 1L << (bit & 63);
+            long current;
+            do {
+                current = bits.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!bits.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    private boolean mightContain(AtomicLongArray bits, String key) {
+        long hash = hash64(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < HASH_FUNCTIONS; i++) {
+            int bit = Math.floorMod(h1 + i * h2, filterBits);
+            if ((bits.get(bit >>> 6) & (1L << (bit & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 64-bit FNV-1a; split into two 32-bit halves for double hashing
+    private static long hash64(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static String principalKey(String role, Long id) {
+        return role.toLowerCase() + ":" + id;
+    }
+}
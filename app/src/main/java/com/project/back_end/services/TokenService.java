@@ -20,7 +20,10 @@ import java.time.LocalTime;
 import java.util.List;
 
 import com.project.back_end.DTO.AppointmentDTO;
+import com.project.back_end.DTO.AuthPrincipal;
 import com.project.back_end.DTO.Login;
+import com.project.back_end.events.DoctorChangedEvent;
+import com.project.back_end.models.Admin;
 import com.project.back_end.models.Appointment;
 import com.project.back_end.models.Doctor;
 import com.project.back_end.models.Patient;
@@ -33,6 +36,7 @@ import com.project.back_end.services.TokenService;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.JwtParserBuilder;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -42,6 +46,8 @@ import java.util.Date;
 import javax.crypto.SecretKey;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -63,15 +69,37 @@ public class TokenService {
     private final AdminRepository adminRepository;
     private final DoctorRepository doctorRepository;
     private final PatientRepository patientRepository;
-    // private final SecretKey signingKey;
     private final String secretKey;
 
-    public TokenService(AdminRepository adminRepository, DoctorRepository doctorRepository, PatientRepository patientRepository, @Value("${jwt.secret}") String secretKey) {
+    // The signing key and the parser are immutable and thread-safe, so they are built once instead of per request
+    private final SecretKey signingKey;
+    private final JwtParser jwtParser;
+
+    // Verified tokens, so polling dashboards don't pay for signature checks and repository lookups on every call
+    private final TokenCache tokenCache;
+
+    // Logout and revoke-all, checked in memory on every validation
+    private final TokenRevocationService revocationService;
+
+    static final long TOKEN_VALIDITY_MILLIS = 7 * 24 * 60 * 60 * 1000L;
+    public static final String ANY_ROLE = "any";
+    private static final String ROLE_CLAIM = "role";
+    private static final String ID_CLAIM = "id";
+    private static final String ISSUED_MILLIS_CLAIM = "iatMillis";
+
+    public TokenService(AdminRepository adminRepository, DoctorRepository doctorRepository, PatientRepository patientRepository,
+                        @Value("${jwt.secret}") String secretKey,
+                        @Value("${jwt.cache.ttl-seconds:300}") long cacheTtlSeconds,
+                        @Value("${jwt.cache.max-entries:10000}") int cacheMaxEntries,
+                        TokenRevocationService revocationService) {
         this.adminRepository = adminRepository;
         this.doctorRepository = doctorRepository;
         this.patientRepository = patientRepository;
-        // this.signingKey = Keys.hmacShaKeyFor(secret.getBytes());
         this.secretKey = secretKey;
+        this.signingKey = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parser().verifyWith(signingKey).build();
+        this.tokenCache = new TokenCache(cacheTtlSeconds * 1000L, cacheMaxEntries);
+        this.revocationService = revocationService;
     }
 
 // 3. **getSigningKey Method**
@@ -81,33 +109,38 @@ public class TokenService {
     // @Value("${jwt.secret}")
     // private String jwtSecret;
 
-    public Key getSigningKey(String secretKey) {
-        // Convert the secret string to bytes and generate a SecretKey for HMAC SHA signing
-        Key key = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
-        return key;
+    public SecretKey getSigningKey() {
+        // Key derived once from the secret string in the constructor
+        return signingKey;
     }
 
     // Other token-related methods...   
 // 4. **generateToken Method**
 // This method generates a JWT token for a user based on their email.
 // - The `subject` of the token is set to the user's email, which is used as an identifier.
-// - The `issuedAt` is set to the current date and time.
+// - The `role` and `id` claims carry the user type and the numeric id of the Admin/Doctor/Patient record,
+//   so the token can be authorized without a repository lookup.
+// - The `issuedAt` is set to the current date and time. `iat` only has second precision, so the `iatMillis` claim
+//   repeats it in milliseconds for the revocation cutoffs: a login right after "log out everywhere" stays valid.
 // - The `expiration` is set to 7 days from the issue date, ensuring the token expires after one week.
 // - The token is signed using the signing key generated by `getSigningKey()`, making it secure and tamper-proof.
 // The method returns the JWT token as a string.
     
 
-    public String generateToken(String identifier) {
+    public String generateToken(String identifier, String role, Long id) {
         long nowMillis = System.currentTimeMillis();
         Date now = new Date(nowMillis);
         // Set expiration to 7 days from now
-        Date expiryDate = new Date(nowMillis + 7 * 24 * 60 * 60 * 1000L);
+        Date expiryDate = new Date(nowMillis + TOKEN_VALIDITY_MILLIS);
 
         return Jwts.builder()
                 .subject(identifier)             // User's identifier (username or email)
+                .claim(ROLE_CLAIM, role.toLowerCase())  // "admin", "doctor" or "patient"
+                .claim(ID_CLAIM, id)             // Id of the user's record
                 .issuedAt(now)                // Token issue time
+                .claim(ISSUED_MILLIS_CLAIM, nowMillis)  // Same, in milliseconds
                 .expiration(expiryDate)       // Token expiration time
-                .signWith(getSigningKey(secretKey), SignatureAlgorithm.HS256)  // Sign with HMAC SHA256
+                .signWith(signingKey, Jwts.SIG.HS256)  // Sign with HMAC SHA256
                 .compact();
     }
 // 5. **extractEmail Method**
@@ -117,11 +150,7 @@ public class TokenService {
 // This method allows the application to retrieve the user's identity (email) from the token for further use.
     public String extractIdentifier(String token) {
         
-        Claims claims = Jwts.parser()
-                .setSigningKey(secretKey)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        Claims claims = jwtParser.parseSignedClaims(token).getPayload();
 
         return claims.getSubject();  // Extracts the subject (identifier)
     }
@@ -130,42 +159,154 @@ public class TokenService {
 // 6. **validateToken Method**
 // This method validates whether a provided JWT token is valid for a specific user role (admin, doctor, or patient).
 // - It first extracts the email from the token using the `extractEmail()` method.
-// - Depending on the role (`admin`, `doctor`, or `patient`), it checks the corresponding repository (AdminRepository, DoctorRepository, or PatientRepository)
-//   to see if a user with the extracted email exists.
+// - Tokens carrying `role` and `id` claims are checked against the requested role and `TokenRevocationService`
+//   only; no repository is queried.
+// - For older tokens without these claims, depending on the role (`admin`, `doctor`, or `patient`), it checks the
+//   corresponding repository (AdminRepository, DoctorRepository, or PatientRepository) to see if a user with the extracted email exists.
 // - If a match is found for the specified user role, it returns true, indicating the token is valid.
 // - If the role or user does not exist, it returns false, indicating the token is invalid.
 // - The method gracefully handles any errors by returning false if the token is invalid or an exception occurs.
 // This ensures secure access control based on the user's role and their existence in the system.
     public boolean validateToken(String token, String userType) {
+        return resolvePrincipal(token, userType) != null;
+    }
+
+// **resolvePrincipal Method**
+// Same checks as `validateToken`, but returns who the caller is (role, entity id, email) so callers don't have to
+// parse the token again or look the user up a second time. Returns null when the token is invalid for the role.
+// Used once per request by `AuthInterceptor`.
+    public AuthPrincipal resolvePrincipal(String token, String userType) {
+        if (token == null || userType == null) {
+            return null;
+        }
+        String tokenDigest = TokenCache.digest(token);
+
+        // Served from the cache when the same token was verified recently for the same role.
+        // Revocation is still checked on every call; the Bloom filter makes that a few nanoseconds.
+        TokenCache.Entry cached = tokenCache.get(tokenDigest, userType);
+        if (cached != null) {
+            AuthPrincipal principal = cached.getPrincipal();
+            return revocationService.isRevoked(tokenDigest, principal.getRole(), principal.getId(), cached.getIssuedAt())
+                    ? null : principal;
+        }
+
         try {
-            Claims claims = Jwts.parser()
-                    .setSigningKey(secretKey)
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            Claims claims = jwtParser.parseSignedClaims(token).getPayload();
 
             String email = claims.getSubject();
             if (email == null || email.isEmpty()) {
-                return false;
+                return null;
             }
 
-            switch (userType.toLowerCase()) {
-                case "admin":
-                    return adminRepository.findByUsername(email) != null;
+            String roleClaim = claims.get(ROLE_CLAIM, String.class);
+            Number idClaim = claims.get(ID_CLAIM, Number.class);
+            long issuedAt = issuedAtMillis(claims);
 
-                case "doctor":
-                    return doctorRepository.findByEmail(email) != null;
+            // ANY_ROLE accepts whichever role the token was issued for (e.g. logout)
+            String role = ANY_ROLE.equalsIgnoreCase(userType) ? roleClaim : userType.toLowerCase();
+            if (role == null) {
+                return null;
+            }
 
-                case "patient":
-                    return patientRepository.findByEmail(email) != null;
+            // Tokens carrying role and id claims are authorized in memory: no repository round trip
+            if (roleClaim != null && idClaim != null) {
+                if (!roleClaim.equals(role)) {
+                    return null;
+                }
+                AuthPrincipal principal = new AuthPrincipal(role, idClaim.longValue(), email);
+                if (revocationService.isRevoked(tokenDigest, role, principal.getId(), issuedAt)) {
+                    return null;
+                }
+                tokenCache.put(tokenDigest, principal, issuedAt, claims.getExpiration().getTime());
+                return principal;
+            }
 
+            // Tokens issued before the role/id claims existed fall back to the repository check
+            Long entityId;
+            switch (role) {
+                case "admin": {
+                    Admin admin = adminRepository.findByUsername(email);
+                    entityId = admin != null ? admin.getId() : null;
+                    break;
+                }
+                case "doctor": {
+                    Doctor doctor = doctorRepository.findByEmail(email);
+                    entityId = doctor != null ? doctor.getId() : null;
+                    break;
+                }
+                case "patient": {
+                    Patient patient = patientRepository.findByEmail(email);
+                    entityId = patient != null ? patient.getId() : null;
+                    break;
+                }
                 default:
-                    return false;
+                    return null;
+            }
+
+            if (entityId == null || revocationService.isRevoked(tokenDigest, role, entityId, issuedAt)) {
+                return null;
             }
+
+            AuthPrincipal principal = new AuthPrincipal(role, entityId, email);
+            tokenCache.put(tokenDigest, principal, issuedAt, claims.getExpiration().getTime());
+            return principal;
         } catch (Exception e) {
             // Token invalid or expired
+            return null;
+        }
+    }
+
+// 7. **revokePrincipal Method**
+// Revokes every token issued so far to a principal: logout everywhere, a deleted doctor, or a changed identity
+// (via `onDoctorChanged` after `DoctorService.deleteDoctor`). Tokens are validated without the database, so this is what makes them stop working.
+    public void revokePrincipal(String userType, Long id, String identifier) {
+        if (id != null) {
+            revocationService.revokePrincipal(userType, id);
+        }
+        tokenCache.invalidatePrincipal(userType, identifier);
+    }
+
+// **onDoctorChanged Method**
+// Revokes the tokens of a deleted doctor, or of a doctor whose email changed, once `DoctorService`'s transaction has
+// committed, so a rolled-back delete or update leaves the doctor's sessions working.
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDoctorChanged(DoctorChangedEvent event) {
+        if (event.getRevokedEmail() != null) {
+            revokePrincipal("doctor", event.getDoctorId(), event.getRevokedEmail());
+        }
+    }
+
+// **revokeToken Method**
+// Revokes a single token (logout). It is remembered until its own expiry.
+    public boolean revokeToken(String token) {
+        try {
+            Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+            revocationService.revokeToken(TokenCache.digest(token), claims.getExpiration().getTime());
+            return true;
+        } catch (Exception e) {
+            // Invalid or already expired tokens need no revocation
             return false;
         }
     }
+
+// 8. **getCacheStats Method**
+// Returns hit/miss/eviction counters of the verified-token cache.
+    public Map<String, Object> getCacheStats() {
+        return tokenCache.getStats();
+    }
+
+    public Map<String, Object> getRevocationStats() {
+        return revocationService.getStats();
+    }
+
+    // Helper method: issue time in milliseconds, from `iatMillis`; tokens issued before that claim existed fall back to
+    // the second-precision `iat`
+    private static long issuedAtMillis(Claims claims) {
+        Number millis = claims.get(ISSUED_MILLIS_CLAIM, Number.class);
+        if (millis != null) {
+            return millis.longValue();
+        }
+        return claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : 0L;
+    }
     
 }
\ No newline at end of file
@@ -0,0 +1,243 @@
+package com.project.back_end.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.project.back_end.DTO.DoctorCard;
+import com.project.back_end.events.AppointmentChangedEvent;
+import com.project.back_end.events.DoctorChangedEvent;
+import com.project.back_end.events.PatientChangedEvent;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+
+// Completions for the search boxes, answered from memory instead of a `LIKE '%x%'` query per keystroke.
+// - Doctor and patient names live in `PrefixIndex`es (sorted arrays, any word of a name completes it); specialties in a
+//   sorted map with the number of doctors per specialty.
+// - Each index is loaded with one projection query on first use, then kept current by the after-commit
+//   `DoctorChangedEvent` / `PatientChangedEvent`.
+// - Doctors only get completions for their own patients: the patient ids of each doctor are loaded on first use and
+//   extended by `AppointmentChangedEvent`s.
+@Service
+public class Typeahead {
+
+    // Keys visited per lookup at most, which bounds lookups that skip other doctors' patients
+    private static final int MAX_SCAN = 5000;
+
+    // Display label and number of doctors of one specialty
+    private static final class Specialty {
+        private final String label;
+        private final int doctors;
+
+        Specialty(String label, int doctors) {
+            this.label = label;
+            this.doctors = doctors;
+        }
+    }
+
+    private final DoctorRepository doctorRepository;
+    private final PatientRepository patientRepository;
+    private final AppointmentRepository appointmentRepository;
+
+    private final PrefixIndex doctorNames = new PrefixIndex();
+    private final PrefixIndex patientNames = new PrefixIndex();
+    // normalized specialty -> label and count; doctor id -> normalized specialty, to move a doctor on update
+    private final ConcurrentSkipListMap<String, Specialty> specialties = new ConcurrentSkipListMap<>();
+    private final ConcurrentHashMap<Long, String> specialtyOfDoctor = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Set<Long>> patientsByDoctor = new ConcurrentHashMap<>();
+    private final Object doctorLock = new Object();
+    private final Object patientLock = new Object();
+    private volatile boolean doctorsLoaded;
+    private volatile boolean patientsLoaded;
+
+    private final LongAdder lookups = new LongAdder();
+
+    public Typeahead(DoctorRepository doctorRepository, PatientRepository patientRepository,
+                     AppointmentRepository appointmentRepository) {
+        this.doctorRepository = doctorRepository;
+        this.patientRepository = patientRepository;
+        this.appointmentRepository = appointmentRepository;
+    }
+
+// 1. **completeDoctors Method**
+// Up to `limit` doctors (id and name) with a name word starting with `prefix`, and up to `limit` specialties starting with it.
+    public Map<String, Object> completeDoctors(String prefix, int limit) {
+        ensureDoctorsLoaded();
+        lookups.increment();
+
+        List<Map<String, Object>> doctors = new ArrayList<>();
+        doctorNames.complete(prefix, limit, id -> true, MAX_SCAN).forEach((id, name) -> doctors.add(match(id, name)));
+
+        List<String> labels = new ArrayList<>();
+        String query = PrefixIndex.normalize(prefix);
+        if (!query.isEmpty()) {
+            for (Specialty specialty : specialties.subMap(query, true, query + Character.MAX_VALUE, true).values()) {
+                if (labels.size() == limit) {
+                    break;
+                }
+                labels.add(specialty.label);
+            }
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("doctors", doctors);
+        response.put("specialties", labels);
+        return response;
+    }
+
+// 2. **completePatients Method**
+// Up to `limit` of the doctor's patients (id and name) with a name word starting with `prefix`.
+    public Map<String, Object> completePatients(Long doctorId, String prefix, int limit) {
+        ensurePatientsLoaded();
+        lookups.increment();
+
+        Set<Long> ownPatients = patientsByDoctor.computeIfAbsent(doctorId,
+                id -> {
+                    Set<Long> ids = ConcurrentHashMap.newKeySet();
+                    ids.addAll(appointmentRepository.findPatientIdsByDoctorId(id));
+                    return ids;
+                });
+        List<Map<String, Object>> patients = new ArrayList<>();
+        patientNames.complete(prefix, limit, ownPatients::contains, MAX_SCAN).forEach((id, name) -> patients.add(match(id, name)));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("patients", patients);
+        return response;
+    }
+
+// 3. **onDoctorChanged / onPatientChanged / onAppointmentChanged Methods**
+// Apply committed writes to the loaded indexes. Events that arrive before an index is loaded are ignored, since the
+// load reads the committed rows anyway.
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onDoctorChanged(DoctorChangedEvent event) {
+        if (event.getType() == DoctorChangedEvent.Type.SCHEDULE_CHANGED || event.getDoctorId() == null) {
+            return;
+        }
+        synchronized (doctorLock) {
+            if (!doctorsLoaded) {
+                return;
+            }
+            DoctorCard doctor = event.getType() == DoctorChangedEvent.Type.DELETED ? null
+                    : doctorRepository.findCardById(event.getDoctorId()).orElse(null);
+            if (doctor == null) {
+                doctorNames.remove(event.getDoctorId());
+                removeSpecialty(event.getDoctorId());
+            } else {
+                putDoctor(doctor);
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPatientChanged(PatientChangedEvent event) {
+        synchronized (patientLock) {
+            if (!patientsLoaded || event.getPatientId() == null) {
+                return;
+            }
+            String name = patientRepository.findNameById(event.getPatientId());
+            if (name != null) {
+                patientNames.put(event.getPatientId(), name);
+            }
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onAppointmentChanged(AppointmentChangedEvent event) {
+        if ((event.getType() == AppointmentChangedEvent.Type.BOOKED || event.getType() == AppointmentChangedEvent.Type.UPDATED)
+                && event.getDoctorId() != null && event.getPatientId() != null) {
+            // Waits for a load of the same doctor in progress, whose query may not have seen this appointment
+            patientsByDoctor.computeIfPresent(event.getDoctorId(), (id, ids) -> {
+                ids.add(event.getPatientId());
+                return ids;
+            });
+        }
+    }
+
+// 4. **getStats Method**
+// Counters exposed through the admin metrics endpoint.
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("doctorKeys", doctorNames.size());
+        stats.put("patientKeys", patientNames.size());
+        stats.put("specialties", specialties.size());
+        stats.put("doctorsWithPatientSets", patientsByDoctor.size());
+        stats.put("lookups", lookups.sum());
+        return stats;
+    }
+
+    private void ensureDoctorsLoaded() {
+        if (doctorsLoaded) {
+            return;
+        }
+        synchronized (doctorLock) {
+            if (!doctorsLoaded) {
+                Map<Long, String> names = new HashMap<>();
+                for (DoctorCard doctor : doctorRepository.findAllCards()) {
+                    names.put(doctor.getId(), doctor.getName());
+                    addSpecialty(doctor.getId(), doctor.getSpecialty());
+                }
+                doctorNames.load(names);
+                doctorsLoaded = true;
+            }
+        }
+    }
+
+    private void ensurePatientsLoaded() {
+        if (patientsLoaded) {
+            return;
+        }
+        synchronized (patientLock) {
+            if (!patientsLoaded) {
+                Map<Long, String> names = new HashMap<>();
+                for (Object[] row : patientRepository.findAllNames()) {
+                    names.put((Long) row[0], (String) row[1]);
+                }
+                patientNames.load(names);
+                patientsLoaded = true;
+            }
+        }
+    }
+
+    // Caller holds doctorLock
+    private void putDoctor(DoctorCard doctor) {
+        doctorNames.put(doctor.getId(), doctor.getName());
+        removeSpecialty(doctor.getId());
+        addSpecialty(doctor.getId(), doctor.getSpecialty());
+    }
+
+    // Caller holds doctorLock
+    private void addSpecialty(Long doctorId, String label) {
+        String key = PrefixIndex.normalize(label);
+        if (key.isEmpty()) {
+            return;
+        }
+        specialtyOfDoctor.put(doctorId, key);
+        specialties.merge(key, new Specialty(label, 1), (current, added) -> new Specialty(current.label, current.doctors + 1));
+    }
+
+    // Caller holds doctorLock
+    private void removeSpecialty(Long doctorId) {
+        String key = specialtyOfDoctor.remove(doctorId);
+        if (key != null) {
+            specialties.computeIfPresent(key, (k, current) ->
+                    current.doctors <= 1 ? null : new Specialty(current.label, current.doctors - 1));
+        }
+    }
+
+    private static Map<String, Object> match(Long id, String name) {
+        Map<String, Object> match = new HashMap<>();
+        match.put("id", id);
+        match.put("name", name);
+        return match;
+    }
+}
@@ -173,6 +173,7 @@ export function attachHeaderButtonListeners() {
 
 //  14. **logout**: Removes user session data and redirects the user to the root page.
 export function logout() {
+  revokeToken();
   // Clear user session data from localStorage
   localStorage.removeItem("userRole");
   localStorage.removeItem("token");
@@ -194,6 +195,7 @@ export function attachLogoutListener() {
 
 //  15. **logoutPatient**: Removes the patient's session token and redirects to the patient dashboard.
 export function logoutPatient() {
+  revokeToken();
   // Remove only the patient's token from localStorage
   localStorage.removeItem("token");
 
@@ -201,6 +203,15 @@ export function logoutPatient() {
   window.location.href = "/patient/dashboard";
 }
 
+// Revokes the current token on the server so it stops working before its expiry.
+// `keepalive` lets the request finish while the page navigates away; failures are ignored.
+function revokeToken() {
+  const token = localStorage.getItem("token");
+  if (token) {
+    fetch(`/auth/logout/${token}`, { method: "POST", keepalive: true }).catch(() => {});
+  }
+}
+
 export function attachPatientLogoutListener() {
   const patientLogoutLink = document.getElementById("patientLogoutLink");
   if (patientLogoutLink) {
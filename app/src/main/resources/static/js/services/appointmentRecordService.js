@@ -1,11 +1,12 @@
 // appointmentRecordService.js
 import { API_BASE_URL } from "../config/config.js";
+import { authHeaders } from "../util.js";
 const APPOINTMENT_API = `${API_BASE_URL}/appointments`;
 
 
 //This is for the doctor to get all the patient Appointments
 export async function getAllAppointments(date, patientName, token) {
-  const response = await fetch(`${APPOINTMENT_API}/${date}/${patientName}/${token}`);
+  const response = await fetch(`${APPOINTMENT_API}/${date}/${patientName}`, { headers: authHeaders(token) });
   if (!response.ok) {
     throw new Error("Failed to fetch appointments");
   }
@@ -60,3 +61,37 @@ export async function updateAppointment(appointment, token) {
     };
   }
 }
+
+// Holds a slot for a short time while the patient confirms the booking, so other patients stop seeing it.
+// `dateTime` is the slot start, e.g. "2025-06-01T09:00".
+export async function holdSlot(doctorId, dateTime, token) {
+  try {
+    const response = await fetch(`${APPOINTMENT_API}/hold/${doctorId}/${dateTime}/${token}`, {
+      method: "POST"
+    });
+
+    const data = await response.json();
+    return {
+      success: response.ok,
+      expiresAt: data.expiresAt,
+      message: data.message || "Something went wrong"
+    };
+  } catch (error) {
+    console.error("Error while holding appointment time:", error);
+    return {
+      success: false,
+      message: "Network error. Please try again later."
+    };
+  }
+}
+
+export async function releaseHold(doctorId, dateTime, token) {
+  try {
+    await fetch(`${APPOINTMENT_API}/hold/${doctorId}/${dateTime}/${token}`, {
+      method: "DELETE",
+      keepalive: true
+    });
+  } catch (error) {
+    console.error("Error while releasing appointment time:", error);
+  }
+}
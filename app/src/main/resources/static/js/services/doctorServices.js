@@ -125,6 +125,89 @@ export async function filterDoctors(name ,time ,specialty) {
       }
 }
 
+// Fetches one keyset page of doctors: pass the returned nextCursor as `after` for the next page (null after the last one).
+export async function getDoctorsPage(after = 0, limit = 50) {
+    try {
+          const response = await fetch(`${DOCTOR_API}/doctors?after=${after}&limit=${limit}`, {
+              method: 'GET',
+              headers: { 'Content-Type': 'application/json' }
+          });
+          const result = await response.json();
+          if (!response.ok) {
+            throw new Error(result.error);
+          }
+          return { doctors: result.doctors, nextCursor: result.nextCursor };
+      }
+    catch (error) {
+              console.error("Error :: getDoctorsPage :: ", error)
+              return { doctors: [], nextCursor: null };
+      }
+}
+
+// Fetches the doctor counts for filter dropdowns and summary tiles:
+// { total, am, pm, specialties: [{ specialty, doctors, am, pm }] }.
+export async function getDoctorFacets() {
+    try {
+          const response = await fetch(`${DOCTOR_API}/facets`);
+          if (!response.ok) {
+            throw new Error(response.statusText);
+          }
+          return await response.json();
+      }
+    catch (error) {
+              console.error("Error :: getDoctorFacets :: ", error)
+              return { total: 0, am: 0, pm: 0, specialties: [] };
+      }
+}
+
+// Completes a search-box prefix: { doctors: [{id, name}], specialties: [label] }, each list at most `limit` long.
+export async function typeaheadDoctors(query, limit = 10) {
+    try {
+          const response = await fetch(`${DOCTOR_API}/typeahead?q=${encodeURIComponent(query)}&limit=${limit}`);
+          const result = await response.json();
+          if (!response.ok) {
+            throw new Error(result.error);
+          }
+          return result;
+      }
+    catch (error) {
+              console.error("Error :: typeaheadDoctors :: ", error)
+              return { doctors: [], specialties: [] };
+      }
+}
+
+// Completes a patient name among the signed-in doctor's own patients: { patients: [{id, name}] }.
+export async function typeaheadPatients(token, query, limit = 10) {
+    try {
+          const response = await fetch(`${DOCTOR_API}/typeahead/patients/${token}?q=${encodeURIComponent(query)}&limit=${limit}`);
+          const result = await response.json();
+          if (!response.ok) {
+            throw new Error(result.error || result.message);
+          }
+          return result;
+      }
+    catch (error) {
+              console.error("Error :: typeaheadPatients :: ", error)
+              return { patients: [] };
+      }
+}
+
+// Subscribes to pushed availability changes instead of polling /doctor/availability.
+// `handlers` may define onTaken(change), onFreed(change) and onRefresh(change); change carries doctorId, date, slot and time.
+// A refresh without doctorId (the connection fell behind) means every watched doctor has to be re-fetched.
+// Returns the EventSource; call close() on it when the view goes away. The browser reconnects by itself.
+export function subscribeAvailability(user, token, doctorIds = [], dates = [], handlers = {}) {
+    const params = new URLSearchParams();
+    if (doctorIds.length > 0) params.set("doctors", doctorIds.join(","));
+    if (dates.length > 0) params.set("dates", dates.join(","));
+
+    const source = new EventSource(`${DOCTOR_API}/availability/stream/${user}/${token}?${params}`);
+    source.addEventListener("slot-taken", e => handlers.onTaken && handlers.onTaken(JSON.parse(e.data)));
+    source.addEventListener("slot-freed", e => handlers.onFreed && handlers.onFreed(JSON.parse(e.data)));
+    source.addEventListener("refresh", e => handlers.onRefresh && handlers.onRefresh(JSON.parse(e.data)));
+    return source;
+}
+
 /*
   Import the base API URL from the config file
   Define a constant DOCTOR_API to hold the full endpoint for doctor-related actions
@@ -12,3 +12,10 @@
     localStorage.removeItem("userRole");
   }
   
+
+// Request headers carrying the token as `Authorization: Bearer`, for the routes without `/{token}` in the path.
+// Those URLs are the same for every user, so the browser and proxies can cache the shared ones, and tokens stay out of logs.
+// `headers` adds further headers, e.g. { "Content-Type": "application/json" }.
+export function authHeaders(token, headers = {}) {
+  return token ? { ...headers, Authorization: `Bearer ${token}` } : { ...headers };
+}
@@ -0,0 +1,60 @@
+package com.project.back_end.DTO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.Test;
+
+// Slot lookup, labels and masks of `SlotGrid`.
+class SlotGridTest {
+
+    @Test
+    void sortsStartsAndMapsExactStartTimesToSlots() {
+        SlotGrid grid = new SlotGrid(new int[] {14 * 60 + 30, 9 * 60, 9 * 60 + 45}, 45);
+
+        assertEquals(3, grid.size());
+        assertEquals(45, grid.slotMinutes());
+        assertEquals(9 * 60, grid.startMinute(0));
+        assertEquals(0, grid.slotIndex(LocalTime.of(9, 0)));
+        assertEquals(1, grid.slotIndex(LocalTime.of(9, 45)));
+        assertEquals(2, grid.slotIndex(LocalDateTime.of(2030, 1, 7, 14, 30)));
+    }
+
+    @Test
+    void timesThatAreNotASlotStartHaveNoSlot() {
+        SlotGrid grid = SlotGrid.DEFAULT;
+
+        assertEquals(-1, grid.slotIndex(LocalTime.of(9, 30)));
+        assertEquals(-1, grid.slotIndex(LocalTime.of(12, 0)));
+        assertEquals(-1, grid.slotIndex(LocalTime.of(9, 0, 1)));
+        assertEquals(-1, grid.slotIndex(LocalTime.of(9, 0).plusNanos(1)));
+    }
+
+    @Test
+    void formatsLabelsOnce() {
+        assertEquals("09:00 AM", SlotGrid.DEFAULT.label(0));
+        assertEquals("01:00 PM", SlotGrid.DEFAULT.label(3));
+    }
+
+    @Test
+    void allSlotsHasOneBitPerSlot() {
+        assertEquals(0b111111L, SlotGrid.DEFAULT.allSlots());
+        assertEquals(0L, new SlotGrid(new int[0], 60).allSlots());
+
+        int[] starts = new int[SlotGrid.MAX_SLOTS];
+        for (int i = 0; i < starts.length; i++) {
+            starts[i] = i * 15;
+        }
+        assertEquals(-1L, new SlotGrid(starts, 15).allSlots());
+    }
+
+    @Test
+    void rejectsTooManySlotsAndStartsOutsideTheDay() {
+        assertThrows(IllegalArgumentException.class, () -> new SlotGrid(new int[SlotGrid.MAX_SLOTS + 1], 5));
+        assertThrows(IllegalArgumentException.class, () -> new SlotGrid(new int[] {24 * 60}, 60));
+        assertThrows(IllegalArgumentException.class, () -> new SlotGrid(new int[] {-1}, 60));
+    }
+}
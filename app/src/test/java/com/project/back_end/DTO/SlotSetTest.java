@@ -0,0 +1,41 @@
+package com.project.back_end.DTO;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+// Membership and label serialization of `SlotSet`.
+class SlotSetTest {
+
+    @Test
+    void serializesSetBitsAsLabelsInSlotOrder() {
+        SlotSet slots = new SlotSet(SlotGrid.DEFAULT, 0b101001L);
+
+        assertEquals(List.of("09:00 AM", "01:00 PM", "03:00 PM"), slots.toLabels());
+        assertEquals("[09:00 AM, 01:00 PM, 03:00 PM]", slots.toString());
+    }
+
+    @Test
+    void containsOnlyItsSlots() {
+        SlotSet slots = new SlotSet(SlotGrid.DEFAULT, 0b10L);
+
+        assertTrue(slots.contains(1));
+        assertFalse(slots.contains(0));
+        assertFalse(slots.contains(-1));
+        assertFalse(slots.isEmpty());
+        assertTrue(new SlotSet(SlotGrid.DEFAULT, 0L).isEmpty());
+    }
+
+    @Test
+    void dropsBitsOutsideTheGrid() {
+        SlotSet slots = new SlotSet(SlotGrid.DEFAULT, -1L);
+
+        assertEquals(SlotGrid.DEFAULT.allSlots(), slots.getMask());
+        assertFalse(slots.contains(SlotGrid.DEFAULT.size()));
+        assertEquals(SlotGrid.DEFAULT.size(), slots.toLabels().size());
+    }
+}
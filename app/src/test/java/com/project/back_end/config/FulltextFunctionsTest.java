@@ -0,0 +1,42 @@
+package com.project.back_end.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+// Boolean-mode queries built by `FulltextFunctions` for the ngram FULLTEXT indexes, and the in-memory substring test
+// used when no query can be built.
+class FulltextFunctionsTest {
+
+    @Test
+    void searchesEveryWordTheIndexCanMatchAsAPhrase() {
+        assertEquals("+\"tor\" +\"12\"", FulltextFunctions.booleanQuery("Tor 12"));
+        assertEquals("+\"seeded\" +\"doctor\"", FulltextFunctions.booleanQuery("  SEEDED   doctor "));
+    }
+
+    @Test
+    void skipsWordsShorterThanTheTokenSize() {
+        assertEquals("+\"smith\"", FulltextFunctions.booleanQuery("j smith"));
+        assertNull(FulltextFunctions.booleanQuery("r 1"));
+        assertNull(FulltextFunctions.booleanQuery("d"));
+        assertNull(FulltextFunctions.booleanQuery(" "));
+        assertNull(FulltextFunctions.booleanQuery(null));
+    }
+
+    @Test
+    void quotesCannotEndThePhrase() {
+        assertEquals("+\"o+brien\"", FulltextFunctions.booleanQuery("o\"+brien\""));
+        assertNull(FulltextFunctions.booleanQuery("\"a\""));
+    }
+
+    @Test
+    void containsIgnoreCaseMatchesAnySubstring() {
+        assertTrue(FulltextFunctions.containsIgnoreCase("Seeded Doctor 12", "r 1"));
+        assertTrue(FulltextFunctions.containsIgnoreCase("Seeded Doctor 12", "DOC"));
+        assertFalse(FulltextFunctions.containsIgnoreCase("Seeded Doctor 12", "doctor 2"));
+        assertFalse(FulltextFunctions.containsIgnoreCase(null, "d"));
+    }
+}
@@ -0,0 +1,45 @@
+package com.project.back_end.models;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+// Encoding of a doctor's available times as the `availableHours` / `availablePeriods` bitmasks.
+class DoctorTest {
+
+    @Test
+    void storesOneHourSlotsAsHourBits() {
+        Doctor doctor = new Doctor();
+        doctor.setAvailableTimes(List.of("14:00-15:00", " 09:00-10:00 "));
+
+        assertEquals(1 << 9 | 1 << 14, doctor.getAvailableHours());
+        assertEquals(Doctor.PERIOD_AM | Doctor.PERIOD_PM, doctor.getAvailablePeriods());
+        assertEquals(List.of("09:00-10:00", "14:00-15:00"), doctor.getAvailableTimes());
+    }
+
+    @Test
+    void mapsAmAndPmToTheDefaultMorningAndAfternoonSlots() {
+        Doctor doctor = new Doctor();
+        doctor.setAvailableTimes(List.of("am"));
+        assertEquals(List.of("09:00-10:00", "10:00-11:00", "11:00-12:00"), doctor.getAvailableTimes());
+        assertEquals(Doctor.PERIOD_AM, doctor.getAvailablePeriods());
+
+        doctor.setAvailableTimes(List.of("PM", "10:00-11:00"));
+        assertEquals(List.of("10:00-11:00", "13:00-14:00", "14:00-15:00", "15:00-16:00"), doctor.getAvailableTimes());
+        assertEquals(Doctor.PERIOD_AM | Doctor.PERIOD_PM, doctor.getAvailablePeriods());
+    }
+
+    @Test
+    void rejectsOtherValues() {
+        Doctor doctor = new Doctor();
+        assertThrows(IllegalArgumentException.class, () -> doctor.setAvailableTimes(List.of("09:00-11:00")));
+        assertThrows(IllegalArgumentException.class, () -> doctor.setAvailableTimes(List.of("noon")));
+        assertThrows(IllegalArgumentException.class, () -> doctor.setAvailableTimes(List.of("24:00-25:00")));
+
+        doctor.setAvailableTimes(null);
+        assertEquals(0, doctor.getAvailableHours());
+    }
+}
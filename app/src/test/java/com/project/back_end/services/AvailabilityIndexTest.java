@@ -0,0 +1,151 @@
+package com.project.back_end.services;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.project.back_end.events.AppointmentChangedEvent;
+import com.project.back_end.events.DoctorChangedEvent;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorScheduleRepository;
+
+// Lazy loading and in-place updates of the booked-slot masks of `AvailabilityIndex`, against a mocked repository that
+// answers from an in-memory list of appointment times and counts its queries. Doctors have no schedule, so every day
+// uses `SlotGrid.DEFAULT` (09:00, 10:00, 11:00, 13:00, 14:00, 15:00).
+class AvailabilityIndexTest {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(7);
+
+    private final List<Object[]> rows = new ArrayList<>();
+    private final AtomicInteger queries = new AtomicInteger();
+    private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+    private final AvailabilityIndex index = new AvailabilityIndex(appointmentRepository,
+            new DoctorScheduleService(mock(DoctorScheduleRepository.class)));
+
+    // Both queries take (doctor id or ids, start inclusive, end exclusive) and read `rows`
+    @BeforeEach
+    void answerQueriesFromRows() {
+        when(appointmentRepository.findAppointmentTimesByDoctorIdBetween(any(), any(), any())).thenAnswer(invocation -> {
+            queries.incrementAndGet();
+            return rows.stream()
+                    .filter(row -> row[0].equals(invocation.getArgument(0)) && inRange((LocalDateTime) row[1], invocation.getArguments()))
+                    .map(row -> (LocalDateTime) row[1])
+                    .toList();
+        });
+        when(appointmentRepository.findAppointmentTimesByDoctorIdsBetween(any(), any(), any())).thenAnswer(invocation -> {
+            queries.incrementAndGet();
+            List<Long> doctorIds = invocation.getArgument(0);
+            return rows.stream()
+                    .filter(row -> doctorIds.contains(row[0]) && inRange((LocalDateTime) row[1], invocation.getArguments()))
+                    .toList();
+        });
+    }
+
+    @Test
+    void loadsADayOnceAndAnswersLaterChecksFromMemory() {
+        book(1L, at(10));
+        book(1L, at(15));
+        book(1L, DAY.plusDays(1).atTime(9, 0));
+
+        assertEquals(0b100010L, index.getBookedMask(1L, DAY));
+        assertFalse(index.isFree(1L, at(10)));
+        assertTrue(index.isFree(1L, at(9)));
+        assertEquals(1, queries.get());
+        assertEquals(2L, index.getStats().get("hits"));
+    }
+
+    @Test
+    void offGridTimesAreNeverFree() {
+        assertFalse(index.isFree(1L, at(12)));
+        assertFalse(index.isFree(1L, DAY.atTime(9, 30)));
+    }
+
+    @Test
+    void appliesCommittedChangesToIndexedDays() {
+        assertEquals(0L, index.getBookedMask(1L, DAY));
+
+        index.onAppointmentChanged(AppointmentChangedEvent.booked(1L, 5L, at(9)));
+        assertEquals(0b1L, index.getBookedMask(1L, DAY));
+
+        index.onAppointmentChanged(AppointmentChangedEvent.updated(3L, 1L, 5L, at(11), 1L, at(9)));
+        assertEquals(0b100L, index.getBookedMask(1L, DAY));
+
+        // Status changes keep the slot booked
+        index.onAppointmentChanged(AppointmentChangedEvent.statusChanged(3L, 1L, 5L, at(11)));
+        assertEquals(0b100L, index.getBookedMask(1L, DAY));
+
+        index.onAppointmentChanged(AppointmentChangedEvent.canceled(3L, 1L, 5L, at(11)));
+        assertEquals(0L, index.getBookedMask(1L, DAY));
+        assertEquals(1, queries.get());
+    }
+
+    @Test
+    void changesToDaysNotIndexedYetAreReadFromTheDatabaseLater() {
+        index.onAppointmentChanged(AppointmentChangedEvent.booked(1L, 5L, at(13)));
+        book(1L, at(13));
+
+        assertEquals(0b1000L, index.getBookedMask(1L, DAY));
+        assertEquals(1, queries.get());
+    }
+
+    @Test
+    void scheduleChangeDropsOnlyThatDoctorsDays() {
+        index.getBookedMask(1L, DAY);
+        index.getBookedMask(2L, DAY);
+        book(1L, at(14));
+
+        index.onDoctorChanged(new DoctorChangedEvent(DoctorChangedEvent.Type.SCHEDULE_CHANGED, 1L));
+        assertEquals(0b10000L, index.getBookedMask(1L, DAY));
+        assertEquals(0L, index.getBookedMask(2L, DAY));
+        assertEquals(3, queries.get());
+
+        // Other doctor changes keep the indexed days
+        index.onDoctorChanged(new DoctorChangedEvent(DoctorChangedEvent.Type.UPDATED, 1L));
+        index.getBookedMask(1L, DAY);
+        assertEquals(3, queries.get());
+    }
+
+    @Test
+    void batchLoadsMissingDoctorsWithOneQuery() {
+        book(1L, at(9));
+        book(2L, DAY.plusDays(1).atTime(11, 0));
+        book(3L, DAY.plusDays(2).atTime(15, 0));
+        index.getBookedMask(1L, DAY);
+        index.getBookedMask(1L, DAY.plusDays(1));
+
+        long[][] masks = index.getBookedMasks(List.of(1L, 2L, 3L), DAY, DAY.plusDays(2));
+        assertArrayEquals(new long[] {0b1L, 0L, 0L}, masks[0]);
+        assertArrayEquals(new long[] {0L, 0b100L, 0L}, masks[1]);
+        assertArrayEquals(new long[] {0L, 0L, 0b100000L}, masks[2]);
+        // Two single-day loads, then one grouped query for every doctor with a day missing
+        assertEquals(3, queries.get());
+
+        index.getBookedMasks(List.of(1L, 2L, 3L), DAY, DAY.plusDays(2));
+        assertEquals(3, queries.get());
+    }
+
+    private void book(Long doctorId, LocalDateTime time) {
+        rows.add(new Object[] {doctorId, time});
+    }
+
+    private static LocalDateTime at(int hour) {
+        return DAY.atTime(hour, 0);
+    }
+
+    private static boolean inRange(LocalDateTime time, Object[] args) {
+        return !time.isBefore((LocalDateTime) args[1]) && time.isBefore((LocalDateTime) args[2]);
+    }
+}
@@ -0,0 +1,146 @@
+package com.project.back_end.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.back_end.events.DoctorChangedEvent;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorScheduleRepository;
+
+// Stalled clients of `AvailabilityStream`, with emitters that record their frames instead of writing to a response.
+// The blocking emitter holds its sender thread in `send` the way a write to a client that stopped reading does, until
+// the test lets it fail as the connector's write timeout would. The heartbeat runs by hand on a hand-moved clock.
+class AvailabilityStreamTest {
+
+    private static final long SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong now = new AtomicLong(1_000 * SECOND_NANOS);
+    private final ConcurrentLinkedQueue<SseEmitter> nextEmitters = new ConcurrentLinkedQueue<>();
+    private final AvailabilityStream stream = new AvailabilityStream(
+            new AvailabilityIndex(mock(AppointmentRepository.class), new DoctorScheduleService(mock(DoctorScheduleRepository.class))),
+            new ObjectMapper(), 2, 30, 2, now::get, timeout -> nextEmitters.remove());
+
+    @AfterEach
+    void shutdown() {
+        stream.shutdown();
+    }
+
+    @Test
+    void stalledSubscriberIsDroppedWhileOthersKeepReceiving() throws Exception {
+        BlockingEmitter stuck = new BlockingEmitter();
+        RecordingEmitter healthy = new RecordingEmitter();
+        nextEmitters.add(stuck);
+        nextEmitters.add(healthy);
+
+        assertNotNull(stream.subscribe(Set.of(1L), Set.of()));
+        assertTrue(stuck.writing.await(5, TimeUnit.SECONDS));
+        assertNotNull(stream.subscribe(Set.of(1L), Set.of()));
+        awaitTrue(() -> healthy.received("event:subscribed"));
+        assertNull(stream.subscribe(Set.of(1L), Set.of()));   // both permits taken
+
+        // Blocked for less than the send timeout: still subscribed
+        now.addAndGet(5 * SECOND_NANOS);
+        stream.heartbeat();
+        assertEquals(0L, stream.getStats().get("stalled"));
+        assertEquals(2, stream.getStats().get("subscribers"));
+
+        // Past it the heartbeat drops the client and frees its permit without waiting for the write
+        now.addAndGet(6 * SECOND_NANOS);
+        stream.heartbeat();
+        assertEquals(1L, stream.getStats().get("stalled"));
+        assertEquals(1, stream.getStats().get("subscribers"));
+        RecordingEmitter next = new RecordingEmitter();
+        nextEmitters.add(next);
+        assertNotNull(stream.subscribe(Set.of(1L), Set.of()));
+
+        // The other sender thread keeps serving the rest; nothing more is queued for the stalled client
+        stream.onDoctorChanged(new DoctorChangedEvent(DoctorChangedEvent.Type.SCHEDULE_CHANGED, 1L));
+        awaitTrue(() -> healthy.received("event:refresh") && next.received("event:refresh"));
+        assertEquals(1, stuck.sends.get());
+        assertFalse(stuck.completed);
+
+        // The write fails as the connector's write timeout makes it, and the sender thread ends the stream
+        stuck.timedOut.countDown();
+        awaitTrue(() -> stuck.completed);
+        assertInstanceOf(IOException.class, stuck.failure);
+        assertEquals(1, stuck.sends.get());
+        assertEquals(1L, stream.getStats().get("dropped"));
+        assertEquals(2, stream.getStats().get("subscribers"));
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + 5 * SECOND_NANOS;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.sleep(5);
+        }
+    }
+
+    // Keeps the text of every frame and how the stream was ended
+    private static class RecordingEmitter extends SseEmitter {
+        final List<String> frames = new CopyOnWriteArrayList<>();
+        final AtomicLong sends = new AtomicLong();
+        volatile boolean completed;
+        volatile Throwable failure;
+
+        @Override
+        public synchronized void send(Set<DataWithMediaType> frame) throws IOException {
+            sends.incrementAndGet();
+            frames.add(frame.stream().map(part -> String.valueOf(part.getData())).collect(Collectors.joining()));
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+        }
+
+        @Override
+        public synchronized void completeWithError(Throwable failure) {
+            this.failure = failure;
+            completed = true;
+        }
+
+        boolean received(String text) {
+            return frames.stream().anyMatch(frame -> frame.contains(text));
+        }
+    }
+
+    // Blocks in `send` while holding the emitter's monitor, as `ResponseBodyEmitter` does during a write
+    private static class BlockingEmitter extends RecordingEmitter {
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch timedOut = new CountDownLatch(1);
+
+        @Override
+        public synchronized void send(Set<DataWithMediaType> frame) throws IOException {
+            sends.incrementAndGet();
+            writing.countDown();
+            try {
+                timedOut.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IOException("write timed out");
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.project.back_end.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import com.project.back_end.DTO.SlotGrid;
+import com.project.back_end.events.AppointmentChangedEvent;
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.DoctorScheduleRepository;
+import com.project.back_end.repo.PatientRepository;
+
+// Contention benchmark for `AppointmentService.bookAppointment`: many patients race for the same slots.
+// The appointment repository is a mock backed by an in-memory map that enforces the (doctor_id, appointment_time)
+// unique constraint and charges a fixed round trip per booking statement, so the numbers show the cost of the locking
+// and conflict handling.
+// Run with: mvn test -Dtest=BookingContentionBenchmark -Dbenchmark=true
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BookingContentionBenchmark {
+
+    private static final int THREADS = 32;
+    private static final int DOCTORS = 8;
+    private static final int DAYS = 30;
+    private static final long WRITE_ROUND_TRIP_NANOS = 200_000L;
+
+    @Test
+    void everySlotIsBookedExactlyOnce(TestReporter reporter) throws Exception {
+        ConcurrentHashMap<String, Appointment> rows = new ConcurrentHashMap<>();
+        AtomicInteger refusedInserts = new AtomicInteger();
+        AppointmentRepository appointmentRepository = fakeAppointmentRepository(rows, refusedInserts);
+        AvailabilityIndex index = new AvailabilityIndex(appointmentRepository,
+                new DoctorScheduleService(stub(DoctorScheduleRepository.class)));
+        BookingLocks locks = new BookingLocks();
+        PatientRepository patientRepository = stub(PatientRepository.class);
+        when(patientRepository.existsById(any())).thenReturn(true);
+        DoctorRepository doctorRepository = stub(DoctorRepository.class);
+        when(doctorRepository.existsById(any())).thenReturn(true);
+        AppointmentService service = new AppointmentService(appointmentRepository, patientRepository, doctorRepository, index, locks, new SlotHoldService(120),
+                event -> index.onAppointmentChanged((AppointmentChangedEvent) event));
+
+        // Every thread tries every slot, in its own order
+        LocalDate firstDay = LocalDate.now().plusDays(1);
+        List<Appointment> requests = new ArrayList<>();
+        for (long doctorId = 1; doctorId <= DOCTORS; doctorId++) {
+            for (int day = 0; day < DAYS; day++) {
+                for (int slot = 0; slot < SlotGrid.DEFAULT.size(); slot++) {
+                    requests.add(appointment(doctorId, firstDay.plusDays(day).atStartOfDay()
+                            .plusMinutes(SlotGrid.DEFAULT.startMinute(slot))));
+                }
+            }
+        }
+
+        AtomicInteger booked = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        AtomicInteger errors = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        for (int t = 0; t < THREADS; t++) {
+            List<Appointment> order = new ArrayList<>(requests);
+            Collections.shuffle(order);
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (Appointment request : order) {
+                    int result = service.bookAppointment(copy(request));
+                    if (result == 1) {
+                        booked.incrementAndGet();
+                    } else if (result == -1) {
+                        conflicts.incrementAndGet();
+                    } else {
+                        errors.incrementAndGet();
+                    }
+                }
+            });
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.MINUTES);
+        double seconds = (System.nanoTime() - began) / 1e9;
+
+        int attempts = THREADS * requests.size();
+        reporter.publishEntry("throughput", String.format("%d threads, %d slots, %d attempts in %.2f s (%.0f attempts/s)",
+                THREADS, requests.size(), attempts, seconds, attempts / seconds));
+        reporter.publishEntry("outcomes", String.format("booked=%d conflicts=%d errors=%d rows=%d refusedInserts=%d locks=%s",
+                booked.get(), conflicts.get(), errors.get(), rows.size(), refusedInserts.get(), locks.getStats()));
+
+        assertTrue(pool.isTerminated(), "booking threads did not finish");
+        // No double bookings and no lost slots: each slot is stored once and every other attempt saw a conflict
+        assertEquals(requests.size(), booked.get());
+        assertEquals(requests.size(), rows.size());
+        assertEquals(attempts - requests.size(), conflicts.get());
+        assertEquals(0, errors.get());
+        // On one node the doctor lock and the index turn contenders away before they reach the database
+        assertEquals(0, refusedInserts.get());
+        for (long doctorId = 1; doctorId <= DOCTORS; doctorId++) {
+            for (int day = 0; day < DAYS; day++) {
+                assertEquals(SlotGrid.DEFAULT.allSlots(), index.getBookedMask(doctorId, firstDay.plusDays(day)));
+            }
+        }
+    }
+
+    // `refusedInserts` counts inserts that reached the database for a slot that was already taken
+    private static AppointmentRepository fakeAppointmentRepository(ConcurrentHashMap<String, Appointment> rows,
+                                                                   AtomicInteger refusedInserts) {
+        AppointmentRepository repository = stub(AppointmentRepository.class);
+        when(repository.insertIfSlotFree(any(), any(), any(), anyInt())).thenAnswer(invocation -> {
+            Long doctorId = invocation.getArgument(0);
+            LocalDateTime time = invocation.getArgument(2);
+            LockSupport.parkNanos(WRITE_ROUND_TRIP_NANOS);
+            if (rows.putIfAbsent(key(doctorId, time), appointment(doctorId, time)) != null) {
+                refusedInserts.incrementAndGet();
+                return 0;
+            }
+            return 1;
+        });
+        when(repository.findAppointmentTimesByDoctorIdBetween(any(), any(), any())).thenAnswer(invocation -> {
+            Long doctorId = invocation.getArgument(0);
+            LocalDateTime from = invocation.getArgument(1);
+            LocalDateTime to = invocation.getArgument(2);
+            return rows.values().stream()
+                    .filter(a -> a.getDoctor().getId().equals(doctorId))
+                    .map(Appointment::getAppointmentTime)
+                    .filter(time -> !time.isBefore(from) && time.isBefore(to))
+                    .toList();
+        });
+        return repository;
+    }
+
+    // Mock that keeps no record of its calls, which would otherwise grow with every booking attempt
+    private static <T> T stub(Class<T> repository) {
+        return mock(repository, withSettings().stubOnly());
+    }
+
+    private static Appointment appointment(Long doctorId, LocalDateTime time) {
+        Doctor doctor = new Doctor();
+        doctor.setId(doctorId);
+        Patient patient = new Patient();
+        patient.setId(1L);
+        Appointment appointment = new Appointment();
+        appointment.setDoctor(doctor);
+        appointment.setPatient(patient);
+        appointment.setStatus(0);
+        appointment.setAppointmentTime(time);
+        return appointment;
+    }
+
+    private static Appointment copy(Appointment request) {
+        return appointment(request.getDoctor().getId(), request.getAppointmentTime());
+    }
+
+    private static String key(Long doctorId, LocalDateTime time) {
+        return doctorId + "@" + time;
+    }
+}
@@ -0,0 +1,109 @@
+package com.project.back_end.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.project.back_end.models.Appointment;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.models.Patient;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+
+// Latency of the booking database work, against the configured database:
+// - "previous": doctor lookup, load of the doctor's whole day of appointments, then the insert (three round trips)
+// - "single statement": `AppointmentRepository.insertIfSlotFree` (one round trip)
+// Uses the first doctor and patient found and slots five years ahead, which are deleted afterwards.
+// Run with: mvn test -Dtest=BookingPathBenchmark -Dbenchmark=true
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BookingPathBenchmark {
+
+    private static final int WARMUP = 50;
+    private static final int BOOKINGS = 500;
+
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+    @Autowired
+    private DoctorRepository doctorRepository;
+    @Autowired
+    private PatientRepository patientRepository;
+
+    @Test
+    void comparePreviousAndSingleStatementBooking(TestReporter reporter) {
+        List<Doctor> doctors = doctorRepository.findAll();
+        List<Patient> patients = patientRepository.findAll();
+        assumeTrue(!doctors.isEmpty() && !patients.isEmpty(), "needs at least one doctor and one patient");
+        Doctor doctor = doctors.get(0);
+        Patient patient = patients.get(0);
+
+        // One slot per hour, previous path first, then the single statement on the following slots
+        LocalDateTime windowStart = LocalDateTime.now().plusYears(5).withMinute(0).withSecond(0).withNano(0);
+        LocalDateTime windowEnd = windowStart.plusHours(2L * (WARMUP + BOOKINGS));
+        try {
+            long[] previous = new long[BOOKINGS];
+            long[] single = new long[BOOKINGS];
+            int slot = 0;
+            for (int i = -WARMUP; i < BOOKINGS; i++, slot++) {
+                long nanos = bookPrevious(doctor, patient, windowStart.plusHours(slot));
+                if (i >= 0) {
+                    previous[i] = nanos;
+                }
+            }
+            for (int i = -WARMUP; i < BOOKINGS; i++, slot++) {
+                long begin = System.nanoTime();
+                int inserted = appointmentRepository.insertIfSlotFree(doctor.getId(), patient.getId(), windowStart.plusHours(slot), 0);
+                long nanos = System.nanoTime() - begin;
+                assertEquals(1, inserted);
+                if (i >= 0) {
+                    single[i] = nanos;
+                }
+            }
+
+            // The single statement refuses a slot that is already taken, so a retry cannot double-book
+            assertEquals(0, appointmentRepository.insertIfSlotFree(doctor.getId(), patient.getId(), windowStart, 0));
+            assertEquals(slot, appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(
+                    doctor.getId(), windowStart, windowEnd).size());
+
+            long previousMedian = report(reporter, "previous", previous);
+            long singleMedian = report(reporter, "single statement", single);
+            // One round trip instead of three
+            assertTrue(singleMedian < previousMedian,
+                    "single statement p50 " + singleMedian + " ns is not below previous p50 " + previousMedian + " ns");
+        } finally {
+            appointmentRepository.deleteAll(
+                    appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(doctor.getId(), windowStart, windowEnd));
+        }
+    }
+
+    // The database work of the booking path before the single statement
+    private long bookPrevious(Doctor doctor, Patient patient, LocalDateTime time) {
+        long begin = System.nanoTime();
+        Doctor found = doctorRepository.findById(doctor.getId()).orElseThrow();
+        appointmentRepository.findByDoctorIdAndAppointmentTimeBetween(found.getId(),
+                time.toLocalDate().atStartOfDay(), time.toLocalDate().plusDays(1).atStartOfDay());
+        appointmentRepository.save(new Appointment(null, found, patient, time, 0));
+        return System.nanoTime() - begin;
+    }
+
+    // Publishes the latency percentiles of one path and returns its median in nanoseconds
+    private static long report(TestReporter reporter, String path, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        reporter.publishEntry(path, String.format("p50=%.2f ms p99=%.2f ms max=%.2f ms (%d bookings)",
+                sorted[sorted.length / 2] / 1e6, sorted[(int) (sorted.length * 0.99)] / 1e6,
+                sorted[sorted.length - 1] / 1e6, sorted.length));
+        return sorted[sorted.length / 2];
+    }
+}
@@ -0,0 +1,65 @@
+package com.project.back_end.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.back_end.repo.DoctorRepository;
+
+// Bytes allocated per listed doctor, against the configured database, for a doctor listing read and serialized as:
+// - "entities": `findAll()`, managed `Doctor` entities with every column
+// - "cards": `findAllCards()`, `DoctorCard` projections built by a JPQL constructor expression
+// Measured with the per-thread allocation counter of the JVM, averaged over the listed doctors.
+// Run with: mvn test -Dtest=DoctorCardAllocationBenchmark -Dbenchmark=true
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class DoctorCardAllocationBenchmark {
+
+    private static final int WARMUP = 20;
+    private static final int ROUNDS = 50;
+
+    @Autowired
+    private DoctorRepository doctorRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void compareEntityAndCardListings(TestReporter reporter) throws Exception {
+        int doctors = (int) doctorRepository.count();
+        assumeTrue(doctors > 0, "needs at least one doctor");
+        assertEquals(doctors, doctorRepository.findAllCards().size());
+
+        double entities = bytesPerDoctor(doctorRepository::findAll, doctors);
+        double cards = bytesPerDoctor(doctorRepository::findAllCards, doctors);
+
+        reporter.publishEntry("allocation", String.format("%d doctors: entities=%.0f B/doctor cards=%.0f B/doctor (%.0f%% less)",
+                doctors, entities, cards, 100 * (1 - cards / entities)));
+        assertTrue(cards < entities, "cards allocate " + cards + " B/doctor, entities " + entities + " B/doctor");
+    }
+
+    private double bytesPerDoctor(Supplier<List<?>> listing, int doctors) throws Exception {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().threadId();
+        long bytes = 0;
+        for (int i = -WARMUP; i < ROUNDS; i++) {
+            long before = threads.getThreadAllocatedBytes(thread);
+            objectMapper.writeValueAsBytes(listing.get());
+            long allocated = threads.getThreadAllocatedBytes(thread) - before;
+            if (i >= 0) {
+                bytes += allocated;
+            }
+        }
+        return (double) bytes / ROUNDS / doctors;
+    }
+}
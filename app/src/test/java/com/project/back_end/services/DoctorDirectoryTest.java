@@ -0,0 +1,159 @@
+package com.project.back_end.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.project.back_end.DTO.DoctorCard;
+import com.project.back_end.events.DoctorChangedEvent;
+import com.project.back_end.repo.DoctorRepository;
+
+// Trigram and specialty search of `DoctorDirectory`, and how its postings and facet counts follow doctor changes.
+// The mocked repository answers from an in-memory table of cards; tests change it, then send the event `DoctorService`
+// would publish.
+class DoctorDirectoryTest {
+
+    private static final int MORNING = 1 << 9;      // 09:00-10:00
+    private static final int AFTERNOON = 1 << 14;   // 14:00-15:00
+
+    private final ConcurrentSkipListMap<Long, DoctorCard> table = new ConcurrentSkipListMap<>();
+    private final DoctorRepository doctorRepository = mock(DoctorRepository.class);
+    private final DoctorDirectory directory = new DoctorDirectory(doctorRepository);
+
+    @BeforeEach
+    void answerQueriesFromTable() {
+        when(doctorRepository.findAllCards()).thenAnswer(invocation -> List.copyOf(table.values()));
+        when(doctorRepository.findCardById(any())).thenAnswer(invocation -> Optional.ofNullable(table.get(invocation.getArgument(0))));
+    }
+
+    @Test
+    void findsNameSubstringsThroughTrigrams() {
+        save(1L, "Alice Morgan", "Cardiologist", MORNING);
+        save(2L, "Bob Morrison", "Dermatologist", AFTERNOON);
+        save(3L, "Carol Smith", "Cardiologist", MORNING | AFTERNOON);
+
+        assertEquals(List.of(1L, 2L), ids(directory.search("MOR", null, null)));
+        assertEquals(List.of(2L), ids(directory.search("rris", null, null)));
+        assertEquals(List.of(3L), ids(directory.search("l s", null, null)));
+        // A trigram nobody has answers without looking at any doctor
+        assertEquals(List.of(), ids(directory.search("xyz", null, null)));
+        assertEquals(4L, directory.getStats().get("indexedSearches"));
+
+        // Queries shorter than a trigram scan the names
+        assertEquals(List.of(1L, 2L, 3L), ids(directory.search("o", null, null)));
+        assertEquals(List.of(1L, 2L), ids(directory.search("mo", null, null)));
+        assertEquals(4L, directory.getStats().get("indexedSearches"));
+    }
+
+    @Test
+    void combinesNameSpecialtyAndPeriod() {
+        save(1L, "Alice Morgan", "Cardiologist", MORNING);
+        save(2L, "Bob Morrison", "Dermatologist", AFTERNOON);
+        save(3L, "Carol Morse", "cardiologist", MORNING | AFTERNOON);
+
+        assertEquals(List.of(1L, 3L), ids(directory.search(null, "CARDIOLOGIST", null)));
+        assertEquals(List.of(3L), ids(directory.search("mor", "cardiologist", "PM")));
+        assertEquals(List.of(2L, 3L), ids(directory.search(null, null, "pm")));
+        assertEquals(List.of(), ids(directory.search(null, null, "noon")));
+        assertEquals(List.of(), ids(directory.search(null, "Neurologist", null)));
+    }
+
+    @Test
+    void pagesByIdAfterTheLastSeenDoctor() {
+        for (long id = 1; id <= 5; id++) {
+            save(id, "Doctor Morgan " + id, "Cardiologist", MORNING);
+        }
+
+        assertEquals(List.of(1L, 2L), ids(directory.search("morgan", null, null, 0L, 2)));
+        assertEquals(List.of(3L, 4L), ids(directory.search("morgan", null, null, 2L, 2)));
+        assertEquals(List.of(5L), ids(directory.search(null, null, null, 4L, 2)));
+    }
+
+    @Test
+    void renamedAndDeletedDoctorsLeaveNoStalePostings() {
+        save(1L, "Alice Morgan", "Cardiologist", MORNING);
+        directory.search(null, null, null);
+        int trigrams = (int) directory.getStats().get("trigrams");
+
+        save(1L, "Alice Hart", "Neurologist", MORNING);
+        directory.onDoctorChanged(new DoctorChangedEvent(DoctorChangedEvent.Type.UPDATED, 1L));
+        assertEquals(List.of(), ids(directory.search("morgan", null, null)));
+        assertEquals(List.of(), ids(directory.search(null, "cardiologist", null)));
+        assertEquals(List.of(1L), ids(directory.search("hart", "neurologist", null)));
+        assertTrue((int) directory.getStats().get("trigrams") < trigrams);
+        assertEquals(1, directory.getStats().get("specialties"));
+
+        table.remove(1L);
+        directory.onDoctorChanged(new DoctorChangedEvent(DoctorChangedEvent.Type.DELETED, 1L));
+        assertEquals(List.of(), ids(directory.search("alice", null, null)));
+        assertEquals(0, directory.getStats().get("trigrams"));
+        assertEquals(0, directory.getStats().get("specialties"));
+    }
+
+    @Test
+    void eventsBeforeTheFirstLoadAreIgnored() {
+        save(1L, "Alice Morgan", "Cardiologist", MORNING);
+        directory.onDoctorChanged(new DoctorChangedEvent(DoctorChangedEvent.Type.CREATED, 1L));
+        assertEquals(0L, directory.getStats().get("refreshes"));
+
+        save(2L, "Bob Morrison", "Dermatologist", AFTERNOON);
+        assertEquals(List.of(1L, 2L), ids(directory.search("mor", null, null)));
+    }
+
+    @Test
+    void facetCountsFollowEveryChange() {
+        save(1L, "Alice Morgan", "Cardiologist", MORNING);
+        save(2L, "Bob Morrison", "cardiologist", AFTERNOON);
+        save(3L, "Carol Smith", "Dermatologist", MORNING | AFTERNOON);
+        save(4L, "Dan Brown", null, 0);
+
+        Map<String, Object> facets = directory.getFacets();
+        assertEquals(4, facets.get("total"));
+        assertEquals(2, facets.get("am"));
+        assertEquals(2, facets.get("pm"));
+        // Specialties are grouped case-insensitively under the first spelling seen, in lower-cased order
+        assertEquals(List.of(facet("Cardiologist", 2, 1, 1), facet("Dermatologist", 1, 1, 1)), facets.get("specialties"));
+
+        save(2L, "Bob Morrison", "Dermatologist", MORNING);
+        directory.onDoctorChanged(new DoctorChangedEvent(DoctorChangedEvent.Type.UPDATED, 2L));
+        table.remove(3L);
+        directory.onDoctorChanged(new DoctorChangedEvent(DoctorChangedEvent.Type.DELETED, 3L));
+        save(5L, "Eve Adams", "Neurologist", AFTERNOON);
+        directory.onDoctorChanged(new DoctorChangedEvent(DoctorChangedEvent.Type.CREATED, 5L));
+
+        facets = directory.getFacets();
+        assertEquals(4, facets.get("total"));
+        assertEquals(2, facets.get("am"));
+        assertEquals(1, facets.get("pm"));
+        assertEquals(List.of(facet("Cardiologist", 1, 1, 0), facet("Dermatologist", 1, 1, 0), facet("Neurologist", 1, 0, 1)),
+                facets.get("specialties"));
+
+        // A facet disappears with its last doctor
+        table.remove(5L);
+        directory.onDoctorChanged(new DoctorChangedEvent(DoctorChangedEvent.Type.DELETED, 5L));
+        assertEquals(List.of(facet("Cardiologist", 1, 1, 0), facet("Dermatologist", 1, 1, 0)),
+                directory.getFacets().get("specialties"));
+    }
+
+    private void save(Long id, String name, String specialty, int hours) {
+        table.put(id, new DoctorCard(id, name, specialty, id + "@example.com", "5550000000", hours));
+    }
+
+    private static List<Long> ids(List<DoctorCard> doctors) {
+        return doctors.stream().map(DoctorCard::getId).toList();
+    }
+
+    private static Map<String, Object> facet(String specialty, int doctors, int am, int pm) {
+        return Map.of("specialty", specialty, "doctors", doctors, "am", am, "pm", pm);
+    }
+}
@@ -0,0 +1,140 @@
+package com.project.back_end.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Optional;
+
+import org.junit.jupiter.api.Test;
+
+import com.project.back_end.DTO.SlotGrid;
+import com.project.back_end.events.DoctorChangedEvent;
+import com.project.back_end.models.DoctorSchedule;
+import com.project.back_end.models.ScheduleBlock;
+import com.project.back_end.repo.DoctorScheduleRepository;
+
+// Compilation of weekly templates into per-weekday slot grids by `DoctorScheduleService`, and its per-doctor cache.
+class DoctorScheduleServiceTest {
+
+    private static final LocalDate MONDAY = LocalDate.now().plusWeeks(1).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+
+    @Test
+    void splitsWorkingBlocksIntoConsecutiveSlots() {
+        DoctorSchedule schedule = schedule(30);
+        schedule.getWorkingHours().add(block(DayOfWeek.MONDAY, 9, 0, 11, 0));
+        schedule.getWorkingHours().add(block(DayOfWeek.MONDAY, 14, 0, 15, 15));
+
+        SlotGrid monday = DoctorScheduleService.compile(schedule).gridFor(MONDAY);
+        assertStarts(monday, 9 * 60, 9 * 60 + 30, 10 * 60, 10 * 60 + 30, 14 * 60, 14 * 60 + 30);
+        assertEquals(30, monday.slotMinutes());
+    }
+
+    @Test
+    void skipsSlotsOverlappingABreak() {
+        DoctorSchedule schedule = schedule(60);
+        schedule.getWorkingHours().add(block(DayOfWeek.MONDAY, 8, 0, 14, 0));
+        schedule.getWorkingHours().add(block(DayOfWeek.TUESDAY, 8, 0, 14, 0));
+        // Every-day lunch break; partly overlapping slots are dropped too
+        schedule.getBreaks().add(block(null, 12, 0, 12, 30));
+        schedule.getBreaks().add(block(DayOfWeek.TUESDAY, 9, 30, 10, 0));
+
+        DoctorScheduleService.CompiledSchedule compiled = DoctorScheduleService.compile(schedule);
+        assertStarts(compiled.gridFor(MONDAY), 8 * 60, 9 * 60, 10 * 60, 11 * 60, 13 * 60);
+        assertStarts(compiled.gridFor(MONDAY.plusDays(1)), 8 * 60, 10 * 60, 11 * 60, 13 * 60);
+    }
+
+    @Test
+    void weekdaysWithoutHoursAndDaysOffHaveNoSlots() {
+        DoctorSchedule schedule = schedule(60);
+        schedule.getWorkingHours().add(block(DayOfWeek.MONDAY, 9, 0, 12, 0));
+        schedule.getWorkingHours().add(block(DayOfWeek.WEDNESDAY, 9, 0, 12, 0));
+        schedule.getDaysOff().add(MONDAY.plusWeeks(1));
+
+        DoctorScheduleService.CompiledSchedule compiled = DoctorScheduleService.compile(schedule);
+        assertEquals(3, compiled.gridFor(MONDAY).size());
+        assertEquals(0, compiled.gridFor(MONDAY.plusDays(1)).size());
+        assertEquals(0, compiled.gridFor(MONDAY.plusWeeks(1)).size());
+        assertEquals(3, compiled.gridFor(MONDAY.plusWeeks(2)).size());
+        // Equal weekdays share one grid
+        assertSame(compiled.gridFor(MONDAY), compiled.gridFor(MONDAY.plusDays(2)));
+    }
+
+    @Test
+    void acceptsUpToMaxSlotsPerDay() {
+        DoctorSchedule schedule = schedule(5);
+        // 64 five-minute slots: 08:00 to 13:20
+        schedule.getWorkingHours().add(block(DayOfWeek.MONDAY, 8, 0, 13, 20));
+        assertEquals(SlotGrid.MAX_SLOTS, DoctorScheduleService.compile(schedule).gridFor(MONDAY).size());
+
+        schedule.getWorkingHours().add(block(DayOfWeek.MONDAY, 13, 20, 13, 25));
+        assertThrows(IllegalArgumentException.class, () -> DoctorScheduleService.compile(schedule));
+    }
+
+    @Test
+    void rejectsInvalidTemplates() {
+        DoctorSchedule tooShort = schedule(4);
+        assertThrows(IllegalArgumentException.class, () -> DoctorScheduleService.compile(tooShort));
+
+        DoctorSchedule reversed = schedule(60);
+        reversed.getWorkingHours().add(block(DayOfWeek.MONDAY, 12, 0, 9, 0));
+        assertThrows(IllegalArgumentException.class, () -> DoctorScheduleService.compile(reversed));
+
+        DoctorSchedule noDay = schedule(60);
+        noDay.getWorkingHours().add(block(null, 9, 0, 12, 0));
+        assertThrows(IllegalArgumentException.class, () -> DoctorScheduleService.compile(noDay));
+
+        DoctorSchedule badBreak = schedule(60);
+        badBreak.getBreaks().add(new ScheduleBlock(null, LocalTime.NOON, null));
+        assertThrows(IllegalArgumentException.class, () -> DoctorScheduleService.compile(badBreak));
+    }
+
+    @Test
+    void cachesCompiledSchedulesUntilTheyChange() {
+        DoctorSchedule schedule = schedule(60);
+        schedule.getWorkingHours().add(block(DayOfWeek.MONDAY, 9, 0, 10, 0));
+        DoctorScheduleRepository repository = mock(DoctorScheduleRepository.class);
+        when(repository.findByDoctorId(1L)).thenReturn(Optional.of(schedule));
+        DoctorScheduleService service = new DoctorScheduleService(repository);
+
+        assertEquals(1, service.gridFor(1L, MONDAY).size());
+        assertSame(SlotGrid.DEFAULT, service.gridFor(2L, MONDAY));
+        service.gridFor(1L, MONDAY.plusDays(1));
+        service.gridFor(2L, MONDAY.plusDays(1));
+        verify(repository).findByDoctorId(1L);
+        verify(repository).findByDoctorId(2L);
+
+        service.onDoctorChanged(new DoctorChangedEvent(DoctorChangedEvent.Type.UPDATED, 1L));
+        service.gridFor(1L, MONDAY);
+        verify(repository).findByDoctorId(1L);
+
+        service.onDoctorChanged(new DoctorChangedEvent(DoctorChangedEvent.Type.SCHEDULE_CHANGED, 1L));
+        service.gridFor(1L, MONDAY);
+        verify(repository, times(2)).findByDoctorId(1L);
+    }
+
+    private static DoctorSchedule schedule(int slotMinutes) {
+        DoctorSchedule schedule = new DoctorSchedule();
+        schedule.setSlotMinutes(slotMinutes);
+        return schedule;
+    }
+
+    private static ScheduleBlock block(DayOfWeek day, int startHour, int startMinute, int endHour, int endMinute) {
+        return new ScheduleBlock(day, LocalTime.of(startHour, startMinute), LocalTime.of(endHour, endMinute));
+    }
+
+    private static void assertStarts(SlotGrid grid, int... startMinutes) {
+        assertEquals(startMinutes.length, grid.size());
+        for (int i = 0; i < startMinutes.length; i++) {
+            assertEquals(startMinutes[i], grid.startMinute(i));
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.project.back_end.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+// Per-identifier and per-IP limits of `LoginRateLimiter`, and its behaviour once the bucket maps are full.
+// Limits refill at one attempt per minute, so nothing refills while a test runs.
+class LoginRateLimiterTest {
+
+    private static final int IDENTIFIER_BURST = 3;
+    private static final int IP_BURST = 5;
+    private static final int MAX_BUCKETS = 10;
+
+    private final LoginRateLimiter limiter = new LoginRateLimiter(IDENTIFIER_BURST, 1, IP_BURST, 1, MAX_BUCKETS);
+
+    @Test
+    void limitsAttemptsPerIdentifier() {
+        for (int i = 0; i < IDENTIFIER_BURST; i++) {
+            assertNull(limiter.check("patient", "ann@example.com", "10.0.0." + i));
+        }
+
+        ResponseEntity<Map<String, String>> rejected = limiter.check("patient", " ANN@example.com ", "10.0.0.99");
+        assertNotNull(rejected);
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, rejected.getStatusCode());
+        assertNotNull(rejected.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+
+        // Same email under another role is a different bucket
+        assertNull(limiter.check("doctor", "ann@example.com", "10.0.0.100"));
+    }
+
+    @Test
+    void limitsAttemptsPerIp() {
+        for (int i = 0; i < IP_BURST; i++) {
+            assertNull(limiter.check("patient", "user" + i + "@example.com", "10.0.0.1"));
+        }
+        assertNotNull(limiter.check("patient", "other@example.com", "10.0.0.1"));
+        assertNull(limiter.check("patient", "other@example.com", "10.0.0.2"));
+    }
+
+    @Test
+    void randomIdentifierFloodDoesNotLockOutOtherLogins() {
+        // Fill the identifier map with random identifiers, each IP staying within its own limit
+        for (int i = 0; i < MAX_BUCKETS * 3; i++) {
+            limiter.check("patient", "random" + i + "@example.com", "10.1.0." + (i / IP_BURST));
+        }
+        assertEquals(MAX_BUCKETS, limiter.getStats().get("identifierBuckets"));
+
+        // An unrelated IP and identifier still gets through, repeatedly, up to its IP's own limit
+        for (int i = 0; i < IP_BURST; i++) {
+            assertNull(limiter.check("patient", "victim@example.com", "192.168.1.1"));
+        }
+        assertNotNull(limiter.check("patient", "victim@example.com", "192.168.1.1"));
+    }
+
+    @Test
+    void identifiersThatHaveABucketStayLimitedWhenTheMapIsFull() {
+        for (int i = 0; i < IDENTIFIER_BURST; i++) {
+            assertNull(limiter.check("patient", "target@example.com", "10.2.0." + i));
+        }
+        for (int i = 0; i < MAX_BUCKETS * 3; i++) {
+            limiter.check("patient", "random" + i + "@example.com", "10.3.0." + (i / IP_BURST));
+        }
+
+        assertNotNull(limiter.check("patient", "target@example.com", "172.16.0.1"));
+    }
+
+    @Test
+    void ipFloodOnlySlowsNewIpsSharingAnOverflowStripe() {
+        // Fill the IP map and exhaust the addresses used for it
+        for (int i = 0; i < MAX_BUCKETS; i++) {
+            for (int j = 0; j <= IP_BURST; j++) {
+                limiter.check("patient", "flood" + i + "-" + j + "@example.com", "10.4.0." + i);
+            }
+        }
+        assertEquals(MAX_BUCKETS, limiter.getStats().get("ipBuckets"));
+
+        // New addresses are spread over overflow stripes instead of sharing one bucket
+        int allowed = 0;
+        for (int i = 0; i < 50; i++) {
+            if (limiter.check("patient", "new" + i + "@example.com", "203.0.113." + i) == null) {
+                allowed++;
+            }
+        }
+        assertEquals(50, allowed);
+    }
+}
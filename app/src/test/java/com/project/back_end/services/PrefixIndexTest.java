@@ -0,0 +1,91 @@
+package com.project.back_end.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+// Word-start keys, lookups, and copy-on-write updates of `PrefixIndex`; an index built by `put` / `remove` must answer
+// like one built by `load` from the same labels.
+class PrefixIndexTest {
+
+    private static final int MAX_SCAN = 1000;
+
+    private final PrefixIndex index = new PrefixIndex();
+
+    @Test
+    void everyWordStartIsAKey() {
+        assertEquals(Set.of("dr. ann lee", "ann lee", "lee"), PrefixIndex.keysOf("  Dr. Ann LEE "));
+        assertEquals(Set.of(), PrefixIndex.keysOf(null));
+    }
+
+    @Test
+    void completesAnyWordOnceInKeyOrder() {
+        index.load(Map.of(1L, "Ann Annabel", 2L, "Lee Anderson", 3L, "Bob Lee"));
+
+        assertEquals(List.of(2L, 1L), List.copyOf(index.complete("AN", 10, id -> true, MAX_SCAN).keySet()));
+        assertEquals(Map.of(3L, "Bob Lee"), index.complete("bo", 10, id -> true, MAX_SCAN));
+        assertEquals(List.of(3L, 2L), List.copyOf(index.complete("lee", 10, id -> true, MAX_SCAN).keySet()));
+        assertTrue(index.complete(" ", 10, id -> true, MAX_SCAN).isEmpty());
+        assertTrue(index.complete("zed", 10, id -> true, MAX_SCAN).isEmpty());
+    }
+
+    @Test
+    void limitFilterAndScanBoundCapALookup() {
+        Map<Long, String> labels = new HashMap<>();
+        for (long id = 1; id <= 100; id++) {
+            labels.put(id, "Patient " + id);
+        }
+        index.load(labels);
+
+        assertEquals(5, index.complete("patient", 5, id -> true, MAX_SCAN).size());
+        assertEquals(Set.of(42L), index.complete("patient", 5, id -> id == 42L, MAX_SCAN).keySet());
+        // Only the first 10 keys are visited, so the match far down the range is not reached
+        assertTrue(index.complete("patient", 5, id -> id == 99L, 10).isEmpty());
+    }
+
+    @Test
+    void putReplacesAndRemoveDropsTheKeysOfAnId() {
+        index.load(Map.of(1L, "Ann Lee", 2L, "Bob Stone"));
+
+        index.put(1L, "Carol Lee");
+        assertTrue(index.complete("ann", 10, id -> true, MAX_SCAN).isEmpty());
+        assertEquals(Map.of(1L, "Carol Lee"), index.complete("car", 10, id -> true, MAX_SCAN));
+        assertEquals(Map.of(1L, "Carol Lee"), index.complete("lee", 10, id -> true, MAX_SCAN));
+
+        index.remove(2L);
+        assertTrue(index.complete("stone", 10, id -> true, MAX_SCAN).isEmpty());
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void incrementalUpdatesMatchAFreshLoad() {
+        Random random = new Random(7);
+        String[] words = {"ann", "anna", "bob", "lee", "leon", "mo", "moira", "x"};
+        Map<Long, String> labels = new HashMap<>();
+        for (int i = 0; i < 500; i++) {
+            long id = random.nextInt(60);
+            if (random.nextInt(4) == 0) {
+                labels.remove(id);
+                index.remove(id);
+            } else {
+                String label = words[random.nextInt(words.length)] + " " + words[random.nextInt(words.length)];
+                labels.put(id, label);
+                index.put(id, label);
+            }
+        }
+
+        PrefixIndex loaded = new PrefixIndex();
+        loaded.load(labels);
+        assertEquals(loaded.size(), index.size());
+        for (String prefix : List.of("a", "an", "anna", "b", "le", "leon", "m", "x", "ann b")) {
+            assertEquals(loaded.complete(prefix, 100, id -> true, MAX_SCAN), index.complete(prefix, 100, id -> true, MAX_SCAN), prefix);
+        }
+    }
+}
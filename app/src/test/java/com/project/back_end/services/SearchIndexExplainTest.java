@@ -0,0 +1,232 @@
+package com.project.back_end.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.project.back_end.DTO.DoctorCard;
+import com.project.back_end.config.FulltextFunctions;
+import com.project.back_end.events.DoctorChangedEvent;
+import com.project.back_end.models.Doctor;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+
+// Checks with EXPLAIN, against the configured MySQL database, that the search queries of `DoctorRepository` and
+// `AppointmentRepository` use the generated `*_lc` columns' indexes instead of scanning the table. Each repository
+// method is called once and the SQL Hibernate generated for it, captured by a statement inspector, is explained with
+// the same bind values.
+// Also checks the limits of the ngram index (one-character words and substrings spanning a space never match through
+// MATCH) and that the name searches still find such names, and that names made of InnoDB's default stopwords ("a", "i",
+// "to", "or") are found through the index like any other.
+// Seeds doctors and patients (emails ending in @explain.test), refreshes the statistics, and deletes them afterwards.
+// Run with: mvn test -Dtest=SearchIndexExplainTest -Dbenchmark=true
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class SearchIndexExplainTest {
+
+    private static final int ROWS = 2000;
+    private static final int SPECIALTIES = 40;
+    // Most bigrams of these names contain a default stopword, e.g. "sa", "ar", "ra" and "ah" in "Sarah"
+    private static final List<String> STOPWORD_NAMES = List.of("Sarah Smith", "Tori Ortiz", "Iria Toro", "Ito Oriana");
+    private static final List<String> statements = new CopyOnWriteArrayList<>();
+
+    @TestConfiguration
+    static class RecordStatements {
+        @Bean
+        HibernatePropertiesCustomizer statementRecorder() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, (StatementInspector) sql -> {
+                statements.add(sql);
+                return sql;
+            });
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ApplicationEventPublisher events;
+    @Autowired
+    private DoctorRepository doctorRepository;
+    @Autowired
+    private AppointmentRepository appointmentRepository;
+    @Autowired
+    private DoctorService doctorService;
+
+    private long doctorId;
+    private long patientId;
+
+    @BeforeEach
+    void seed() {
+        List<Object[]> doctors = new ArrayList<>(ROWS);
+        List<Object[]> patients = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            doctors.add(new Object[] {"Seeded Doctor " + i, "Specialty" + (i % SPECIALTIES), "doctor" + i + "@explain.test"});
+            patients.add(new Object[] {"Seeded Patient " + i, "patient" + i + "@explain.test"});
+        }
+        for (int i = 0; i < STOPWORD_NAMES.size(); i++) {
+            doctors.add(new Object[] {STOPWORD_NAMES.get(i), "Specialty0", "stopword" + i + "@explain.test"});
+            patients.add(new Object[] {STOPWORD_NAMES.get(i), "stopword" + i + "@explain.test"});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO doctor (name, specialty, email, password, phone, available_hours, available_periods)"
+                + " VALUES (?, ?, ?, 'explain', '0000000000', 0, 0)", doctors);
+        jdbcTemplate.batchUpdate("INSERT INTO patient (name, email, password, phone, address)"
+                + " VALUES (?, ?, 'explain', '0000000000', 'explain')", patients);
+        jdbcTemplate.execute("ANALYZE TABLE doctor, patient");
+
+        // Rows inserted here bypass DoctorService, so tell DoctorDirectory about them as the service would
+        for (Long id : seededDoctorIds()) {
+            events.publishEvent(new DoctorChangedEvent(DoctorChangedEvent.Type.CREATED, id));
+        }
+        doctorId = jdbcTemplate.queryForObject("SELECT id FROM doctor WHERE email = 'doctor12@explain.test'", Long.class);
+        patientId = jdbcTemplate.queryForObject("SELECT id FROM patient WHERE email = 'patient12@explain.test'", Long.class);
+    }
+
+    @AfterEach
+    void cleanUp() {
+        List<Long> ids = seededDoctorIds();
+        jdbcTemplate.update("DELETE FROM doctor WHERE email LIKE '%@explain.test'");
+        jdbcTemplate.update("DELETE FROM patient WHERE email LIKE '%@explain.test'");
+        for (Long id : ids) {
+            events.publishEvent(new DoctorChangedEvent(DoctorChangedEvent.Type.DELETED, id));
+        }
+    }
+
+    @Test
+    void specialtyLookupUsesIndex(TestReporter reporter) {
+        String sql = sqlOf(() -> doctorRepository.findBySpecialtyIgnoreCase("SPECIALTY7"));
+        assertUsesKey(explain(reporter, sql, "SPECIALTY7"), "idx_doctor_specialty_lc", "ref");
+    }
+
+    @Test
+    void doctorNamePageUsesFulltextIndex(TestReporter reporter) {
+        String name = "tor 12";
+        String query = FulltextFunctions.booleanQuery(name);
+        List<Integer> periods = Doctor.periodValuesMatching(null);
+        String sql = sqlOf(() -> doctorRepository.findPageAfterByName(0L, query, name, null, periods, Limit.of(50)));
+
+        List<Object> args = new ArrayList<>(List.of(0L, query, name));
+        args.add(null);
+        args.add(null);
+        args.addAll(periods);
+        args.add(50);
+        assertUsesKey(explain(reporter, sql, args.toArray()), "ft_doctor_name_lc_nostop", "fulltext");
+    }
+
+    @Test
+    void patientNameOfTheDayUsesFulltextIndex(TestReporter reporter) {
+        String name = "ent 12";
+        String query = FulltextFunctions.booleanQuery(name);
+        LocalDate day = LocalDate.now();
+        String sql = sqlOf(() -> appointmentRepository.findByDoctorIdAndPatient_NameContainingIgnoreCaseAndAppointmentTimeBetween(
+                doctorId, query, name, day.atStartOfDay(), day.plusDays(1).atStartOfDay()));
+        assertUsesKey(explain(reporter, sql, doctorId, query, name, day.atStartOfDay(), day.plusDays(1).atStartOfDay()),
+                "ft_patient_name_lc_nostop", "fulltext");
+    }
+
+    @Test
+    void doctorNameOfAPatientUsesFulltextIndex(TestReporter reporter) {
+        String name = "tor 12";
+        String query = FulltextFunctions.booleanQuery(name);
+
+        String sql = sqlOf(() -> appointmentRepository.filterByDoctorNameAndPatientId(query, name, patientId));
+        assertUsesKey(explain(reporter, sql, query, name, patientId), "ft_doctor_name_lc_nostop", "fulltext");
+
+        sql = sqlOf(() -> appointmentRepository.findByPatientIdAndDoctorNameContainingIgnoreCaseAndStatus(patientId, query, name, 0));
+        assertUsesKey(explain(reporter, sql, patientId, query, name, 0), "ft_doctor_name_lc_nostop", "fulltext");
+    }
+
+    @Test
+    void namesTheNgramIndexCannotMatchAreStillFound() {
+        assertEquals(FulltextFunctions.NGRAM_TOKEN_SIZE, jdbcTemplate.queryForObject("SELECT @@ngram_token_size", Integer.class));
+
+        // With two-character tokens, one-character words and substrings spanning a space never match through MATCH
+        assertEquals(0, countMatching("+\"d\""));
+        assertEquals(0, countMatching("+\"r 1\""));
+        assertNull(FulltextFunctions.booleanQuery("d"));
+        assertNull(FulltextFunctions.booleanQuery("r 1"));
+
+        // The doctor search still finds them, and finds the same names through the index otherwise
+        for (String name : List.of("d", "r 1", "tor 12")) {
+            int expected = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM doctor WHERE name_lc LIKE CONCAT('%', LOWER(?), '%')",
+                    Integer.class, name);
+            List<DoctorCard> found = doctorService.findDoctorsAfter(0L, name, null, null, ROWS * 10);
+            assertTrue(expected > 0, name);
+            assertEquals(expected, found.size(), name);
+            assertTrue(found.stream().allMatch(doctor -> FulltextFunctions.containsIgnoreCase(doctor.getName(), name)), name);
+        }
+    }
+
+    @Test
+    void namesMadeOfStopwordsMatchThroughTheIndex() {
+        // MATCH finds exactly the rows LIKE finds, for whole names and for the stopword bigrams themselves
+        for (String name : List.of("sarah", "smith", "ortiz", "tori", "iria", "toro", "ito", "to", "or", "ia", "ar")) {
+            String query = FulltextFunctions.booleanQuery(name);
+            for (String table : List.of("doctor", "patient")) {
+                int expected = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table
+                        + " WHERE name_lc LIKE CONCAT('%', LOWER(?), '%')", Integer.class, name);
+                assertTrue(expected > 0, table + ": " + name);
+                assertEquals(expected, countMatching(table, query), table + ": " + name);
+            }
+
+            List<DoctorCard> found = doctorService.findDoctorsAfter(0L, name, null, null, ROWS * 10);
+            assertEquals(countMatching("doctor", query), found.size(), name);
+        }
+    }
+
+    private List<Long> seededDoctorIds() {
+        return jdbcTemplate.queryForList("SELECT id FROM doctor WHERE email LIKE '%@explain.test'", Long.class);
+    }
+
+    private int countMatching(String booleanQuery) {
+        return countMatching("doctor", booleanQuery);
+    }
+
+    private int countMatching(String table, String booleanQuery) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table + " WHERE MATCH(name_lc) AGAINST (? IN BOOLEAN MODE)",
+                Integer.class, booleanQuery);
+    }
+
+    // The single statement Hibernate generated while `call` ran
+    private static String sqlOf(Runnable call) {
+        statements.clear();
+        call.run();
+        assertEquals(1, statements.size(), () -> "statements: " + statements);
+        return statements.get(0);
+    }
+
+    // Plan rows of `sql`, with `args` bound in the order of its placeholders
+    private List<Map<String, Object>> explain(TestReporter reporter, String sql, Object... args) {
+        assertEquals(sql.chars().filter(c -> c == '?').count(), args.length, () -> "placeholders of " + sql);
+        List<Map<String, Object>> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, args);
+        reporter.publishEntry("explain", sql + " -> " + plan);
+        return plan;
+    }
+
+    // Some table of the plan is read through `key` with the given access type; column names are matched case-insensitively
+    private static void assertUsesKey(List<Map<String, Object>> plan, String key, String type) {
+        assertTrue(plan.stream().anyMatch(row -> key.equals(row.get("key")) && type.equals(row.get("type"))),
+                () -> "no " + type + " access on " + key + " in " + plan);
+    }
+}
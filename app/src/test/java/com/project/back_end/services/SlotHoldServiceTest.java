@@ -0,0 +1,131 @@
+package com.project.back_end.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.project.back_end.DTO.SlotGrid;
+
+// Holds, extensions and timer-wheel expiry of `SlotHoldService`, driven by a hand-moved clock.
+// The TTL is longer than one turn of the 64-tick wheel, so expiry has to survive later rounds.
+class SlotHoldServiceTest {
+
+    private static final long TTL_SECONDS = 150;
+    private static final LocalDate DAY = LocalDate.of(2030, 1, 7);
+    private static final LocalDateTime NINE = DAY.atTime(9, 0);
+    private static final LocalDateTime TEN = DAY.atTime(10, 0);
+
+    private final AtomicLong now = new AtomicLong(1_900_000_000_000L);
+    private final SlotHoldService holds = new SlotHoldService(TTL_SECONDS, now::get);
+
+    @Test
+    void onlyTheHolderMayUseAHeldSlot() {
+        LocalDateTime expiresAt = holds.hold(1L, NINE, 100L);
+        assertEquals(LocalDateTime.ofInstant(Instant.ofEpochMilli(now.get() + TTL_SECONDS * 1000), ZoneId.systemDefault()),
+                expiresAt);
+
+        assertNull(holds.hold(1L, NINE, 200L));
+        assertTrue(holds.isHeldByOther(1L, NINE, 200L));
+        assertFalse(holds.isHeldByOther(1L, NINE, 100L));
+        // Same time with another doctor or on another day is a different slot
+        assertFalse(holds.isHeldByOther(2L, NINE, 200L));
+        assertFalse(holds.isHeldByOther(1L, NINE.plusDays(1), 200L));
+        assertEquals(1L, holds.getStats().get("rejected"));
+    }
+
+    @Test
+    void holdExpiresAfterTheTtlAcrossWheelRounds() {
+        holds.hold(1L, NINE, 100L);
+
+        for (int second = 1; second < TTL_SECONDS; second++) {
+            now.addAndGet(1000);
+            assertEquals(0b1L, holds.getHeldMask(1L, DAY, SlotGrid.DEFAULT), "released early at " + second + " s");
+        }
+        now.addAndGet(1000);
+        assertFalse(holds.isHeldByOther(1L, NINE, 200L));
+        assertEquals(0L, holds.getHeldMask(1L, DAY, SlotGrid.DEFAULT));
+
+        // The wheel drops the hold one tick later
+        now.addAndGet(1000);
+        holds.getHeldMask(1L, DAY, SlotGrid.DEFAULT);
+        assertEquals(1L, holds.getStats().get("expired"));
+        assertEquals(0, holds.getStats().get("active"));
+        assertEquals(0, holds.getStats().get("heldDays"));
+        assertNotNull(holds.hold(1L, NINE, 200L));
+    }
+
+    @Test
+    void expiredHoldsAreDroppedAfterALongIdlePeriod() {
+        holds.hold(1L, NINE, 100L);
+        holds.hold(1L, TEN, 101L);
+
+        now.addAndGet(3_600_000L);
+        assertEquals(0L, holds.getHeldMask(1L, DAY, SlotGrid.DEFAULT));
+        assertEquals(2L, holds.getStats().get("expired"));
+        assertEquals(0, holds.getStats().get("active"));
+    }
+
+    @Test
+    void holdingAgainExtendsTheHold() {
+        holds.hold(1L, NINE, 100L);
+        now.addAndGet(100_000L);
+        assertNotNull(holds.hold(1L, NINE, 100L));
+
+        // Past the first expiry: the wheel drops the replaced hold, not the extension
+        now.addAndGet(100_000L);
+        assertEquals(0b1L, holds.getHeldMask(1L, DAY, SlotGrid.DEFAULT));
+        assertTrue(holds.isHeldByOther(1L, NINE, 200L));
+        assertEquals(0L, holds.getStats().get("expired"));
+
+        now.addAndGet(51_000L);
+        assertEquals(0L, holds.getHeldMask(1L, DAY, SlotGrid.DEFAULT));
+    }
+
+    @Test
+    void aPatientKeepsOneHold() {
+        holds.hold(1L, NINE, 100L);
+        holds.hold(2L, TEN, 100L);
+
+        assertFalse(holds.isHeldByOther(1L, NINE, 200L));
+        assertTrue(holds.isHeldByOther(2L, TEN, 200L));
+        assertEquals(0L, holds.getHeldMask(1L, DAY, SlotGrid.DEFAULT));
+        assertEquals(1, holds.getStats().get("active"));
+        assertNotNull(holds.hold(1L, NINE, 200L));
+    }
+
+    @Test
+    void releaseDropsOnlyTheCallersHold() {
+        holds.hold(1L, NINE, 100L);
+
+        assertFalse(holds.release(1L, NINE, 200L));
+        assertFalse(holds.release(1L, TEN, 100L));
+        assertTrue(holds.isHeldByOther(1L, NINE, 200L));
+
+        assertTrue(holds.release(1L, NINE, 100L));
+        assertFalse(holds.isHeldByOther(1L, NINE, 200L));
+        assertEquals(0, holds.getStats().get("heldDays"));
+    }
+
+    @Test
+    void heldMaskUsesTheGridsSlotIndexes() {
+        holds.hold(1L, DAY.atTime(11, 0), 100L);
+        holds.hold(1L, DAY.atTime(15, 0), 101L);
+        holds.hold(1L, DAY.atTime(12, 0), 102L);      // not a slot of the default grid
+        holds.hold(1L, DAY.plusDays(1).atTime(9, 0), 103L);
+
+        assertEquals(0b100100L, holds.getHeldMask(1L, DAY, SlotGrid.DEFAULT));
+        SlotGrid noon = new SlotGrid(new int[] {12 * 60}, 60);
+        assertEquals(0b1L, holds.getHeldMask(1L, DAY, noon));
+        assertEquals(0L, holds.getHeldMask(2L, DAY, SlotGrid.DEFAULT));
+    }
+}
@@ -0,0 +1,97 @@
+package com.project.back_end.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.project.back_end.DTO.AuthPrincipal;
+
+// `TokenCache` expiry, role keying, invalidation and eviction, driven by a hand-moved clock.
+class TokenCacheTest {
+
+    private static final long TTL = 1000L;
+
+    private final AtomicLong now = new AtomicLong(1_000_000L);
+    private final TokenCache cache = new TokenCache(TTL, 100, now::get);
+
+    @Test
+    void returnsCachedPrincipalUntilTtl() {
+        AuthPrincipal principal = new AuthPrincipal("doctor", 7L, "ann@example.com");
+        cache.put("digest", principal, now.get() - 10, now.get() + 10 * TTL);
+
+        TokenCache.Entry entry = cache.get("digest", "doctor");
+        assertNotNull(entry);
+        assertSame(principal, entry.getPrincipal());
+        assertEquals(now.get() - 10, entry.getIssuedAt());
+
+        now.addAndGet(TTL - 1);
+        assertNotNull(cache.get("digest", "doctor"));
+        now.addAndGet(1);
+        assertNull(cache.get("digest", "doctor"));
+    }
+
+    @Test
+    void entryNeverOutlivesTheToken() {
+        cache.put("digest", new AuthPrincipal("patient", 1L, "p@example.com"), now.get(), now.get() + 100);
+
+        now.addAndGet(99);
+        assertNotNull(cache.get("digest", "patient"));
+        now.addAndGet(1);
+        assertNull(cache.get("digest", "patient"));
+    }
+
+    @Test
+    void keysByRole() {
+        cache.put("digest", new AuthPrincipal("doctor", 7L, "ann@example.com"), now.get(), now.get() + TTL);
+
+        assertNotNull(cache.get("digest", "DOCTOR"));
+        assertNull(cache.get("digest", "patient"));
+        assertNull(cache.get("other", "doctor"));
+    }
+
+    @Test
+    void invalidatePrincipalDropsOnlyItsTokens() {
+        cache.put("a1", new AuthPrincipal("doctor", 7L, "ann@example.com"), now.get(), now.get() + TTL);
+        cache.put("a2", new AuthPrincipal("doctor", 7L, "ann@example.com"), now.get(), now.get() + TTL);
+        cache.put("b", new AuthPrincipal("doctor", 8L, "bob@example.com"), now.get(), now.get() + TTL);
+        cache.put("p", new AuthPrincipal("patient", 7L, "ann@example.com"), now.get(), now.get() + TTL);
+
+        cache.invalidatePrincipal("doctor", "ANN@example.com");
+
+        assertNull(cache.get("a1", "doctor"));
+        assertNull(cache.get("a2", "doctor"));
+        assertNotNull(cache.get("b", "doctor"));
+        assertNotNull(cache.get("p", "patient"));
+    }
+
+    @Test
+    void evictsExpiredThenSoonestExpiringWhenFull() {
+        TokenCache small = new TokenCache(TTL, 10, now::get);
+        for (int i = 0; i < 10; i++) {
+            small.put("t" + i, new AuthPrincipal("patient", (long) i, i + "@example.com"), now.get(), now.get() + 100 + i);
+        }
+        small.put("new", new AuthPrincipal("patient", 99L, "new@example.com"), now.get(), now.get() + TTL);
+
+        assertTrue((int) small.getStats().get("size") <= 10);
+        assertNotNull(small.get("new", "patient"));
+        assertNull(small.get("t0", "patient"));
+        assertNotNull(small.get("t9", "patient"));
+        assertNotEquals(0L, small.getStats().get("evictions"));
+    }
+
+    @Test
+    void digestIsStableAndDoesNotContainTheToken() {
+        String token = "header.payload.signature";
+        assertEquals(TokenCache.digest(token), TokenCache.digest(token));
+        assertNotEquals(TokenCache.digest(token), TokenCache.digest(token + "x"));
+        assertFalse(TokenCache.digest(token).contains("payload"));
+    }
+}
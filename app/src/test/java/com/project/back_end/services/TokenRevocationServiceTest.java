@@ -0,0 +1,86 @@
+package com.project.back_end.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+// Revocation by token and by principal, the Bloom filter pre-check and the periodic purge of `TokenRevocationService`,
+// driven by a hand-moved clock.
+class TokenRevocationServiceTest {
+
+    private static final long PURGE_INTERVAL = 60 * 1000L;
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private final TokenRevocationService revocations = new TokenRevocationService(1 << 16, now::get);
+
+    @Test
+    void revokedTokenIsRejectedUntilItsExpiry() {
+        revocations.revokeToken("digest", now.get() + 1000);
+
+        assertTrue(revocations.isRevoked("digest", "doctor", 7L, now.get() - 10));
+        assertFalse(revocations.isRevoked("other", "doctor", 7L, now.get() - 10));
+
+        now.addAndGet(1000);
+        assertFalse(revocations.isRevoked("digest", "doctor", 7L, now.get() - 10));
+    }
+
+    @Test
+    void principalCutoffRejectsOnlyTokensIssuedBeforeIt() {
+        long issuedBefore = now.get() - 5000;
+        revocations.revokePrincipal("Doctor", 7L);
+
+        assertTrue(revocations.isRevoked("a", "doctor", 7L, issuedBefore));
+        assertTrue(revocations.isRevoked("b", "doctor", 7L, now.get()));
+        assertFalse(revocations.isRevoked("c", "doctor", 7L, now.get() + 1000));
+        // Issue times are in milliseconds: a token issued right after the cutoff is not caught by it
+        assertFalse(revocations.isRevoked("f", "doctor", 7L, now.get() + 1));
+        assertFalse(revocations.isRevoked("d", "doctor", 8L, issuedBefore));
+        assertFalse(revocations.isRevoked("e", "patient", 7L, issuedBefore));
+    }
+
+    @Test
+    void filterHasNoFalseNegativesAndPassesUnknownKeys() {
+        for (int i = 0; i < 1000; i++) {
+            revocations.revokeToken("revoked-" + i, now.get() + 1000);
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(revocations.isRevoked("revoked-" + i, "patient", 1L, 0L));
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertFalse(revocations.isRevoked("valid-" + i, "patient", (long) i, 0L));
+        }
+        long falseCandidates = 1000 - (long) revocations.getStats().get("filterPasses");
+        // 1000 keys in 65536 bits with 4 hashes: well under 1% of unknown keys should reach the maps
+        assertTrue(falseCandidates < 20, "unknown keys not passed by the filter: " + falseCandidates);
+    }
+
+    @Test
+    void purgeDropsExpiredEntriesAndRebuildsTheFilter() {
+        revocations.revokeToken("short", now.get() + 1000);
+        revocations.revokePrincipal("doctor", 7L);
+        assertEquals(1, revocations.getStats().get("revokedTokens"));
+
+        // Next write after the purge interval drops the expired token; the principal cutoff is kept
+        now.addAndGet(PURGE_INTERVAL);
+        revocations.revokeToken("long", now.get() + TokenService.TOKEN_VALIDITY_MILLIS);
+        assertEquals(1, revocations.getStats().get("revokedTokens"));
+        assertEquals(1, revocations.getStats().get("revokedPrincipals"));
+        assertTrue(revocations.isRevoked("long", "patient", 1L, 0L));
+        assertTrue(revocations.isRevoked("x", "doctor", 7L, 0L));
+
+        // Rebuilt filter no longer contains the purged token, so checking it stops at the filter
+        long passes = (long) revocations.getStats().get("filterPasses");
+        assertFalse(revocations.isRevoked("short", "patient", 1L, 0L));
+        assertEquals(passes + 1, (long) revocations.getStats().get("filterPasses"));
+
+        // Cutoffs are dropped one token lifetime later, when no token they match can still be valid
+        now.addAndGet(TokenService.TOKEN_VALIDITY_MILLIS);
+        revocations.revokeToken("later", now.get() + 1000);
+        assertEquals(0, revocations.getStats().get("revokedPrincipals"));
+    }
+}
@@ -0,0 +1,105 @@
+package com.project.back_end.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.project.back_end.DTO.AuthPrincipal;
+
+// Claims, role checks, caching and revocation of `TokenService`. Tokens with `role` and `id` claims are authorized
+// without any repository, so the repositories are left null.
+class TokenServiceTest {
+
+    private static final String SECRET = "0123456789abcdef0123456789abcdef0123456789abcdef";
+
+    private final TokenService tokenService =
+            new TokenService(null, null, null, SECRET, 300, 100, new TokenRevocationService(1 << 16));
+
+    @Test
+    void resolvesRoleAndIdFromClaims() {
+        String token = tokenService.generateToken("ann@example.com", "Doctor", 7L);
+
+        AuthPrincipal principal = tokenService.resolvePrincipal(token, "doctor");
+        assertNotNull(principal);
+        assertEquals("doctor", principal.getRole());
+        assertEquals(7L, principal.getId());
+        assertEquals("ann@example.com", principal.getEmail());
+        assertEquals("ann@example.com", tokenService.extractIdentifier(token));
+
+        // Second call is served from the cache with the same result
+        AuthPrincipal cached = tokenService.resolvePrincipal(token, "DOCTOR");
+        assertNotNull(cached);
+        assertEquals(7L, cached.getId());
+    }
+
+    @Test
+    void rejectsOtherRoles() {
+        String token = tokenService.generateToken("ann@example.com", "doctor", 7L);
+
+        assertNull(tokenService.resolvePrincipal(token, "patient"));
+        assertNull(tokenService.resolvePrincipal(token, "admin"));
+        assertFalse(tokenService.validateToken(token, "patient"));
+    }
+
+    @Test
+    void anyRoleAcceptsTheTokensOwnRole() {
+        String token = tokenService.generateToken("p@example.com", "patient", 3L);
+
+        AuthPrincipal principal = tokenService.resolvePrincipal(token, TokenService.ANY_ROLE);
+        assertNotNull(principal);
+        assertEquals("patient", principal.getRole());
+    }
+
+    @Test
+    void rejectsTamperedAndMissingTokens() {
+        String token = tokenService.generateToken("ann@example.com", "doctor", 7L);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertNull(tokenService.resolvePrincipal(tampered, "doctor"));
+        assertNull(tokenService.resolvePrincipal("not-a-token", "doctor"));
+        assertNull(tokenService.resolvePrincipal(null, "doctor"));
+        assertNull(tokenService.resolvePrincipal(token, null));
+    }
+
+    @Test
+    void revokedTokensStopWorkingEvenWhenCached() {
+        String token = tokenService.generateToken("ann@example.com", "doctor", 7L);
+        String other = tokenService.generateToken("bob@example.com", "doctor", 8L);
+        assertTrue(tokenService.validateToken(token, "doctor"));
+
+        assertTrue(tokenService.revokeToken(token));
+        assertFalse(tokenService.validateToken(token, "doctor"));
+        assertTrue(tokenService.validateToken(other, "doctor"));
+        assertFalse(tokenService.revokeToken("not-a-token"));
+    }
+
+    @Test
+    void revokePrincipalStopsAllItsTokens() {
+        String first = tokenService.generateToken("ann@example.com", "doctor", 7L);
+        String second = tokenService.generateToken("ann@example.com", "doctor", 7L);
+        String other = tokenService.generateToken("bob@example.com", "doctor", 8L);
+        assertTrue(tokenService.validateToken(first, "doctor"));
+
+        tokenService.revokePrincipal("doctor", 7L, "ann@example.com");
+
+        assertFalse(tokenService.validateToken(first, "doctor"));
+        assertFalse(tokenService.validateToken(second, "doctor"));
+        assertTrue(tokenService.validateToken(other, "doctor"));
+    }
+
+    @Test
+    void loginRightAfterRevokePrincipalIsValid() throws InterruptedException {
+        String before = tokenService.generateToken("ann@example.com", "doctor", 7L);
+        tokenService.revokePrincipal("doctor", 7L, "ann@example.com");
+        // Next millisecond, almost always within the same second as the cutoff
+        Thread.sleep(2);
+
+        String after = tokenService.generateToken("ann@example.com", "doctor", 7L);
+        assertFalse(tokenService.validateToken(before, "doctor"));
+        assertTrue(tokenService.validateToken(after, "doctor"));
+    }
+}
@@ -0,0 +1,142 @@
+package com.project.back_end.services;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.project.back_end.DTO.DoctorCard;
+import com.project.back_end.events.AppointmentChangedEvent;
+import com.project.back_end.events.DoctorChangedEvent;
+import com.project.back_end.events.PatientChangedEvent;
+import com.project.back_end.repo.AppointmentRepository;
+import com.project.back_end.repo.DoctorRepository;
+import com.project.back_end.repo.PatientRepository;
+
+// Completions of `Typeahead` against mocked repositories answering from in-memory doctors, patients and appointments:
+// lazy loading, the doctor-own-patient restriction, and how committed changes reach the loaded indexes.
+class TypeaheadTest {
+
+    private final Map<Long, DoctorCard> doctors = new HashMap<>();
+    private final Map<Long, String> patients = new HashMap<>();
+    private final Map<Long, List<Long>> patientsByDoctor = new HashMap<>();
+    private final AtomicInteger loads = new AtomicInteger();
+    private final DoctorRepository doctorRepository = mock(DoctorRepository.class);
+    private final PatientRepository patientRepository = mock(PatientRepository.class);
+    private final AppointmentRepository appointmentRepository = mock(AppointmentRepository.class);
+    private final Typeahead typeahead = new Typeahead(doctorRepository, patientRepository, appointmentRepository);
+
+    // The queries `Typeahead` makes, answered from the maps above; loading queries are counted
+    @BeforeEach
+    void answerQueriesFromMaps() {
+        when(doctorRepository.findAllCards()).thenAnswer(invocation -> {
+            loads.incrementAndGet();
+            return new ArrayList<>(doctors.values());
+        });
+        when(doctorRepository.findCardById(any())).thenAnswer(invocation -> Optional.ofNullable(doctors.get(invocation.getArgument(0))));
+        when(patientRepository.findAllNames()).thenAnswer(invocation -> {
+            loads.incrementAndGet();
+            List<Object[]> rows = new ArrayList<>();
+            patients.forEach((id, name) -> rows.add(new Object[] {id, name}));
+            return rows;
+        });
+        when(patientRepository.findNameById(any())).thenAnswer(invocation -> patients.get(invocation.getArgument(0)));
+        when(appointmentRepository.findPatientIdsByDoctorId(any())).thenAnswer(invocation -> {
+            loads.incrementAndGet();
+            return patientsByDoctor.getOrDefault(invocation.getArgument(0), List.of());
+        });
+    }
+
+    @Test
+    void completesDoctorNamesAndSpecialtiesAfterOneLoad() {
+        doctor(1L, "Dr. Ann Lee", "Cardiology");
+        doctor(2L, "Dr. Carl Moss", "Cardiology");
+        doctor(3L, "Dr. Lena Ortiz", "Dermatology");
+
+        assertEquals(List.of(1L), doctorIds("ann"));
+        assertEquals(List.of(1L, 3L), doctorIds("le"));
+        assertEquals(List.of("Cardiology"), typeahead.completeDoctors("car", 10).get("specialties"));
+        assertEquals(List.of(2L), doctorIds("CARL"));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void doctorsOnlyCompleteTheirOwnPatients() {
+        patients.put(10L, "Mia Stone");
+        patients.put(11L, "Mike Stone");
+        patientsByDoctor.put(1L, List.of(10L));
+
+        assertEquals(List.of(10L), patientIds(1L, "mi"));
+
+        // A booking adds the patient to the doctor's loaded set without another query
+        typeahead.onAppointmentChanged(AppointmentChangedEvent.booked(1L, 11L, null));
+        assertEquals(List.of(10L, 11L), patientIds(1L, "stone"));
+        assertEquals(List.of(), patientIds(2L, "stone"));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void committedChangesUpdateTheLoadedIndexes() {
+        doctor(1L, "Dr. Ann Lee", "Cardiology");
+        doctor(2L, "Dr. Bo Park", "Cardiology");
+        typeahead.completeDoctors("ann", 10);
+
+        // Moving one of two cardiologists keeps the specialty; deleting the other removes it
+        doctor(1L, "Dr. Anna Lee", "Neurology");
+        typeahead.onDoctorChanged(new DoctorChangedEvent(DoctorChangedEvent.Type.UPDATED, 1L));
+        assertEquals(List.of("Cardiology"), typeahead.completeDoctors("card", 10).get("specialties"));
+        assertEquals(List.of("Neurology"), typeahead.completeDoctors("neu", 10).get("specialties"));
+
+        doctors.remove(2L);
+        typeahead.onDoctorChanged(new DoctorChangedEvent(DoctorChangedEvent.Type.DELETED, 2L));
+        assertEquals(List.of(), typeahead.completeDoctors("card", 10).get("specialties"));
+        assertEquals(List.of(), doctorIds("bo"));
+        assertEquals(List.of(1L), doctorIds("anna"));
+
+        patientsByDoctor.put(1L, List.of(10L));
+        typeahead.completePatients(1L, "x", 10);
+        patients.put(10L, "Zoe Hart");
+        typeahead.onPatientChanged(new PatientChangedEvent(PatientChangedEvent.Type.CREATED, 10L));
+        assertEquals(List.of(10L), patientIds(1L, "zoe"));
+    }
+
+    @Test
+    void changesBeforeTheFirstLoadAreLeftToTheLoad() {
+        doctor(1L, "Dr. Ann Lee", "Cardiology");
+        typeahead.onDoctorChanged(new DoctorChangedEvent(DoctorChangedEvent.Type.CREATED, 1L));
+        typeahead.onPatientChanged(new PatientChangedEvent(PatientChangedEvent.Type.CREATED, 10L));
+        assertEquals(0, loads.get());
+
+        assertEquals(List.of(1L), doctorIds("lee"));
+        assertEquals(1, typeahead.getStats().get("specialties"));
+    }
+
+    private void doctor(Long id, String name, String specialty) {
+        doctors.put(id, new DoctorCard(id, name, specialty, "doctor" + id + "@example.com", "0000000000", 0));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> doctorIds(String prefix) {
+        return ((List<Map<String, Object>>) typeahead.completeDoctors(prefix, 10).get("doctors")).stream()
+                .map(match -> (Long) match.get("id"))
+                .toList();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> patientIds(Long doctorId, String prefix) {
+        return ((List<Map<String, Object>>) typeahead.completePatients(doctorId, prefix, 10).get("patients")).stream()
+                .map(match -> (Long) match.get("id"))
+                .sorted()
+                .toList();
+    }
+}